@@ -0,0 +1,74 @@
+package duke.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import duke.task.Task;
+import duke.tasklist.ConcurrentTaskList;
+import duke.tasklist.TaskSnapshot;
+
+/**
+ * Time to mark a task in a {@link ConcurrentTaskList} and then search the new
+ * version a number of times, through {@link ConcurrentTaskList#searchList} and
+ * by a plain scan of the snapshot, so that indexing each version can be checked
+ * never to cost more than scanning it when changes and searches take turns.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ConcurrentSearchBenchmark {
+    private static final String KEYWORD = "report 12";
+
+    @Param({ "1000", "100000" })
+    public int size;
+
+    @Param({ "1", "8", "256" })
+    public int searchesPerChange;
+
+    private ConcurrentTaskList taskList;
+    private int position = 0;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        taskList = new ConcurrentTaskList(TaskGenerator.tasks(size));
+    }
+
+    @Benchmark
+    public int changeThenSearch() {
+        change();
+        int found = 0;
+        for (int i = 0; i < searchesPerChange; i++) {
+            found += taskList.searchList(KEYWORD, false, true).size();
+        }
+        return found;
+    }
+
+    @Benchmark
+    public int changeThenScan() {
+        change();
+        int found = 0;
+        for (int i = 0; i < searchesPerChange; i++) {
+            TaskSnapshot snapshot = taskList.getList();
+            for (Task task : snapshot) {
+                if (task.getDescription().toLowerCase().contains(KEYWORD)) {
+                    found++;
+                }
+            }
+        }
+        return found;
+    }
+
+    private void change() {
+        position = (position + 7919) % size;
+        taskList.markTask(position, !taskList.getList().get(position).getIsDone());
+    }
+}
@@ -0,0 +1,42 @@
+package duke.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import duke.parser.Parser;
+
+/**
+ * Time to parse one line of the save file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ParserBenchmark {
+    private static final int LINES = 1024;
+
+    private String[] lines;
+
+    @Setup
+    public void setUp() {
+        List<String> generated = TaskGenerator.lines(LINES);
+        lines = generated.toArray(new String[0]);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public void createTaskFromLine(Blackhole blackhole) {
+        for (String line : lines) {
+            blackhole.consume(Parser.createTaskFromLine(line));
+        }
+    }
+}
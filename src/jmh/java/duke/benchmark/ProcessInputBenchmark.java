@@ -0,0 +1,90 @@
+package duke.benchmark;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import duke.Duke;
+import duke.storage.Storage;
+import duke.task.Task;
+import duke.ui.UI;
+
+/**
+ * End-to-end time of one command through {@link Duke#processInput(String)},
+ * including journalling it to disk, with replies discarded.
+ * Each iteration starts from a fresh copy of the generated list, so changes do
+ * not carry over between iterations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProcessInputBenchmark {
+    @Param({ "1000", "100000", "1000000" })
+    public int size;
+
+    private List<Task> tasks;
+    private Path folder;
+    private Storage storage;
+    private Duke duke;
+    private int added;
+    private int position;
+
+    @Setup(Level.Trial)
+    public void setUpTasks() {
+        tasks = TaskGenerator.tasks(size);
+    }
+
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException {
+        folder = TempFolder.withTasks(tasks);
+        storage = new Storage(folder);
+        duke = new Duke(new UI(new PrintWriter(Writer.nullWriter())), storage);
+        duke.loadTasks(); // Otherwise loaded by the first command measured
+        added = 0;
+        position = 0;
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        storage.close();
+        TempFolder.delete(folder);
+    }
+
+    @Benchmark
+    public boolean add() {
+        return duke.processInput("todo benchmark task " + added++);
+    }
+
+    @Benchmark
+    public boolean mark() {
+        position = (position + 7919) % size;
+        return duke.processInput((position % 2 == 0 ? "mark " : "unmark ") + (position + 1));
+    }
+
+    /**
+     * Deletes the first task and adds one back, so the list keeps its size.
+     */
+    @Benchmark
+    public boolean deleteFirstAndAdd() {
+        return duke.processInput("delete 1") && duke.processInput("todo benchmark task " + added++);
+    }
+
+    @Benchmark
+    public boolean find() {
+        return duke.processInput("find report 12");
+    }
+}
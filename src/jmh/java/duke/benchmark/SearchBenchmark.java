@@ -0,0 +1,56 @@
+package duke.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import duke.tasklist.IndexedTask;
+import duke.tasklist.TaskList;
+
+/**
+ * Time to search the list, for a keyword long enough for the trigram index and
+ * for one short enough to need a scan, and to find the closest tasks to a
+ * misspelt keyword.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SearchBenchmark {
+    @Param({ "1000", "100000", "1000000" })
+    public int size;
+
+    private TaskList taskList;
+
+    @Setup
+    public void setUp() {
+        taskList = new TaskList(TaskGenerator.tasks(size));
+    }
+
+    @Benchmark
+    public List<IndexedTask> searchIndexed() {
+        return taskList.searchList("report 12", false, true);
+    }
+
+    @Benchmark
+    public List<IndexedTask> searchRare() {
+        return taskList.searchList("groceries mum", false, true);
+    }
+
+    @Benchmark
+    public List<IndexedTask> searchShortKeyword() {
+        return taskList.searchList("99", false, true);
+    }
+
+    @Benchmark
+    public List<IndexedTask> searchSimilar() {
+        return taskList.searchSimilar("reveiw pull request 77", 10);
+    }
+}
@@ -0,0 +1,135 @@
+package duke.benchmark;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time from starting Duke in a new JVM, as a script would, until its prompt is
+ * printed, and until the reply to its first command is printed.
+ * By default Duke runs from the benchmark's own class path. To measure the
+ * shadow jar with its AppCDS archive, build both with ./gradlew cdsArchive and
+ * pass -p jar=build/libs/duke.jar -p jvmArgs=-XX:SharedArchiveFile=build/libs/duke.jsa
+ * to the benchmark.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 20)
+@Fork(1)
+public class StartupBenchmark {
+    private static final String PROMPT = "What can I do for you?";
+    // Needs the whole list loaded, but replies with a few lines whatever its size
+    private static final String FIRST_COMMAND = "mark 1";
+    private static final String FIRST_REPLY = "Got it. I've mark this task as done:";
+
+    @Param({ "1000", "100000", "1000000" })
+    public int size;
+
+    /** The jar to run, or empty to run duke.Duke from the benchmark's class path. */
+    @Param({ "" })
+    public String jar;
+
+    /** Options for Duke's JVM, separated by spaces. */
+    @Param({ "" })
+    public String jvmArgs;
+
+    private Path folder;
+    private Process process;
+    private BufferedReader output;
+
+    @Setup(Level.Trial)
+    public void setUpTasks() throws IOException {
+        folder = TempFolder.withTasks(TaskGenerator.tasks(size));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDownTasks() throws IOException {
+        TempFolder.delete(folder);
+    }
+
+    /**
+     * Ends the run of Duke left by each measurement, outside of the time measured.
+     */
+    @TearDown(Level.Invocation)
+    public void stop() throws IOException, InterruptedException {
+        try (Writer input = new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8)) {
+            input.write("bye\n");
+        } catch (IOException e) {
+            // Already exited
+        }
+        while (output.readLine() != null) {
+            // Read to the end, so that Duke is never stuck on a full pipe
+        }
+        if (!process.waitFor(1, TimeUnit.MINUTES)) {
+            process.destroyForcibly();
+        }
+        output.close();
+    }
+
+    @Benchmark
+    public void timeToPrompt() throws IOException {
+        start();
+        readUntil(PROMPT);
+    }
+
+    @Benchmark
+    public void timeToFirstCommand() throws IOException {
+        start();
+        readUntil(PROMPT);
+        Writer input = new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8);
+        input.write(FIRST_COMMAND + "\n");
+        input.flush();
+        readUntil(FIRST_REPLY);
+    }
+
+    private void start() throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        if (!jvmArgs.isBlank()) {
+            command.addAll(Arrays.asList(jvmArgs.trim().split("\\s+")));
+        }
+        if (jar.isEmpty()) {
+            command.addAll(List.of("-cp", System.getProperty("java.class.path"), "duke.Duke"));
+        } else {
+            command.addAll(List.of("-jar", jar));
+        }
+        command.addAll(List.of("--data", folder.toString()));
+        process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.DISCARD).start();
+        output = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+    }
+
+    private void readUntil(String text) throws IOException {
+        String line;
+        while ((line = output.readLine()) != null) {
+            if (line.contains(text)) {
+                return;
+            }
+        }
+        throw new IOException("Duke exited before printing \"" + text + "\"");
+    }
+}
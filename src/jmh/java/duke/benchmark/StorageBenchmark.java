@@ -0,0 +1,74 @@
+package duke.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import duke.storage.SnapshotFormat;
+import duke.storage.Storage;
+import duke.task.Task;
+
+/**
+ * Time to load and to save the whole list, in each snapshot format, and to save
+ * it after a single task changes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class StorageBenchmark {
+    @Param({ "1000", "100000", "1000000" })
+    public int size;
+
+    @Param({ "TEXT", "BINARY", "SEGMENTED" })
+    public SnapshotFormat format;
+
+    private List<Task> tasks;
+    private Path folder;
+    private Storage storage;
+    private int marked = 0;
+
+    @Setup
+    public void setUp() throws IOException {
+        tasks = TaskGenerator.tasks(size);
+        folder = TempFolder.withTasks(tasks);
+        storage = new Storage(folder);
+        storage.setFormat(format);
+        storage.saveTasks(tasks);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        storage.close();
+        TempFolder.delete(folder);
+    }
+
+    @Benchmark
+    public List<Task> loadTasks() {
+        return new Storage(folder).loadTasks();
+    }
+
+    @Benchmark
+    public void saveTasks() {
+        storage.saveTasks(tasks);
+    }
+
+    @Benchmark
+    public void markAndSave() {
+        int index = marked++ % size;
+        Task task = tasks.get(index);
+        task.setIsDone(!task.getIsDone());
+        storage.logMark(tasks, index, task.getIsDone());
+        storage.saveTasks(tasks);
+    }
+}
@@ -0,0 +1,72 @@
+package duke.benchmark;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import duke.task.Deadlines;
+import duke.task.Events;
+import duke.task.Task;
+import duke.task.ToDos;
+
+/**
+ * Generates the same synthetic tasks for a given count and seed on every run, so
+ * that results can be compared across commits.
+ */
+class TaskGenerator {
+    static final long SEED = 20230806L;
+
+    private static final String[] WORDS = {
+        "read", "book", "return", "project", "meeting", "buy", "groceries", "call", "mum", "submit",
+        "report", "review", "pull", "request", "plan", "trip", "pay", "bills", "gym", "lecture",
+    };
+    private static final LocalDate FIRST_DAY = LocalDate.of(2023, 1, 1);
+
+    /**
+     * Returns the given number of tasks: half todos, a quarter deadlines and a
+     * quarter events, with two to five word descriptions and a third of them done.
+     */
+    static List<Task> tasks(int count) {
+        Random random = new Random(SEED);
+        List<Task> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String description = description(random) + " " + i;
+            boolean isDone = random.nextInt(3) == 0;
+            LocalDate day = FIRST_DAY.plusDays(random.nextInt(730));
+            switch (random.nextInt(4)) {
+                case 0:
+                    tasks.add(new Deadlines(description, isDone, day));
+                    break;
+                case 1:
+                    LocalDateTime from = day.atTime(random.nextInt(24), 0);
+                    tasks.add(new Events(description, isDone, from, from.plusHours(1 + random.nextInt(48))));
+                    break;
+                default:
+                    tasks.add(new ToDos(description, isDone));
+                    break;
+            }
+        }
+        return tasks;
+    }
+
+    /**
+     * Returns the tasks as lines of the save file.
+     */
+    static List<String> lines(int count) {
+        List<String> lines = new ArrayList<>(count);
+        for (Task task : tasks(count)) {
+            lines.add(task.toFileString());
+        }
+        return lines;
+    }
+
+    private static String description(Random random) {
+        StringBuilder sb = new StringBuilder(WORDS[random.nextInt(WORDS.length)]);
+        for (int i = 1 + random.nextInt(4); i > 0; i--) {
+            sb.append(' ').append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,40 @@
+package duke.benchmark;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import duke.storage.Storage;
+import duke.task.Task;
+
+/**
+ * Scratch data folders, so that benchmarks never touch ./data.
+ */
+class TempFolder {
+    /**
+     * Creates a new folder holding a saved snapshot of the given tasks.
+     */
+    static Path withTasks(List<Task> tasks) throws IOException {
+        Path folder = Files.createTempDirectory("duke-bench");
+        Storage storage = new Storage(folder);
+        storage.saveTasks(tasks);
+        storage.close();
+        return folder;
+    }
+
+    static void delete(Path folder) throws IOException {
+        try (Stream<Path> paths = Files.walk(folder)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.delete(path);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+}
@@ -1,14 +1,43 @@
 package duke;
 
-import java.util.Iterator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import java.util.Scanner;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
 
+import javax.management.JMException;
+
+import duke.command.ParsedCommand;
 import duke.command.TaskType;
 import duke.error.ErrorType;
+import duke.metrics.Metrics;
+import duke.parser.CommandParser;
+import duke.parser.Parser;
+import duke.server.DukeServer;
 import duke.ui.UI;
+import duke.storage.Durability;
+import duke.storage.ExportFormat;
+import duke.storage.SnapshotFormat;
 import duke.storage.Storage;
+import duke.storage.TaskExporter;
+import duke.storage.TaskImporter;
+import duke.tasklist.IndexedTask;
+import duke.tasklist.TaskChange;
 import duke.tasklist.TaskList;
 
 import duke.task.Events;
@@ -22,6 +51,11 @@ import duke.task.Task;
  * interface.
  */
 public class Duke {
+    private static final long DEFAULT_COMMIT_WINDOW_MILLIS = 5;
+    private static final TaskType[] TASK_TYPES = { TaskType.TODO, TaskType.DEADLINE, TaskType.EVENT };
+    private static final String FIND_SELECTION = "find:";
+    private static final int FUZZY_FIND_LIMIT = 10;
+
     /**
      * The user interface component for Duke.
      */
@@ -31,108 +65,454 @@ public class Duke {
      */
     private Storage storage;
     /**
-     * The task list component for Duke, containing the user's tasks.
+     * The task list component for Duke, containing the user's tasks, or null
+     * until they are loaded.
      */
     private TaskList taskList;
+    /**
+     * Loads the task list on another thread while the welcome message is shown,
+     * or null if it is not being loaded that way.
+     */
+    private FutureTask<TaskList> loader;
+    /**
+     * Where the task list is loaded in the background, or null for a thread of
+     * its own.
+     */
+    private Executor loadExecutor;
+    /**
+     * Whether "stats" shows the metrics of the whole process, which covers other
+     * users' sessions too when Duke is served to many.
+     */
+    private boolean isShowingProcessMetrics = true;
+    /**
+     * The only folder export and import may use, or null if they may use any file.
+     */
+    private Path transferFolder;
+    /**
+     * The parser that splits user input into commands.
+     */
+    private final CommandParser commandParser;
 
     /**
      * Constructs a Duke instance, initializing the UI, storage, and task list.
      */
     public Duke() {
-        this.ui = new UI();
-        this.storage = new Storage();
-        this.taskList = new TaskList(storage.loadTasks());
+        this(new UI(), new Storage());
+    }
+
+    /**
+     * Constructs a Duke instance with the given UI and storage. The task list is
+     * loaded from the storage when first needed, or alongside the welcome
+     * message by {@link #run(Scanner)}, so that the prompt does not wait for it.
+     *
+     * @param ui      The user interface to print replies to.
+     * @param storage The storage to load and save tasks with.
+     */
+    public Duke(UI ui, Storage storage) {
+        this.ui = ui;
+        this.storage = storage;
+        this.commandParser = new CommandParser(ui.TASK_KEYWORDS);
+    }
+
+    /**
+     * Limits export and import to files directly inside the given folder, named
+     * without any folder of their own, for users who must not reach the rest of
+     * the file system, such as the clients of a server.
+     *
+     * @param folder The folder files are written to and read from.
+     */
+    public void setTransferFolder(Path folder) {
+        this.transferFolder = folder;
+    }
+
+    /**
+     * Loads the task list in the background on the given executor, rather than
+     * on a new platform thread, for callers that run many sessions at once.
+     *
+     * @param executor The executor to load on.
+     */
+    public void setLoadExecutor(Executor executor) {
+        this.loadExecutor = executor;
+    }
+
+    /**
+     * Sets whether "stats" shows the command, save and load metrics of the whole
+     * process as well as the tasks in this list. A session among many should not
+     * see what the others do.
+     *
+     * @param isShowingProcessMetrics A flag indicating whether to show them.
+     */
+    public void setShowingProcessMetrics(boolean isShowingProcessMetrics) {
+        this.isShowingProcessMetrics = isShowingProcessMetrics;
+    }
+
+    /**
+     * Loads the task list from the storage if it is not loaded yet, waiting for
+     * it if it is being loaded on another thread.
+     */
+    public void loadTasks() {
+        taskList();
+    }
+
+    private TaskList taskList() {
+        if (taskList != null) {
+            return taskList;
+        }
+        if (loader == null) {
+            taskList = new TaskList(storage.loadTasks());
+        } else {
+            try {
+                taskList = loader.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while loading tasks", e);
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause()
+                        : new IllegalStateException(e.getCause());
+            } finally {
+                loader = null;
+            }
+        }
+        updateTaskCounts();
+        return taskList;
+    }
+
+    /**
+     * Starts loading the task list on the load executor or a thread of its own,
+     * unless it is loaded or loading already. Nothing else uses the storage until {@link #taskList()}
+     * has waited for it.
+     */
+    private void startLoading() {
+        if (taskList != null || loader != null) {
+            return;
+        }
+        loader = new FutureTask<>(() -> new TaskList(storage.loadTasks()));
+        if (loadExecutor != null) {
+            loadExecutor.execute(loader);
+            return;
+        }
+        Thread thread = new Thread(loader, "duke-loader");
+        thread.setDaemon(true);
+        thread.start();
     }
 
     /**
      * Runs the Duke application, handling user input and processing commands.
-     * Displays welcome and goodbye messages, and saves tasks to file after each
-     * operation.
+     * Displays welcome and goodbye messages, and journals each change to file as
+     * it is made.
      */
     public void run() {
+        run(new Scanner(System.in));
+    }
+
+    /**
+     * Runs the Duke application on the given input, one command per line, until
+     * "bye" or the end of the input. The scanner is closed afterwards.
+     *
+     * @param scanner The input to read commands from.
+     */
+    public void run(Scanner scanner) {
+        startLoading();
         ui.printWelcomeMessage(storage.loadDuke());
+        ui.flush();
 
-        Scanner scanner = new Scanner(System.in);
         String input;
 
         try {
-            while (scanner.hasNextLine()) {
-                input = scanner.nextLine().trim();
-                processInput(input);
+            try {
+                while (scanner.hasNextLine()) {
+                    input = scanner.nextLine().trim();
+                    processInput(input);
+                    ui.flush();
+                    if (input.equalsIgnoreCase("bye")) {
+                        break;
+                    }
+                }
+            } finally {
+                storage.close();
+            }
+            ui.printGoodbyeMessage();
+            ui.flush();
+        } finally {
+            // Closed last, since closing a socket's input closes its output too
+            scanner.close();
+        }
+    }
+
+    /**
+     * Runs the commands in a file without prompting, one command per line, and
+     * prints a summary once done. Blank lines and lines starting with '#' are
+     * skipped, and processing stops at "bye".
+     * Changes are kept in memory and saved together every
+     * {@code commitInterval} commands, or only once at the end if it is 0.
+     *
+     * @param path           The file of commands to run.
+     * @param commitInterval The number of commands between saves, or 0.
+     * @param isQuiet        A flag indicating whether to hide the reply to each
+     *                       command.
+     * @throws IOException If the file cannot be read.
+     */
+    public void runBatch(Path path, int commitInterval, boolean isQuiet) throws IOException {
+        UI batchUi = isQuiet ? new UI(new PrintWriter(Writer.nullWriter())) : ui;
+        UI summaryUi = ui;
+        List<String> failures = new ArrayList<>();
+        int succeeded = 0;
+        int lineNumber = 0;
+
+        ui = batchUi;
+        storage.deferCommits();
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String input;
+            while ((input = reader.readLine()) != null) {
+                lineNumber++;
+                input = input.trim();
+                if (input.isEmpty() || input.startsWith("#")) {
+                    continue;
+                }
                 if (input.equalsIgnoreCase("bye")) {
                     break;
                 }
+                if (processInput(input)) {
+                    succeeded++;
+                } else {
+                    failures.add(lineNumber + ": " + input);
+                }
+                ui.flush();
+                if (commitInterval > 0 && (succeeded + failures.size()) % commitInterval == 0) {
+                    storage.commit(taskList().getList());
+                }
             }
         } finally {
-            scanner.close();
+            storage.resumeCommits(taskList().getList());
+            storage.close();
+            ui = summaryUi;
         }
-        ui.printGoodbyeMessage();
+        ui.printBatchSummary(succeeded, failures);
+        ui.flush();
     }
 
     public static void main(String[] args) {
-        new Duke().run();
+        Path batchPath = null;
+        int commitInterval = 0;
+        boolean isQuiet = false;
+        Durability durability = Durability.SYNC;
+        long commitWindow = DEFAULT_COMMIT_WINDOW_MILLIS;
+        SnapshotFormat convertFormat = null;
+        boolean isJmx = false;
+        int serverPort = -1;
+        String bindAddress = null;
+        Path dataFolder = null;
+        boolean isLazy = false;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--batch":
+                        batchPath = Paths.get(args[++i]);
+                        break;
+                    case "--commit-every":
+                        commitInterval = Integer.parseInt(args[++i]);
+                        break;
+                    case "--quiet":
+                        isQuiet = true;
+                        break;
+                    case "--durability":
+                        durability = Durability.valueOf(args[++i].toUpperCase());
+                        break;
+                    case "--commit-window":
+                        commitWindow = Long.parseLong(args[++i]);
+                        break;
+                    case "--convert":
+                        convertFormat = SnapshotFormat.valueOf(args[++i].toUpperCase());
+                        break;
+                    case "--jmx":
+                        isJmx = true;
+                        break;
+                    case "--server":
+                        serverPort = Integer.parseInt(args[++i]);
+                        break;
+                    case "--bind":
+                        bindAddress = args[++i];
+                        break;
+                    case "--data":
+                        dataFolder = Paths.get(args[++i]);
+                        break;
+                    case "--lazy":
+                        isLazy = true;
+                        break;
+                    default:
+                        throw new IllegalArgumentException(args[i]);
+                }
+            }
+            if (commitInterval < 0 || commitWindow < 0 || (batchPath == null && (isQuiet || commitInterval > 0))
+                    || (serverPort != -1 && (serverPort < 0 || serverPort > 65535 || batchPath != null
+                            || convertFormat != null)) || (bindAddress != null && serverPort == -1)) {
+                throw new IllegalArgumentException();
+            }
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            System.err.println("Usage: duke [--batch <file> [--commit-every <n>] [--quiet]]"
+                    + " [--durability <sync|async|batched|fsync>] [--commit-window <ms>] [--jmx] [--lazy]");
+            System.err.println("       duke --server <port> [--bind <address>]"
+                    + " [--durability <sync|async|batched|fsync>] [--commit-window <ms>] [--jmx]");
+            System.err.println("       duke --convert <text|binary|segmented>");
+            System.err.println("Every form also takes --data <folder> to keep tasks somewhere other than ./data.");
+            System.exit(1);
+        }
+
+        if (isJmx) {
+            try {
+                Metrics.registerMBean();
+            } catch (JMException e) {
+                System.err.println("Unable to register " + Metrics.MBEAN_NAME + ": " + e.getMessage());
+            }
+        }
+
+        if (serverPort != -1) {
+            serve(serverPort, bindAddress, dataFolder == null ? Paths.get("./data") : dataFolder, durability,
+                    commitWindow);
+            return;
+        }
+
+        Storage storage = dataFolder == null ? new Storage() : new Storage(dataFolder);
+        storage.setLazy(isLazy);
+        Duke duke = new Duke(new UI(), storage);
+        if (convertFormat != null) {
+            duke.convert(convertFormat);
+            return;
+        }
+        duke.storage.setDurability(durability, commitWindow);
+        if (batchPath == null) {
+            duke.run();
+            return;
+        }
+        try {
+            duke.runBatch(batchPath, commitInterval, isQuiet);
+        } catch (IOException e) {
+            System.err.println("Unable to read " + batchPath + ": " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Serves sessions over TCP until the process is stopped, keeping each
+     * session's tasks in a folder of its own inside the data folder. Sessions
+     * are not authenticated, so only this machine can connect unless another
+     * address to listen on is given.
+     */
+    private static void serve(int port, String bindAddress, Path dataFolder, Durability durability,
+            long commitWindow) {
+        try (DukeServer server = new DukeServer(bindAddress == null ? InetAddress.getLoopbackAddress()
+                : InetAddress.getByName(bindAddress), port, dataFolder, durability, commitWindow)) {
+            System.err.println("Duke is listening on " + server.getAddress().getHostAddress() + " port "
+                    + server.getPort() + ".");
+            server.serve();
+        } catch (IOException e) {
+            System.err.println("Unable to serve on port " + port + ": " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Rewrites the saved tasks in the given snapshot format.
+     *
+     * @param format The format to save the tasks in.
+     */
+    public void convert(SnapshotFormat format) {
+        storage.setFormat(format);
+        storage.saveTasks(taskList().getList());
+        storage.close();
+        System.out.println("Saved " + taskList().getListSize() + " task(s) in " + format.name().toLowerCase()
+                + " format.");
     }
 
     /**
      * Processes the user input and performs actions based on the recognized
      * commands.
-     * 1. List
-     * 2. Identify Task Type (Skip List)
-     * 3. Confirm it is in a valid format
-     * 4. Map input based on command
+     * 1. Parse the command, reporting typos and empty descriptions
+     * 2. List or show stats
+     * 3. Map input based on command
+     * The time taken is recorded in {@link Metrics}.
      * 
      * @param input The input provided by the user.
+     * @return True if the command was carried out, false if an error or a
+     *         duplicate was reported instead.
      */
-    public void processInput(String input) {
-        if (input.toLowerCase().startsWith(ui.TASK_KEYWORDS.get(TaskType.LIST))) {
-            ui.printTaskList(taskList.getList());
-            return;
-        }
+    public boolean processInput(String input) {
+        long start = System.nanoTime();
+        ParsedCommand parsed = commandParser.parse(input);
+        boolean isCarriedOut = execute(parsed);
+        ErrorType error = parsed.getError();
+        boolean isRecognised = error != ErrorType.ERR_POSSIBLE_TYPO && error != ErrorType.ERR_SYSTEM_READ_FAIL;
+        Metrics.get().recordCommand(isRecognised ? parsed.getTaskType() : null, System.nanoTime() - start);
+        return isCarriedOut;
+    }
 
-        TaskType taskType = anyTaskType(input, ui.TASK_KEYWORDS);
-        if (taskType == null) {
-            ui.printErrorMessage(ErrorType.ERR_SYSTEM_READ_FAIL, taskType, taskList.getListSize());
-            return;
+    private boolean execute(ParsedCommand parsed) {
+        TaskType taskType = parsed.getTaskType();
+        if (parsed.getError() != null) {
+            ui.printErrorMessage(parsed.getError(), taskType, taskList().getListSize());
+            return false;
         }
-
-        String command = ui.TASK_KEYWORDS.get(taskType);
-        ErrorType err = anyError(input, command);
-        if (err != null) {
-            ui.printErrorMessage(err, taskType, taskList.getListSize());
-            return;
+        if (taskType == TaskType.LIST) {
+            ui.printTaskList(taskList().getList());
+            return true;
+        }
+        if (taskType == TaskType.STATS) {
+            ui.printStats(taskList().getCount(TaskType.TODO), taskList().getCount(TaskType.DEADLINE),
+                    taskList().getCount(TaskType.EVENT), isShowingProcessMetrics ? Metrics.get() : null);
+            return true;
+        }
+        if (taskType == TaskType.UNDO || taskType == TaskType.REDO) {
+            return moveInHistory(taskType);
         }
 
         try {
-            String taskDescription = input.substring(command.length() + 1).trim();
+            String taskDescription = parsed.getDescription();
             // FIND
             if (taskType == TaskType.FIND) {
                 taskFind(taskDescription, taskType == TaskType.TODO);
             }
+            // FIND~
+            else if (taskType == TaskType.FUZZY_FIND) {
+                taskFindSimilar(taskDescription);
+            }
+            // EXPORT, IMPORT
+            else if (taskType == TaskType.EXPORT || taskType == TaskType.IMPORT) {
+                return transferTasks(taskDescription, taskType);
+            }
+            // DUE, ON, BETWEEN
+            else if (taskType == TaskType.DUE ||
+                    taskType == TaskType.ON ||
+                    taskType == TaskType.BETWEEN) {
+                taskFindByDate(taskDescription, taskType);
+            }
             // DELETE, MARK, UNMARK
             else if (taskType == TaskType.DELETE ||
                     taskType == TaskType.MARK ||
                     taskType == TaskType.UNMARK) {
+                int intValue;
                 try {
-                    int intValue = Integer.parseInt(taskDescription);
-                    processIndexCommand(intValue, taskType);
+                    intValue = Integer.parseInt(taskDescription);
                 } catch (NumberFormatException e) {
-                    ui.printErrorMessage(ErrorType.ERR_EXPECT_NUMBER, taskType, taskList.getListSize());
+                    return processSelectionCommand(taskDescription, taskType);
                 }
+                return processIndexCommand(intValue, taskType);
             }
             // OTHERS
             else {
-                List<Task> duplicatedTasks = anyDuplicate(taskDescription, taskType);
+                List<IndexedTask> duplicatedTasks = anyDuplicate(taskDescription, taskType);
 
                 if (!duplicatedTasks.isEmpty()) {
-                    ui.printSelectedTasks(taskList.getList(), duplicatedTasks, taskType);
+                    ui.printSelectedTasks(duplicatedTasks, taskType);
+                    return false;
                 } else {
                     taskAdd(taskDescription, taskType);
                 }
             }
         } catch (IllegalArgumentException e) {
-            ui.printErrorMessage(ErrorType.ERR_INVALID_FORMAT, taskType, taskList.getListSize());
-            return;
+            ui.printErrorMessage(ErrorType.ERR_INVALID_FORMAT, taskType, taskList().getListSize());
+            return false;
         }
+        return true;
     }
 
     /**
@@ -146,8 +526,85 @@ public class Duke {
         assert taskDescription != null : "Task description is null in taskAdd method";
         assert taskType != null : "TaskType is null in taskAdd method";
         Task t = instantiateTask(taskType, taskDescription);
-        taskList.addTask(t);
-        storage.saveTasks(taskList.getList()); // Save tasks to file after each
+        taskList().addTask(t);
+        ui.printTaskAdded(t, taskList().getListSize());
+        storage.logAdd(taskList().getList(), t); // Journal the change after each
+        updateTaskCounts();
+    }
+
+    /**
+     * Undoes the last change to the task list, or makes again the last change
+     * undone, and journals the steps that took it there.
+     *
+     * @param taskType UNDO or REDO.
+     * @return True if there was a change to undo or redo.
+     */
+    private boolean moveInHistory(TaskType taskType) {
+        List<TaskChange> changes = taskType == TaskType.UNDO ? taskList().undo() : taskList().redo();
+        if (changes == null) {
+            ui.printHistoryMoved(taskType, -1, taskList().getListSize());
+            return false;
+        }
+        storage.logChanges(taskList().getList(), changes);
+        updateTaskCounts();
+        ui.printHistoryMoved(taskType, changes.size(), taskList().getListSize());
+        return true;
+    }
+
+    /**
+     * Exports the task list to, or imports tasks from, the file given after the
+     * format, as "csv out.csv".
+     *
+     * @param taskDescription The format and the file.
+     * @param taskType        EXPORT or IMPORT.
+     * @return True if the file was written or read.
+     * @throws IllegalArgumentException If the format or the file is missing or
+     *                                  unknown.
+     */
+    private boolean transferTasks(String taskDescription, TaskType taskType) {
+        String[] parts = taskDescription.split("\\s+", 2);
+        if (parts.length < 2) {
+            throw new IllegalArgumentException("Missing file");
+        }
+        ExportFormat format = ExportFormat.parse(parts[0]);
+        Path path = Paths.get(parts[1]);
+        if (transferFolder != null) {
+            String name = path.getFileName() == null ? "" : path.getFileName().toString();
+            if (path.getNameCount() != 1 || path.isAbsolute() || name.equals(".") || name.equals("..")) {
+                ui.printTransferFailed(taskType, parts[1], "only file names, without folders, can be used here");
+                return false;
+            }
+            path = transferFolder.resolve(name);
+        }
+        try {
+            if (transferFolder != null && taskType == TaskType.EXPORT) {
+                Files.createDirectories(transferFolder);
+            }
+            if (taskType == TaskType.EXPORT) {
+                int count = TaskExporter.write(path, taskList().getList(), format);
+                ui.printTasksExported(count, parts[1]);
+                return true;
+            }
+            int sizeBefore = taskList().getListSize();
+            try (TaskImporter importer = TaskImporter.open(path, format)) {
+                int duplicateCount = taskList().addNewTasks(importer);
+                int count = taskList().getListSize() - sizeBefore;
+                ui.printTasksImported(count, importer.getSkippedCount(), duplicateCount,
+                        taskList().getListSize());
+            } finally {
+                // Tasks added before a read failure stay in the list, so they are saved too
+                int count = taskList().getListSize() - sizeBefore;
+                if (count > 0) {
+                    storage.logAdds(taskList().getList(), count);
+                    updateTaskCounts();
+                }
+            }
+            return true;
+        } catch (IOException | UncheckedIOException e) {
+            ui.printTransferFailed(taskType, parts[1], e instanceof NoSuchFileException ? "no such file"
+                    : e.getMessage());
+            return false;
+        }
     }
 
     /**
@@ -161,8 +618,57 @@ public class Duke {
      */
     public void taskFind(String taskDescription, boolean skipSlashCheck) {
         assert taskDescription != null : "Task description is null in taskFind method";
-        List<Task> resultTaskList = taskList.searchList(taskDescription, false, skipSlashCheck);
-        ui.printSelectedTasks(taskList.getList(), resultTaskList, TaskType.FIND);
+        List<IndexedTask> resultTaskList = taskList().searchList(taskDescription, false, skipSlashCheck);
+        ui.printSelectedTasks(resultTaskList, TaskType.FIND);
+    }
+
+    /**
+     * Finds and prints the tasks whose descriptions are most like the provided
+     * one, closest first, so that a description with a typo still finds its task.
+     *
+     * @param taskDescription The description of the task to be found.
+     */
+    public void taskFindSimilar(String taskDescription) {
+        assert taskDescription != null : "Task description is null in taskFindSimilar method";
+        List<IndexedTask> resultTaskList = taskList().searchSimilar(taskDescription, FUZZY_FIND_LIMIT);
+        ui.printSelectedTasks(resultTaskList, TaskType.FUZZY_FIND);
+    }
+
+    /**
+     * Finds and prints the tasks that fall on the dates given after a date query
+     * command: deadlines due on or before the date for DUE, deadlines and events
+     * on the date for ON, and those between two dates, both inclusive, for
+     * BETWEEN.
+     *
+     * @param taskDescription The date, or the two dates for BETWEEN, as
+     *                        yyyy-MM-dd.
+     * @param taskType        The date query command (DUE, ON or BETWEEN).
+     * @throws IllegalArgumentException If the dates are missing or invalid.
+     */
+    public void taskFindByDate(String taskDescription, TaskType taskType) {
+        String[] dates = taskDescription.split("\\s+");
+        if (dates.length != (taskType == TaskType.BETWEEN ? 2 : 1)) {
+            throw new IllegalArgumentException("Invalid format");
+        }
+        LocalDate from = parseQueryDate(dates[0]);
+        List<IndexedTask> matches;
+        if (taskType == TaskType.DUE) {
+            matches = taskList().findDueBy(from);
+        } else if (taskType == TaskType.ON) {
+            matches = taskList().findBetween(from, from);
+        } else {
+            LocalDate to = parseQueryDate(dates[1]);
+            matches = to.isBefore(from) ? taskList().findBetween(to, from) : taskList().findBetween(from, to);
+        }
+        ui.printDateMatches(matches);
+    }
+
+    private static LocalDate parseQueryDate(String date) {
+        try {
+            return LocalDate.parse(date);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid date format, use yyyy-MM-dd", e);
+        }
     }
 
     /**
@@ -174,8 +680,9 @@ public class Duke {
      */
     public void taskMark(int index, boolean isDone) {
         assert index >= 0 : "Index is negative in taskMark method";
-        taskList.markTask(index, isDone);
-        storage.saveTasks(taskList.getList()); // Save tasks to file after each change
+        Task task = taskList().markTask(index, isDone);
+        ui.printTaskMarked(task, isDone);
+        storage.logMark(taskList().getList(), index, isDone); // Journal the change after each
     }
 
     /**
@@ -185,8 +692,16 @@ public class Duke {
      */
     public void taskDelete(int index) {
         assert index >= 0 : "Index is negative in taskDelete method";
-        taskList.deleteTask(index);
-        storage.saveTasks(taskList.getList()); // Save tasks to file after each change
+        Task existing = taskList().deleteTask(index);
+        ui.printTaskDeleted(existing, taskList().getListSize());
+        storage.logDelete(taskList().getList(), index); // Journal the change after each
+        updateTaskCounts();
+    }
+
+    private void updateTaskCounts() {
+        for (TaskType taskType : TASK_TYPES) {
+            Metrics.get().setTaskCount(taskType, taskList().getCount(taskType));
+        }
     }
 
     /**
@@ -194,17 +709,13 @@ public class Duke {
      * the provided task description
      * and task type.
      *
-     * @param taskDescription The index of the task to be
-     *                        processed.
-     * @throws AssertionError If the assertion fails
-     *                        (taskDescription is not greater than 0).
-     * 
-     * @param taskType The type of the task to be processed (DELETE, MARK, or
-     *                 UNMARK).
+     * @param taskDescription The 1-based number of the task to be processed.
+     * @param taskType        The type of the task to be processed (DELETE, MARK,
+     *                        or UNMARK).
+     * @return True if the task was processed, false if the number is out of range.
      */
-    public void processIndexCommand(int taskDescription, TaskType taskType) {
-        assert taskDescription > 0 : "selection should be greater than 0";
-        if (taskDescription > 0 && taskDescription <= taskList.getListSize()) {
+    public boolean processIndexCommand(int taskDescription, TaskType taskType) {
+        if (taskDescription > 0 && taskDescription <= taskList().getListSize()) {
             int index = taskDescription - 1;
             // DELETE
             if (taskType == TaskType.DELETE) {
@@ -215,9 +726,70 @@ public class Duke {
                     taskType == TaskType.UNMARK) {
                 taskMark(index, taskType == TaskType.MARK);
             }
+            return true;
+        } else {
+            ui.printErrorMessage(ErrorType.ERR_EXCEED_LIMIT, taskType, taskList().getListSize());
+            return false;
+        }
+    }
+
+    /**
+     * Processes DELETE, MARK or UNMARK on several tasks at once, picked by a
+     * selection: numbers and ranges such as {@code 3,5,9-400}, {@code done} or
+     * {@code undone} for the tasks with that status, or {@code find:keyword} for
+     * the tasks a find would list. The tasks are changed together and the change
+     * is saved with a single write.
+     *
+     * @param selection The selection as typed after the command.
+     * @param taskType  The command (DELETE, MARK, or UNMARK).
+     * @return True if any task was processed, false if the selection is invalid
+     *         or picks no task.
+     */
+    public boolean processSelectionCommand(String selection, TaskType taskType) {
+        int[] indices;
+        try {
+            indices = selectTasks(selection);
+        } catch (NumberFormatException e) {
+            ui.printErrorMessage(ErrorType.ERR_EXPECT_NUMBER, taskType, taskList().getListSize());
+            return false;
+        } catch (IndexOutOfBoundsException e) {
+            ui.printErrorMessage(ErrorType.ERR_EXCEED_LIMIT, taskType, taskList().getListSize());
+            return false;
+        }
+        if (indices.length == 0) {
+            ui.printNoTasksSelected();
+            return false;
+        }
+        if (taskType == TaskType.DELETE) {
+            List<Task> removed = taskList().deleteTasks(indices);
+            ui.printTasksDeleted(removed, taskList().getListSize());
+            storage.logDeletes(taskList().getList(), indices);
+            updateTaskCounts();
         } else {
-            ui.printErrorMessage(ErrorType.ERR_EXCEED_LIMIT, taskType, taskList.getListSize());
+            boolean isDone = taskType == TaskType.MARK;
+            List<Task> marked = taskList().markTasks(indices, isDone);
+            ui.printTasksMarked(marked, isDone);
+            storage.logMarks(taskList().getList(), indices, isDone);
         }
+        return true;
+    }
+
+    /**
+     * Returns the positions of the tasks a selection picks, in increasing order.
+     */
+    private int[] selectTasks(String selection) {
+        if (selection.equals("done") || selection.equals("undone")) {
+            return taskList().findByStatus(selection.equals("done"));
+        }
+        if (selection.startsWith(FIND_SELECTION)) {
+            String keyword = selection.substring(FIND_SELECTION.length());
+            if (keyword.isBlank()) {
+                throw new NumberFormatException("Missing keyword");
+            }
+            List<IndexedTask> matches = taskList().searchList(keyword, false, false);
+            return matches.stream().mapToInt(IndexedTask::getIndex).toArray();
+        }
+        return Parser.parseSelection(selection, taskList().getListSize());
     }
 
     /**
@@ -245,92 +817,10 @@ public class Duke {
      *
      * @param taskDescription The description of the task.
      * @param taskType        The type of the task (EVENT, DEADLINE, TODO, etc)
-     * @return A list of duplicate tasks from the task list, filtered by description
-     *         and type.
-     */
-    private List<Task> anyDuplicate(String taskDescription, TaskType taskType) {
-        List<Task> resultTaskList = taskList.searchList(taskDescription, true, taskType == TaskType.TODO);
-
-        // Create an iterator to safely remove elements while iterating
-        Iterator<Task> iterator = resultTaskList.iterator();
-        while (iterator.hasNext()) {
-            Task task = iterator.next();
-            if (!task.getTaskType().equals(taskType)) {
-                iterator.remove();
-            }
-        }
-
-        return resultTaskList;
-    }
-
-    /**
-     * Checks for any errors in the user input based on the provided input and
-     * command.
-     *
-     * @param input   The user input.
-     * @param command The expected command.
-     * @return The type of error encountered (ERR_EMPTY_DESCRIPTION,
-     *         ERR_POSSIBLE_TYPO), or null if no error.
+     * @return The duplicate tasks from the task list with their positions,
+     *         filtered by description and type.
      */
-    private ErrorType anyError(String input, String command) {
-        if (input.trim().equalsIgnoreCase(command)) {
-            return ErrorType.ERR_EMPTY_DESCRIPTION;
-        }
-        // A valid command should have a space afterward
-        else if (!input.startsWith(command) || (input.trim().length() > command.length() &&
-                !input.substring(command.length(), command.length() + 1).equals(" "))) {
-            return ErrorType.ERR_POSSIBLE_TYPO;
-        }
-
-        return null;
-
-    }
-
-    /**
-     * Determines the task type based on the provided input and a map of task types
-     * and their corresponding commands.
-     *
-     * @param input The user input.
-     * @param list  A map containing task types and their corresponding commands.
-     * @return The identified task type or null if no match is found.
-     */
-    private TaskType anyTaskType(String input, Map<TaskType, String> list) {
-        for (Map.Entry<TaskType, String> entry : list.entrySet()) {
-            String value1 = entry.getValue();
-            if (input.length() >= value1.length()) {
-                String value2 = input.toLowerCase().substring(0, value1.length());
-
-                if (areStringsSimilar(value1, value2)) {
-                    return entry.getKey();
-                }
-            }
-        }
-        return null;
-    }
-
-    /**
-     * Checks if two strings are similar, allowing for a single character
-     * difference.
-     *
-     * @param s1 The first string.
-     * @param s2 The second string.
-     * @return True if the strings are similar, false otherwise.
-     */
-    private static boolean areStringsSimilar(String s1, String s2) {
-        if (s1.equals(s2)) {
-            return true;
-        }
-
-        int differences = 0;
-        for (int i = 0; i < s1.length() && i < s2.length(); i++) {
-            if (s1.charAt(i) != s2.charAt(i)) {
-                differences++;
-                if (differences > 1) {
-                    return false; // More than one difference, not similar
-                }
-            }
-        }
-
-        return differences == 1; // Only one difference, strings are similar
+    private List<IndexedTask> anyDuplicate(String taskDescription, TaskType taskType) {
+        return taskList().findDuplicates(taskDescription, taskType);
     }
 }
@@ -0,0 +1,58 @@
+package duke.command;
+
+import duke.error.ErrorType;
+
+/**
+ * A line of user input split into its command and description, or the error
+ * it should be reported with.
+ */
+public class ParsedCommand {
+    private final TaskType taskType;
+    private final String description;
+    private final ErrorType error;
+
+    private ParsedCommand(TaskType taskType, String description, ErrorType error) {
+        this.taskType = taskType;
+        this.description = description;
+        this.error = error;
+    }
+
+    /**
+     * Creates a command to be carried out.
+     *
+     * @param taskType    The command.
+     * @param description The trimmed text after the command, empty for LIST.
+     */
+    public static ParsedCommand of(TaskType taskType, String description) {
+        return new ParsedCommand(taskType, description, null);
+    }
+
+    /**
+     * Creates a command that could not be parsed.
+     *
+     * @param taskType The command the input was closest to, or null if none.
+     * @param error    The error to report.
+     */
+    public static ParsedCommand ofError(TaskType taskType, ErrorType error) {
+        return new ParsedCommand(taskType, null, error);
+    }
+
+    /**
+     * Returns the command, or for an error the command the input was closest to,
+     * which may be null.
+     */
+    public TaskType getTaskType() {
+        return taskType;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * Returns the error to report, or null if the command can be carried out.
+     */
+    public ErrorType getError() {
+        return error;
+    }
+}
@@ -9,4 +9,13 @@ public enum TaskType {
     FIND,
     MARK,
     UNMARK,
+    DUE,
+    ON,
+    BETWEEN,
+    STATS,
+    FUZZY_FIND,
+    UNDO,
+    REDO,
+    EXPORT,
+    IMPORT,
 }
@@ -0,0 +1,135 @@
+package duke.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import duke.command.TaskType;
+
+/**
+ * Counters and latency histograms for the whole process: time taken per
+ * command, time taken and bytes written by saves, time taken by loads, and the
+ * number of tasks of each type in the most recently changed list.
+ * Every histogram and counter is created up front, so recording never
+ * allocates.
+ */
+public class Metrics {
+    public static final String MBEAN_NAME = "duke:type=Metrics";
+    public static final String UNKNOWN_COMMAND = "unknown";
+
+    private static final Metrics INSTANCE = new Metrics();
+
+    private final Map<TaskType, LatencyHistogram> commands = new EnumMap<>(TaskType.class);
+    private final LatencyHistogram unknownCommands = new LatencyHistogram();
+    private final LatencyHistogram saves = new LatencyHistogram();
+    private final LatencyHistogram loads = new LatencyHistogram();
+    private final AtomicLong bytesWritten = new AtomicLong();
+    private final AtomicLongArray taskCounts = new AtomicLongArray(TaskType.values().length);
+
+    Metrics() {
+        for (TaskType taskType : TaskType.values()) {
+            commands.put(taskType, new LatencyHistogram());
+        }
+    }
+
+    /**
+     * Returns the metrics shared by the whole process.
+     */
+    public static Metrics get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Registers the shared metrics with the platform MBean server under
+     * {@link #MBEAN_NAME}, unless they already are.
+     *
+     * @throws JMException If the MBean cannot be registered.
+     */
+    public static synchronized void registerMBean() throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(MBEAN_NAME);
+        if (!server.isRegistered(name)) {
+            server.registerMBean(new MetricsView(INSTANCE), name);
+        }
+    }
+
+    /**
+     * Records how long a command took.
+     *
+     * @param taskType The command, or null if it was not recognised.
+     * @param nanos    The time taken in nanoseconds.
+     */
+    public void recordCommand(TaskType taskType, long nanos) {
+        getCommandLatency(taskType).record(nanos);
+    }
+
+    public void recordSave(long nanos) {
+        saves.record(nanos);
+    }
+
+    public void recordLoad(long nanos) {
+        loads.record(nanos);
+    }
+
+    public void recordBytesWritten(long bytes) {
+        bytesWritten.addAndGet(bytes);
+    }
+
+    /**
+     * Sets the number of tasks of a type in the list.
+     */
+    public void setTaskCount(TaskType taskType, long count) {
+        taskCounts.set(taskType.ordinal(), count);
+    }
+
+    /**
+     * Returns the name a command is reported under: its type in lowercase, which
+     * is also its keyword, or {@link #UNKNOWN_COMMAND} for null.
+     */
+    public static String nameOf(TaskType taskType) {
+        return taskType == null ? UNKNOWN_COMMAND : taskType.name().toLowerCase();
+    }
+
+    /**
+     * Returns the histogram of a command, or of unrecognised commands for null.
+     */
+    public LatencyHistogram getCommandLatency(TaskType taskType) {
+        return taskType == null ? unknownCommands : commands.get(taskType);
+    }
+
+    public LatencyHistogram getSaveLatency() {
+        return saves;
+    }
+
+    public LatencyHistogram getLoadLatency() {
+        return loads;
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten.get();
+    }
+
+    public long getTaskCount(TaskType taskType) {
+        return taskCounts.get(taskType.ordinal());
+    }
+
+    /**
+     * Clears every histogram and counter except the task counts, which describe
+     * the list rather than past events.
+     */
+    public void reset() {
+        for (LatencyHistogram histogram : commands.values()) {
+            histogram.reset();
+        }
+        unknownCommands.reset();
+        saves.reset();
+        loads.reset();
+        bytesWritten.set(0);
+    }
+}
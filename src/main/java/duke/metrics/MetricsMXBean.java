@@ -0,0 +1,35 @@
+package duke.metrics;
+
+import java.util.Map;
+
+/**
+ * Management interface of {@link Metrics}, registered as
+ * {@value Metrics#MBEAN_NAME}. Maps are keyed by command keyword, with
+ * "unknown" for input that was not recognised, and only hold commands that have
+ * been run.
+ */
+public interface MetricsMXBean {
+    Map<String, Long> getCommandCounts();
+
+    Map<String, Double> getCommandMeanMicros();
+
+    Map<String, Long> getCommandP99Micros();
+
+    Map<String, Long> getCommandMaxMicros();
+
+    long getSaveCount();
+
+    double getSaveMeanMillis();
+
+    long getSaveMaxMillis();
+
+    long getLoadCount();
+
+    double getLoadMeanMillis();
+
+    long getBytesWritten();
+
+    Map<String, Long> getTaskCounts();
+
+    void reset();
+}
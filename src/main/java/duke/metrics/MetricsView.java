@@ -0,0 +1,111 @@
+package duke.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+import duke.command.TaskType;
+
+/**
+ * Exposes {@link Metrics} over JMX, converting durations to the units named by
+ * each attribute.
+ */
+class MetricsView implements MetricsMXBean {
+    private static final long NANOS_PER_MICRO = 1_000;
+    private static final long NANOS_PER_MILLI = 1_000_000;
+
+    private final Metrics metrics;
+
+    MetricsView(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Map<String, Long> getCommandCounts() {
+        return perCommand(LatencyHistogram::getCount);
+    }
+
+    @Override
+    public Map<String, Double> getCommandMeanMicros() {
+        Map<String, Double> result = new LinkedHashMap<>();
+        for (Map.Entry<String, Long> entry : getCommandCounts().entrySet()) {
+            LatencyHistogram histogram = metrics.getCommandLatency(toTaskType(entry.getKey()));
+            result.put(entry.getKey(), histogram.getMeanNanos() / NANOS_PER_MICRO);
+        }
+        return result;
+    }
+
+    @Override
+    public Map<String, Long> getCommandP99Micros() {
+        return perCommand(histogram -> histogram.getPercentileNanos(99) / NANOS_PER_MICRO);
+    }
+
+    @Override
+    public Map<String, Long> getCommandMaxMicros() {
+        return perCommand(histogram -> histogram.getMaxNanos() / NANOS_PER_MICRO);
+    }
+
+    @Override
+    public long getSaveCount() {
+        return metrics.getSaveLatency().getCount();
+    }
+
+    @Override
+    public double getSaveMeanMillis() {
+        return metrics.getSaveLatency().getMeanNanos() / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public long getSaveMaxMillis() {
+        return metrics.getSaveLatency().getMaxNanos() / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public long getLoadCount() {
+        return metrics.getLoadLatency().getCount();
+    }
+
+    @Override
+    public double getLoadMeanMillis() {
+        return metrics.getLoadLatency().getMeanNanos() / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return metrics.getBytesWritten();
+    }
+
+    @Override
+    public Map<String, Long> getTaskCounts() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (TaskType taskType : new TaskType[] { TaskType.TODO, TaskType.DEADLINE, TaskType.EVENT }) {
+            result.put(Metrics.nameOf(taskType), metrics.getTaskCount(taskType));
+        }
+        return result;
+    }
+
+    @Override
+    public void reset() {
+        metrics.reset();
+    }
+
+    private Map<String, Long> perCommand(ToLongFunction<LatencyHistogram> value) {
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (TaskType taskType : TaskType.values()) {
+            putIfRun(result, taskType, value);
+        }
+        putIfRun(result, null, value);
+        return result;
+    }
+
+    private void putIfRun(Map<String, Long> result, TaskType taskType, ToLongFunction<LatencyHistogram> value) {
+        LatencyHistogram histogram = metrics.getCommandLatency(taskType);
+        if (histogram.getCount() > 0) {
+            result.put(Metrics.nameOf(taskType), value.applyAsLong(histogram));
+        }
+    }
+
+    private static TaskType toTaskType(String name) {
+        return name.equals(Metrics.UNKNOWN_COMMAND) ? null : TaskType.valueOf(name.toUpperCase());
+    }
+}
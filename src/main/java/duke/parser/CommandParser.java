@@ -0,0 +1,177 @@
+package duke.parser;
+
+import java.util.Map;
+
+import duke.command.ParsedCommand;
+import duke.command.TaskType;
+import duke.error.ErrorType;
+
+/**
+ * Splits user input into a command and its description.
+ * The command keywords are compiled into a trie once, so recognising a command
+ * is a single walk over the start of the input. Input that does not start with a
+ * command is matched against the keywords one edit away (a character added,
+ * removed or changed), and reported as a possible typo of the one that comes
+ * first in {@link TaskType}, so the suggestion never depends on map order.
+ */
+public class CommandParser {
+    private final Node root = new Node();
+
+    private static class Node {
+        final Node[] children = new Node['z' - 'a' + 2];
+        TaskType taskType;
+
+        Node child(char c) {
+            int slot = slotOf(c);
+            return slot == -1 ? null : children[slot];
+        }
+    }
+
+    /**
+     * Returns the child slot of a keyword character: a lowercase letter, or '~'
+     * after the last, or -1 for any other character.
+     */
+    private static int slotOf(char c) {
+        if (c >= 'a' && c <= 'z') {
+            return c - 'a';
+        }
+        return c == '~' ? 'z' - 'a' + 1 : -1;
+    }
+
+    /**
+     * Compiles the given command keywords, which must be lowercase letters,
+     * optionally ending in '~' as in {@code find~}.
+     *
+     * @param keywords The keyword of each command.
+     */
+    public CommandParser(Map<TaskType, String> keywords) {
+        for (Map.Entry<TaskType, String> entry : keywords.entrySet()) {
+            Node node = root;
+            String keyword = entry.getValue();
+            for (int i = 0; i < keyword.length(); i++) {
+                char c = keyword.charAt(i);
+                int slot = slotOf(c);
+                if (slot == -1 || (c == '~' && (i == 0 || i != keyword.length() - 1))) {
+                    throw new IllegalArgumentException("Invalid command keyword: " + keyword);
+                }
+                if (node.children[slot] == null) {
+                    node.children[slot] = new Node();
+                }
+                node = node.children[slot];
+            }
+            node.taskType = entry.getKey();
+        }
+    }
+
+    private static boolean takesNoDescription(TaskType t) {
+        return t == TaskType.STATS || t == TaskType.UNDO || t == TaskType.REDO;
+    }
+
+    /**
+     * Parses a line of user input.
+     * The command must be typed in lowercase and followed by a space and its
+     * description, except for LIST, which ignores anything after it, and STATS,
+     * UNDO and REDO, which take no description and are reported as badly formed
+     * if given one. A command typed in another case, run into the
+     * text after it or one edit away from a keyword is reported as a possible
+     * typo, and a command with nothing after it as an empty description.
+     *
+     * @param input The user input.
+     * @return The command to carry out, or the error to report.
+     */
+    public ParsedCommand parse(String input) {
+        Node node = root;
+        TaskType prefixOf = null; // A command the input starts with but runs on from
+        boolean isLowerCase = true;
+        for (int i = 0; i < input.length(); i++) {
+            char c = input.charAt(i);
+            char lower = Character.toLowerCase(c);
+            node = node.child(lower);
+            if (node == null) {
+                break;
+            }
+            isLowerCase &= c == lower;
+            if (node.taskType == null) {
+                continue;
+            }
+            if (node.taskType == TaskType.LIST) {
+                return ParsedCommand.of(TaskType.LIST, "");
+            }
+            int end = i + 1;
+            if (takesNoDescription(node.taskType) && (end == input.length() || input.charAt(end) == ' ')) {
+                if (!input.substring(end).trim().isEmpty()) {
+                    // Not carried out: text after undo may mean the user typed something else
+                    return ParsedCommand.ofError(node.taskType, ErrorType.ERR_INVALID_FORMAT);
+                }
+                return ParsedCommand.of(node.taskType, "");
+            }
+            if (end < input.length() && input.charAt(end) != ' ') {
+                if (prefixOf == null) {
+                    prefixOf = node.taskType;
+                }
+                continue;
+            }
+            String description = input.substring(end).trim();
+            if (description.isEmpty()) {
+                return ParsedCommand.ofError(node.taskType, ErrorType.ERR_EMPTY_DESCRIPTION);
+            }
+            if (!isLowerCase) {
+                return ParsedCommand.ofError(node.taskType, ErrorType.ERR_POSSIBLE_TYPO);
+            }
+            return ParsedCommand.of(node.taskType, description);
+        }
+
+        if (prefixOf != null) {
+            return ParsedCommand.ofError(prefixOf, ErrorType.ERR_POSSIBLE_TYPO);
+        }
+        int space = input.indexOf(' ');
+        String word = (space == -1 ? input : input.substring(0, space)).toLowerCase();
+        TaskType suggestion = closestCommand(root, word, 0, false);
+        if (suggestion != null) {
+            return ParsedCommand.ofError(suggestion, ErrorType.ERR_POSSIBLE_TYPO);
+        }
+        return ParsedCommand.ofError(null, ErrorType.ERR_SYSTEM_READ_FAIL);
+    }
+
+    /**
+     * Returns the first command, in {@link TaskType} order, whose keyword is
+     * exactly one edit away from the word, or null if there is none.
+     *
+     * @param node     The trie node reached so far.
+     * @param word     The lowercased word to match.
+     * @param index    The position in the word reached so far.
+     * @param isEdited A flag indicating whether the edit has been used up.
+     */
+    private static TaskType closestCommand(Node node, String word, int index, boolean isEdited) {
+        TaskType best = null;
+        if (index == word.length() && isEdited) {
+            best = node.taskType;
+        }
+        for (int slot = 0; slot < node.children.length; slot++) {
+            Node child = node.children[slot];
+            if (child == null) {
+                continue;
+            }
+            char c = slot <= 'z' - 'a' ? (char) ('a' + slot) : '~';
+            if (index < word.length() && word.charAt(index) == c) {
+                best = first(best, closestCommand(child, word, index + 1, isEdited));
+            } else if (!isEdited) {
+                if (index < word.length()) {
+                    best = first(best, closestCommand(child, word, index + 1, true)); // Changed
+                }
+                best = first(best, closestCommand(child, word, index, true)); // Left out
+            }
+        }
+        if (!isEdited && index < word.length()) {
+            best = first(best, closestCommand(node, word, index + 1, true)); // Typed in extra
+        }
+        return best;
+    }
+
+    private static TaskType first(TaskType a, TaskType b) {
+        if (a == null) {
+            return b;
+        }
+        return b == null || a.ordinal() <= b.ordinal() ? a : b;
+    }
+}
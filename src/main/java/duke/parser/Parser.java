@@ -1,6 +1,9 @@
 package duke.parser;
 
+import java.time.DateTimeException;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.BitSet;
 
 import duke.command.TaskType;
 import duke.task.Deadlines;
@@ -9,6 +12,9 @@ import duke.task.Task;
 import duke.task.ToDos;
 
 public class Parser {
+    private static final char SEPARATOR = '|';
+    private static final int MAX_FIELDS = 5;
+
     public static Task createTask(TaskType taskType, String taskDescription) {
         switch (taskType) {
             case EVENT:
@@ -20,26 +26,161 @@ public class Parser {
         }
     }
 
+    /**
+     * Creates a task from a line of the save file, e.g.
+     * {@code E | 0 | project meeting | 2023-08-06T14:00 | 2023-08-06T16:00}.
+     * The line is scanned once for separators and dates are read straight from
+     * their character offsets; the description is the only string allocated.
+     * Whitespace next to a separator is ignored, as are fields past the ones the
+     * task type needs.
+     *
+     * @param line A line of the save file.
+     * @return The task the line describes.
+     * @throws IllegalArgumentException If the line is malformed.
+     */
     public static Task createTaskFromLine(String line) {
-        String[] parts = line.split("\\s*\\|\\s*");
-        String type = parts[0];
-        boolean isDone = parts[1].equals("1");
-        String description = parts[2];
+        // starts[i] and ends[i] bound field i with the whitespace around separators trimmed
+        int[] starts = new int[MAX_FIELDS];
+        int[] ends = new int[MAX_FIELDS];
+        int fields = 0;
+        int start = 0;
+        for (int i = 0; i <= line.length() && fields < MAX_FIELDS; i++) {
+            if (i == line.length() || line.charAt(i) == SEPARATOR) {
+                int end = i;
+                if (i < line.length()) {
+                    while (end > start && isWhitespace(line.charAt(end - 1))) {
+                        end--;
+                    }
+                }
+                starts[fields] = start;
+                ends[fields] = end;
+                fields++;
+                start = i + 1;
+                while (start < line.length() && isWhitespace(line.charAt(start))) {
+                    start++;
+                }
+            }
+        }
+
+        if (fields < 3 || ends[0] - starts[0] != 1) {
+            throw new IllegalArgumentException("Invalid task: " + line);
+        }
+        char type = line.charAt(starts[0]);
+        boolean isDone = parseDone(line, starts[1], ends[1]);
+        if (ends[2] == starts[2]) {
+            throw new IllegalArgumentException("Missing description: " + line);
+        }
+        String description = line.substring(starts[2], ends[2]);
 
         switch (type) {
-            case "T":
+            case 'T':
                 return new ToDos(description, isDone);
-            case "D":
-                String deadline = parts[3];
-                return new Deadlines(description, isDone, deadline);
-            case "E":
-                String fromStr = parts[3];
-                String toStr = parts[4];
-                LocalDateTime from = LocalDateTime.parse(fromStr);
-                LocalDateTime to = LocalDateTime.parse(toStr);
+            case 'D':
+                requireFields(line, fields, 4);
+                return new Deadlines(description, isDone, parseDate(line, starts[3], ends[3]));
+            case 'E':
+                requireFields(line, fields, 5);
+                LocalDateTime from = parseDateTime(line, starts[3], ends[3]);
+                LocalDateTime to = parseDateTime(line, starts[4], ends[4]);
                 return new Events(description, isDone, from, to);
             default:
                 throw new IllegalArgumentException("Invalid task type: " + type);
         }
     }
+
+    /**
+     * Parses a selection of task numbers such as {@code 3,5,9-400}: numbers and
+     * ranges of numbers, both ends included, separated by commas. A range may be
+     * given either way round, and numbers picked more than once count once.
+     *
+     * @param selection The selection as typed after the command.
+     * @param size      The number of tasks in the list.
+     * @return The 0-based positions picked, in increasing order.
+     * @throws NumberFormatException     If a part is not a number or a range.
+     * @throws IndexOutOfBoundsException If a number is not between 1 and size.
+     */
+    public static int[] parseSelection(String selection, int size) {
+        BitSet picked = new BitSet(size);
+        for (String part : selection.split(",", -1)) {
+            int dash = part.indexOf('-');
+            int from = Integer.parseInt(part.substring(0, dash == -1 ? part.length() : dash).trim());
+            int to = dash == -1 ? from : Integer.parseInt(part.substring(dash + 1).trim());
+            if (to < from) {
+                int swap = from;
+                from = to;
+                to = swap;
+            }
+            if (from < 1 || to > size) {
+                throw new IndexOutOfBoundsException("Not between 1 and " + size + ": " + part.trim());
+            }
+            picked.set(from - 1, to);
+        }
+        return picked.stream().toArray();
+    }
+
+    private static boolean isWhitespace(char c) {
+        // Same set as \s in java.util.regex
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private static void requireFields(String line, int fields, int expected) {
+        if (fields < expected) {
+            throw new IllegalArgumentException("Missing date: " + line);
+        }
+    }
+
+    private static boolean parseDone(String line, int start, int end) {
+        if (end - start == 1) {
+            char c = line.charAt(start);
+            if (c == '1' || c == '0') {
+                return c == '1';
+            }
+        }
+        throw new IllegalArgumentException("Invalid status: " + line);
+    }
+
+    /**
+     * Parses a yyyy-MM-dd date.
+     */
+    public static LocalDate parseDate(CharSequence s, int start, int end) {
+        if (end - start != 10 || s.charAt(start + 4) != '-' || s.charAt(start + 7) != '-') {
+            throw new IllegalArgumentException("Invalid date: " + s.subSequence(start, end));
+        }
+        try {
+            return LocalDate.of(digits(s, start, 4), digits(s, start + 5, 2), digits(s, start + 8, 2));
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("Invalid date: " + s.subSequence(start, end), e);
+        }
+    }
+
+    /**
+     * Parses a yyyy-MM-ddTHH:mm or yyyy-MM-ddTHH:mm:ss date-time, the forms
+     * {@link LocalDateTime#toString()} produces for whole minutes and seconds.
+     */
+    public static LocalDateTime parseDateTime(CharSequence s, int start, int end) {
+        int length = end - start;
+        if ((length != 16 && length != 19) || s.charAt(start + 10) != 'T' || s.charAt(start + 13) != ':'
+                || (length == 19 && s.charAt(start + 16) != ':')) {
+            throw new IllegalArgumentException("Invalid date-time: " + s.subSequence(start, end));
+        }
+        LocalDate date = parseDate(s, start, start + 10);
+        try {
+            int second = length == 19 ? digits(s, start + 17, 2) : 0;
+            return date.atTime(digits(s, start + 11, 2), digits(s, start + 14, 2), second);
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("Invalid date-time: " + s.subSequence(start, end), e);
+        }
+    }
+
+    private static int digits(CharSequence s, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') {
+                throw new IllegalArgumentException("Invalid number: " + s.subSequence(start, start + count));
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
 }
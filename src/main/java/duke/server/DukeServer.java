@@ -0,0 +1,241 @@
+package duke.server;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Scanner;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import duke.Duke;
+import duke.storage.Durability;
+import duke.storage.Storage;
+import duke.ui.UI;
+
+/**
+ * Serves Duke to many clients at once over TCP, one session per connection.
+ * A client first sends a session name, which picks the folder its tasks are
+ * saved in, and then talks to Duke line by line exactly as on the command line.
+ * Each session has its own task list, storage and output, and runs on its own
+ * thread: a virtual thread where the JDK has them, otherwise a pooled platform
+ * thread. A session name can only be used by one connection at a time.
+ * Sessions are not authenticated, so the server listens on the loopback address
+ * unless told otherwise.
+ * Export and import only reach files in a folder of the session's own.
+ */
+public class DukeServer implements Closeable {
+    private static final Pattern SESSION_NAME = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+    private static final int BACKLOG = 4096;
+    private static final String TRANSFER_FOLDER = "files";
+    private static final long CLOSE_TIMEOUT_SECONDS = 30;
+
+    private final ServerSocket serverSocket;
+    private final Path dataFolder;
+    private final Durability durability;
+    private final long commitWindow;
+    private final ExecutorService sessions = newSessionExecutor();
+    private final Set<String> activeSessions = ConcurrentHashMap.newKeySet();
+    private final Set<Socket> openSockets = ConcurrentHashMap.newKeySet();
+    private volatile boolean isClosed = false;
+
+    /**
+     * Opens a server on the given port of the loopback address, so that only
+     * clients on this machine can connect. Each session saves its tasks in a
+     * folder named after it inside the data folder.
+     *
+     * @param port         The port to listen on, or 0 for any free port.
+     * @param dataFolder   The folder to keep session folders in.
+     * @param durability   How soon each session's changes reach the disk.
+     * @param commitWindow How long, in milliseconds, changes may wait to be
+     *                     written together.
+     * @throws IOException If the port cannot be opened.
+     */
+    public DukeServer(int port, Path dataFolder, Durability durability, long commitWindow) throws IOException {
+        this(InetAddress.getLoopbackAddress(), port, dataFolder, durability, commitWindow);
+    }
+
+    /**
+     * Opens a server on the given address and port. Sessions are not
+     * authenticated, so anyone who can reach the address and knows a session
+     * name can use that session.
+     *
+     * @param address      The local address to listen on.
+     * @param port         The port to listen on, or 0 for any free port.
+     * @param dataFolder   The folder to keep session folders in.
+     * @param durability   How soon each session's changes reach the disk.
+     * @param commitWindow How long, in milliseconds, changes may wait to be
+     *                     written together.
+     * @throws IOException If the port cannot be opened.
+     */
+    public DukeServer(InetAddress address, int port, Path dataFolder, Durability durability, long commitWindow)
+            throws IOException {
+        this.serverSocket = new ServerSocket();
+        this.serverSocket.bind(new InetSocketAddress(address, port), BACKLOG);
+        this.dataFolder = dataFolder;
+        this.durability = durability;
+        this.commitWindow = commitWindow;
+    }
+
+    /**
+     * Returns the address the server is listening on.
+     */
+    public InetAddress getAddress() {
+        return serverSocket.getInetAddress();
+    }
+
+    /**
+     * Returns the port the server is listening on.
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Returns the number of sessions that are currently open.
+     */
+    public int getActiveSessionCount() {
+        return activeSessions.size();
+    }
+
+    /**
+     * Accepts connections until the server is closed, starting a session for each.
+     * If the JVM exits meanwhile, the server is closed first so that sessions
+     * save their tasks, since their writers are not flushed on exit by themselves.
+     *
+     * @throws IOException If accepting a connection fails while the server is open.
+     */
+    public void serve() throws IOException {
+        Thread shutdownHook = new Thread(() -> {
+            try {
+                close();
+            } catch (IOException e) {
+                // Exiting anyway
+            }
+        }, "duke-server-close");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+        try {
+            while (!isClosed) {
+                Socket socket;
+                try {
+                    socket = serverSocket.accept();
+                } catch (IOException e) {
+                    if (isClosed) {
+                        return;
+                    }
+                    throw e;
+                }
+                openSockets.add(socket);
+                sessions.execute(() -> handle(socket));
+            }
+        } finally {
+            try {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            } catch (IllegalStateException e) {
+                // Already shutting down, the hook is running or has run
+            }
+        }
+    }
+
+    /**
+     * Stops accepting connections and disconnects every open session, then
+     * waits a while for the sessions to save their tasks as they end.
+     */
+    @Override
+    public void close() throws IOException {
+        isClosed = true;
+        serverSocket.close();
+        for (Socket socket : openSockets) {
+            closeQuietly(socket);
+        }
+        sessions.shutdown();
+        try {
+            sessions.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void handle(Socket socket) {
+        String name = null;
+        try {
+            PrintWriter out = new PrintWriter(new BufferedWriter(
+                    new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8)), false);
+            Scanner scanner = new Scanner(socket.getInputStream(), StandardCharsets.UTF_8);
+            out.println("Session name?");
+            out.flush();
+            if (!scanner.hasNextLine()) {
+                return;
+            }
+            String requested = scanner.nextLine().trim();
+            if (!SESSION_NAME.matcher(requested).matches()) {
+                out.println("Session names are 1 to 64 letters, digits, '_' or '-'.");
+                out.flush();
+                return;
+            }
+            if (!activeSessions.add(requested)) {
+                out.println("Session " + requested + " is already in use.");
+                out.flush();
+                return;
+            }
+            name = requested;
+            Path sessionFolder = dataFolder.resolve(name);
+            Storage storage = new Storage(sessionFolder);
+            // The writer and the loader run on the session executor, not on platform threads of their own
+            storage.setDurability(durability, commitWindow, sessions);
+            Duke duke = new Duke(new UI(out), storage);
+            duke.setLoadExecutor(sessions);
+            duke.setShowingProcessMetrics(false); // They cover every session
+            // Clients may only export to and import from files of their own session
+            duke.setTransferFolder(sessionFolder.resolve(TRANSFER_FOLDER));
+            duke.run(scanner);
+        } catch (IOException e) {
+            // The client went away; there is no one left to tell
+        } catch (RejectedExecutionException e) {
+            // The server closed while the session was starting
+        } finally {
+            if (name != null) {
+                activeSessions.remove(name);
+            }
+            openSockets.remove(socket);
+            closeQuietly(socket);
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Already closed
+        }
+    }
+
+    /**
+     * Returns an executor that runs each session on a new virtual thread. Virtual
+     * threads are looked up reflectively so that Duke still builds for JDKs
+     * without them, which fall back to a pool of daemon platform threads.
+     */
+    private static ExecutorService newSessionExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(null, runnable, "duke-session", 256 * 1024);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package duke.storage;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import duke.task.Deadlines;
+import duke.task.Events;
+import duke.task.Task;
+import duke.task.ToDos;
+
+/**
+ * Reads and writes the binary snapshot format.
+ * The file starts with the magic bytes "DUKB" and a version byte, followed by
+ * one record per task:
+ * <pre>
+ * tag          1 byte: task type in the low bits, 0x80 if done, 0x40 if the
+ *              event times are stored in seconds
+ * description  varint byte length, then UTF-8 bytes
+ * deadline     int epoch day                      (deadlines only)
+ * from, to     int epoch minutes each, or long
+ *              epoch seconds each if 0x40 is set  (events only)
+ * </pre>
+ */
+public class BinaryTaskFile {
+    static final byte[] MAGIC = { 'D', 'U', 'K', 'B' };
+    static final int VERSION = 1;
+
+    private static final int TODO_TAG = 1;
+    private static final int DEADLINE_TAG = 2;
+    private static final int EVENT_TAG = 3;
+    private static final int TYPE_MASK = 0x0F;
+    private static final int DONE_FLAG = 0x80;
+    private static final int SECONDS_FLAG = 0x40;
+
+    /**
+     * Returns true if the file starts with the binary format's magic bytes.
+     */
+    public static boolean isBinary(Path path) throws IOException {
+        byte[] header = new byte[MAGIC.length];
+        try (InputStream in = Files.newInputStream(path)) {
+            return in.readNBytes(header, 0, header.length) == header.length && Arrays.equals(header, MAGIC);
+        }
+    }
+
+    /**
+     * Reads every task in a binary snapshot. A truncated or unreadable record is
+     * reported and ends the read, keeping the tasks before it.
+     *
+     * @param path The snapshot to read.
+     * @return The tasks in file order.
+     * @throws IOException If the file cannot be read or is not a binary snapshot.
+     */
+    public static List<Task> read(Path path) throws IOException {
+        List<Task> list = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            byte[] header = new byte[MAGIC.length];
+            in.readFully(header);
+            if (!Arrays.equals(header, MAGIC)) {
+                throw new IOException(path + " is not a binary snapshot");
+            }
+            int version = in.readUnsignedByte();
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version " + version + " in " + path);
+            }
+
+            int tag;
+            while ((tag = in.read()) != -1) {
+                try {
+                    list.add(readTask(in, tag));
+                } catch (EOFException | IllegalArgumentException e) {
+                    System.err.println("Skipping the rest of " + path + " after task " + list.size()
+                            + ": " + (e.getMessage() == null ? "truncated" : e.getMessage()));
+                    break;
+                }
+            }
+        }
+        return list;
+    }
+
+    private static Task readTask(DataInputStream in, int tag) throws IOException {
+        boolean isDone = (tag & DONE_FLAG) != 0;
+        byte[] bytes = new byte[readVarint(in)];
+        in.readFully(bytes);
+        String description = new String(bytes, StandardCharsets.UTF_8);
+
+        switch (tag & TYPE_MASK) {
+            case TODO_TAG:
+                return new ToDos(description, isDone);
+            case DEADLINE_TAG:
+                return new Deadlines(description, isDone, LocalDate.ofEpochDay(in.readInt()));
+            case EVENT_TAG:
+                boolean isSeconds = (tag & SECONDS_FLAG) != 0;
+                LocalDateTime from = readDateTime(in, isSeconds);
+                LocalDateTime to = readDateTime(in, isSeconds);
+                return new Events(description, isDone, from, to);
+            default:
+                throw new IllegalArgumentException("Invalid task tag: " + tag);
+        }
+    }
+
+    /**
+     * Writes the tasks as a binary snapshot. The stream is flushed but not closed.
+     *
+     * @param output The stream to write to.
+     * @param list   The tasks to write.
+     * @throws IOException If the stream cannot be written.
+     */
+    public static void write(OutputStream output, List<Task> list) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(output));
+        out.write(MAGIC);
+        out.writeByte(VERSION);
+        for (Task task : list) {
+            writeTask(out, task);
+        }
+        out.flush();
+    }
+
+    private static void writeTask(DataOutputStream out, Task task) throws IOException {
+        int doneFlag = task.getIsDone() ? DONE_FLAG : 0;
+        byte[] description = task.getDescription().getBytes(StandardCharsets.UTF_8);
+
+        switch (task.getTaskType()) {
+            case DEADLINE:
+                out.writeByte(DEADLINE_TAG | doneFlag);
+                writeDescription(out, description);
+                out.writeInt(Math.toIntExact(((Deadlines) task).getDeadline().toEpochDay()));
+                break;
+            case EVENT:
+                Events event = (Events) task;
+                boolean isSeconds = !isWholeMinute(event.getFrom()) || !isWholeMinute(event.getTo());
+                out.writeByte(EVENT_TAG | doneFlag | (isSeconds ? SECONDS_FLAG : 0));
+                writeDescription(out, description);
+                writeDateTime(out, event.getFrom(), isSeconds);
+                writeDateTime(out, event.getTo(), isSeconds);
+                break;
+            default:
+                out.writeByte(TODO_TAG | doneFlag);
+                writeDescription(out, description);
+                break;
+        }
+    }
+
+    private static void writeDescription(DataOutputStream out, byte[] description) throws IOException {
+        writeVarint(out, description.length);
+        out.write(description);
+    }
+
+    /**
+     * Returns true if the date-time is a whole minute that fits in an int of epoch
+     * minutes.
+     */
+    private static boolean isWholeMinute(LocalDateTime dateTime) {
+        long seconds = dateTime.toEpochSecond(ZoneOffset.UTC);
+        return dateTime.getNano() == 0 && seconds % 60 == 0
+                && seconds / 60 >= Integer.MIN_VALUE && seconds / 60 <= Integer.MAX_VALUE;
+    }
+
+    private static void writeDateTime(DataOutputStream out, LocalDateTime dateTime, boolean isSeconds)
+            throws IOException {
+        long seconds = dateTime.toEpochSecond(ZoneOffset.UTC);
+        if (isSeconds) {
+            out.writeLong(seconds);
+        } else {
+            out.writeInt((int) (seconds / 60));
+        }
+    }
+
+    private static LocalDateTime readDateTime(DataInputStream in, boolean isSeconds) throws IOException {
+        long seconds = isSeconds ? in.readLong() : in.readInt() * 60L;
+        return LocalDateTime.ofEpochSecond(seconds, 0, ZoneOffset.UTC);
+    }
+
+    private static void writeVarint(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarint(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                if (value < 0) {
+                    break;
+                }
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Invalid description length");
+    }
+}
@@ -0,0 +1,15 @@
+package duke.storage;
+
+/**
+ * How far a change must get before Storage returns, from cheapest to safest.
+ */
+public enum Durability {
+    /** Every change is written before the command returns, as without write-behind. */
+    SYNC,
+    /** Changes are written by the writer thread and left to the OS to flush. */
+    ASYNC,
+    /** Changes are written by the writer thread and each batch is forced to disk. */
+    BATCHED,
+    /** The command waits until the writer thread has forced its change to disk. */
+    FSYNC
+}
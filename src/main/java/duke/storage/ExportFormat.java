@@ -0,0 +1,36 @@
+package duke.storage;
+
+/**
+ * The formats the task list can be exported to and imported from, for use by
+ * other tools.
+ */
+public enum ExportFormat {
+    /** A header row, then one row per task, quoted as in RFC 4180. */
+    CSV,
+    /** One JSON object per line. */
+    JSONL,
+    /** An iCalendar file with a VTODO for each todo and deadline and a VEVENT for each event. */
+    ICAL;
+
+    /**
+     * Returns the format with the given name, ignoring case. "json" and "ics"
+     * are taken as JSONL and ICAL.
+     *
+     * @param name The name as typed.
+     * @throws IllegalArgumentException If there is no such format.
+     */
+    public static ExportFormat parse(String name) {
+        switch (name.toLowerCase()) {
+            case "csv":
+                return CSV;
+            case "jsonl":
+            case "json":
+                return JSONL;
+            case "ical":
+            case "ics":
+                return ICAL;
+            default:
+                throw new IllegalArgumentException("Unknown export format: " + name);
+        }
+    }
+}
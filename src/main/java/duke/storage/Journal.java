@@ -0,0 +1,236 @@
+package duke.storage;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import duke.metrics.Metrics;
+import duke.parser.Parser;
+import duke.task.Task;
+
+/**
+ * Append-only log of task list mutations, replayed on top of the snapshot on
+ * startup.
+ * Each record is a single line:
+ * <pre>
+ * + T | 0 | read book   task appended to the end of the list
+ * m 3 1                 task at index 3 marked (1) or unmarked (0)
+ * x 3                   task at index 3 deleted
+ * #                     checkpoint, every record before it is in the snapshot
+ * </pre>
+ * A checkpoint is appended once a new snapshot is fully written to its
+ * temporary file, so only a checkpoint that is the last record shows that the
+ * temporary file is complete.
+ */
+public class Journal {
+    static final char ADD = '+';
+    static final char MARK = 'm';
+    static final char DELETE = 'x';
+    static final char CHECKPOINT = '#';
+
+    private final Path path;
+
+    public Journal(Path path) {
+        this.path = path;
+    }
+
+    public static String addRecord(Task task) {
+        return ADD + " " + task.toFileString();
+    }
+
+    public static String markRecord(int index, boolean isDone) {
+        return MARK + " " + index + " " + (isDone ? "1" : "0");
+    }
+
+    public static String deleteRecord(int index) {
+        return DELETE + " " + index;
+    }
+
+    /**
+     * Appends records to the end of the journal in a single write.
+     *
+     * @param records The records to append, one per line.
+     * @param isForce A flag indicating whether to wait for the records to reach
+     *                the disk before returning.
+     * @throws IOException If the journal cannot be written.
+     */
+    public void append(List<String> records, boolean isForce) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+                BufferedWriter writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8))) {
+            long start = channel.size();
+            for (String record : records) {
+                writer.write(record);
+                writer.newLine();
+            }
+            writer.flush();
+            Metrics.get().recordBytesWritten(channel.size() - start);
+            if (isForce) {
+                channel.force(false);
+            }
+        }
+    }
+
+    public void append(List<String> records) throws IOException {
+        append(records, false);
+    }
+
+    public void append(String record) throws IOException {
+        append(List.of(record));
+    }
+
+    public void appendCheckpoint() throws IOException {
+        append(String.valueOf(CHECKPOINT));
+    }
+
+    public void reset() throws IOException {
+        Files.deleteIfExists(path);
+    }
+
+    public boolean exists() {
+        return Files.exists(path);
+    }
+
+    /**
+     * Reads the records written after the last checkpoint.
+     *
+     * @return The pending records.
+     * @throws IOException If the journal cannot be read.
+     */
+    public List<String> readPending() throws IOException {
+        List<String> records = new ArrayList<>();
+        if (!exists()) {
+            return records;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                if (line.charAt(0) == CHECKPOINT) {
+                    records.clear();
+                } else {
+                    records.add(line);
+                }
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Returns true if the last record in the journal is a checkpoint, meaning the
+     * snapshot it refers to was fully written and has not yet replaced the old
+     * one. A checkpoint followed by other records belongs to a save that was
+     * already put in place, and says nothing about any later snapshot.
+     */
+    public boolean endsWithCheckpoint() throws IOException {
+        if (!exists()) {
+            return false;
+        }
+        String last = null;
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty()) {
+                    last = line;
+                }
+            }
+        }
+        return last != null && last.charAt(0) == CHECKPOINT;
+    }
+
+    /**
+     * Rewrites the journal to hold only the records after its last checkpoint,
+     * or deletes it if there are none, so that a checkpoint left by a save
+     * interrupted after its snapshot was put in place cannot be taken for one
+     * vouching for a later snapshot.
+     *
+     * @throws IOException If the journal cannot be read or written.
+     */
+    public void discardCheckpointed() throws IOException {
+        if (!exists()) {
+            return;
+        }
+        List<String> records = new ArrayList<>();
+        boolean hasCheckpoint = false;
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty() && line.charAt(0) == CHECKPOINT) {
+                    hasCheckpoint = true;
+                    records.clear();
+                } else if (!line.isEmpty()) {
+                    records.add(line);
+                }
+            }
+        }
+        if (!hasCheckpoint) {
+            return;
+        }
+        if (records.isEmpty()) {
+            reset();
+            return;
+        }
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        Files.write(temp, records, StandardCharsets.UTF_8);
+        try {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Applies the given records to the list in order. A torn or unreadable record
+     * ends the replay, since it can only be the last write before a crash.
+     *
+     * @param list    The list loaded from the snapshot.
+     * @param records The records to apply.
+     * @return The number of records applied.
+     */
+    public static int replay(List<Task> list, List<String> records) {
+        int applied = 0;
+        for (String record : records) {
+            try {
+                apply(list, record);
+            } catch (RuntimeException e) {
+                System.err.println("Ignoring unreadable journal record: " + record);
+                break;
+            }
+            applied++;
+        }
+        return applied;
+    }
+
+    private static void apply(List<Task> list, String record) {
+        String args = record.substring(2);
+        switch (record.charAt(0)) {
+            case ADD:
+                list.add(Parser.createTaskFromLine(args));
+                break;
+            case MARK:
+                int space = args.indexOf(' ');
+                int index = Integer.parseInt(args.substring(0, space));
+                Task task = list.get(index);
+                task.setIsDone(args.substring(space + 1).equals("1"));
+                list.set(index, task);
+                break;
+            case DELETE:
+                list.remove(Integer.parseInt(args));
+                break;
+            default:
+                throw new IllegalArgumentException("Invalid journal record: " + record);
+        }
+    }
+}
@@ -0,0 +1,470 @@
+package duke.storage;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import duke.task.Task;
+
+/**
+ * Saves the task list as segment files of up to a fixed number of tasks each,
+ * listed in order by a manifest, one file name per line.
+ * Storage reports every change, so the segments it touched are known and a save
+ * writes only those, each to a file of a new name, followed by a new manifest.
+ * The old manifest and segments stay as they were until the new manifest
+ * replaces the old one, so that replacement is what makes a save take effect.
+ * Files the manifest no longer lists are deleted afterwards. Segments are read in
+ * parallel on the common fork-join pool and joined in manifest order.
+ * A save that fails is reported with {@link #fail(Plan)}; the segments it
+ * should have written are then never listed again, and the next save splits
+ * the whole list afresh, since later saves took those segments as written.
+ */
+class SegmentedTaskFile {
+    static final String MANIFEST_NAME = "duke.manifest";
+    static final int DEFAULT_SEGMENT_SIZE = 1024;
+
+    private static final String MANIFEST_TEMP_NAME = MANIFEST_NAME + ".tmp";
+    private static final String SEGMENT_FOLDER_NAME = "segments";
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".txt";
+
+    private final Path manifest;
+    private final Path manifestTemp;
+    private final Path segmentFolder;
+    private final int segmentSize;
+    // The segments as of the latest change, or null if they are not known, in
+    // which case the next save splits the whole list afresh
+    private List<Segment> segments = null;
+    private long nextNumber = 0;
+    // Segments of saves that failed, which may be missing; a save may fail on the writer thread
+    private final Set<String> failedNames = ConcurrentHashMap.newKeySet();
+
+    private static class Segment {
+        String name; // Null until the segment is first written
+        int count;
+        boolean isDirty;
+
+        Segment(String name, int count, boolean isDirty) {
+            this.name = name;
+            this.count = count;
+            this.isDirty = isDirty;
+        }
+    }
+
+    /**
+     * The segments a save leaves in the manifest, in order, and which of them it
+     * writes. A plan is fixed when the save is asked for, so it can be carried
+     * out later on another thread while the list goes on changing.
+     */
+    static class Plan {
+        private final String[] names;
+        private final int[] counts;
+        private final boolean[] isNew;
+
+        private Plan(List<Segment> segments, Set<Segment> written) {
+            int size = segments.size();
+            this.names = new String[size];
+            this.counts = new int[size];
+            this.isNew = new boolean[size];
+            for (int i = 0; i < size; i++) {
+                Segment segment = segments.get(i);
+                names[i] = segment.name;
+                counts[i] = segment.count;
+                isNew[i] = written.contains(segment);
+            }
+        }
+
+        /**
+         * Returns the number of segment files the save writes.
+         */
+        int getWriteCount() {
+            int count = 0;
+            for (boolean b : isNew) {
+                count += b ? 1 : 0;
+            }
+            return count;
+        }
+    }
+
+    SegmentedTaskFile(Path folder) {
+        this(folder, DEFAULT_SEGMENT_SIZE);
+    }
+
+    SegmentedTaskFile(Path folder, int segmentSize) {
+        if (segmentSize < 1) {
+            throw new IllegalArgumentException("Invalid segment size: " + segmentSize);
+        }
+        this.manifest = folder.resolve(MANIFEST_NAME);
+        this.manifestTemp = folder.resolve(MANIFEST_TEMP_NAME);
+        this.segmentFolder = folder.resolve(SEGMENT_FOLDER_NAME);
+        this.segmentSize = segmentSize;
+    }
+
+    Path getManifest() {
+        return manifest;
+    }
+
+    Path getManifestTemp() {
+        return manifestTemp;
+    }
+
+    boolean exists() {
+        return Files.exists(manifest);
+    }
+
+    /**
+     * Reads every segment listed in the manifest, and deletes segment files left
+     * behind by a save that did not complete.
+     *
+     * @return The tasks in manifest order.
+     * @throws IOException If the manifest or a segment cannot be read.
+     */
+    List<Task> read() throws IOException {
+        List<String> names = new ArrayList<>();
+        for (String line : Files.readAllLines(manifest, StandardCharsets.UTF_8)) {
+            if (!line.isBlank()) {
+                names.add(line.trim());
+            }
+        }
+        List<List<Task>> parts;
+        try {
+            parts = names.parallelStream()
+                    .map(name -> {
+                        try {
+                            return TaskFileReader.readSequential(segmentFolder.resolve(name));
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    })
+                    .collect(Collectors.toList());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        List<Task> list = new ArrayList<>();
+        segments = new ArrayList<>();
+        nextNumber = 0;
+        for (int i = 0; i < names.size(); i++) {
+            List<Task> part = parts.get(i);
+            list.addAll(part);
+            // A segment that lost all its lines to errors is dropped at the next save
+            segments.add(new Segment(names.get(i), part.size(), part.isEmpty()));
+            nextNumber = Math.max(nextNumber, numberOf(names.get(i)) + 1);
+        }
+        deleteUnlisted(new HashSet<>(names));
+        return list;
+    }
+
+    /**
+     * Returns a view of the list that reports every change made through it, for
+     * replaying the journal.
+     */
+    List<Task> tracking(List<Task> list) {
+        return new AbstractList<>() {
+            @Override
+            public Task get(int index) {
+                return list.get(index);
+            }
+
+            @Override
+            public int size() {
+                return list.size();
+            }
+
+            @Override
+            public Task set(int index, Task task) {
+                changed(index);
+                return list.set(index, task);
+            }
+
+            @Override
+            public void add(int index, Task task) {
+                if (index != list.size()) {
+                    throw new UnsupportedOperationException("Tasks are only added at the end");
+                }
+                added();
+                list.add(task);
+            }
+
+            @Override
+            public Task remove(int index) {
+                removed(index);
+                return list.remove(index);
+            }
+        };
+    }
+
+    /**
+     * Records a task appended to the end of the list.
+     */
+    void added() {
+        if (segments == null) {
+            return;
+        }
+        Segment last = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+        if (last != null && last.count < segmentSize) {
+            last.count++;
+            last.isDirty = true;
+        } else {
+            segments.add(new Segment(null, 1, true));
+        }
+    }
+
+    /**
+     * Records a task being put in at the given position, into the segment that
+     * holds the task now before it, or the first segment.
+     */
+    void inserted(int index) {
+        if (segments == null) {
+            return;
+        }
+        if (segments.isEmpty()) {
+            added();
+            return;
+        }
+        Segment segment = segments.get(index == 0 ? 0 : segmentOf(index - 1));
+        segment.count++;
+        segment.isDirty = true;
+    }
+
+    /**
+     * Records the task at the given position being replaced or changed.
+     */
+    void changed(int index) {
+        if (segments == null) {
+            return;
+        }
+        segments.get(segmentOf(index)).isDirty = true;
+    }
+
+    /**
+     * Records the task at the given position being removed.
+     */
+    void removed(int index) {
+        if (segments == null) {
+            return;
+        }
+        int s = segmentOf(index);
+        Segment segment = segments.get(s);
+        segment.count--;
+        segment.isDirty = true;
+        if (segment.count == 0) {
+            segments.remove(s);
+        }
+    }
+
+    /**
+     * Records the tasks at the given positions being replaced or changed, finding
+     * their segments in one walk.
+     *
+     * @param indices The positions, in increasing order.
+     */
+    void changed(int[] indices) {
+        if (segments == null) {
+            return;
+        }
+        int s = 0;
+        int end = 0; // The position after segment s - 1
+        for (int index : indices) {
+            while (end <= index) {
+                end += segments.get(s++).count;
+            }
+            segments.get(s - 1).isDirty = true;
+        }
+    }
+
+    /**
+     * Records the tasks at the given positions being removed together, finding
+     * their segments in one walk.
+     *
+     * @param indices The positions the tasks had before any was removed, in
+     *                increasing order.
+     */
+    void removed(int[] indices) {
+        if (segments == null) {
+            return;
+        }
+        int s = 0;
+        int end = 0;
+        for (int index : indices) {
+            while (end <= index) {
+                end += segments.get(s++).count;
+            }
+            Segment segment = segments.get(s - 1);
+            segment.count--;
+            segment.isDirty = true;
+        }
+        segments.removeIf(segment -> segment.count == 0);
+    }
+
+    /**
+     * Forgets the segments, so that the next save splits the whole list afresh.
+     */
+    void invalidate() {
+        segments = null;
+    }
+
+    /**
+     * Marks the segments the plan writes as possibly missing, after the save
+     * failed, so that no later save lists them.
+     */
+    void fail(Plan plan) {
+        for (int i = 0; i < plan.names.length; i++) {
+            if (plan.isNew[i]) {
+                failedNames.add(plan.names[i]);
+            }
+        }
+    }
+
+    /**
+     * Fixes what a save of the list writes: every segment changed since the last
+     * save, merged with a neighbour where the two fit in one segment so that
+     * deletions do not leave many small files. Each gets a new file name. If a
+     * save has failed since, every segment is written again.
+     *
+     * @param list The tasks to save, which the segments must add up to.
+     * @return The plan to pass to {@link #write(List, Plan, boolean)}.
+     */
+    Plan prepare(List<Task> list) {
+        if (segments != null && !failedNames.isEmpty()
+                && segments.stream().anyMatch(segment -> segment.name != null && failedNames.contains(segment.name))) {
+            segments = null;
+        }
+        if (segments == null) {
+            segments = new ArrayList<>();
+            for (int start = 0; start < list.size(); start += segmentSize) {
+                segments.add(new Segment(null, Math.min(segmentSize, list.size() - start), true));
+            }
+        }
+        int i = 0;
+        while (i + 1 < segments.size()) {
+            Segment segment = segments.get(i);
+            Segment next = segments.get(i + 1);
+            if ((segment.isDirty || next.isDirty) && segment.count + next.count <= segmentSize) {
+                segment.count += next.count;
+                segment.isDirty = true;
+                segments.remove(i + 1);
+            } else {
+                i++;
+            }
+        }
+
+        Set<Segment> written = new HashSet<>();
+        int total = 0;
+        for (Segment segment : segments) {
+            if (segment.isDirty) {
+                segment.name = SEGMENT_PREFIX + nextNumber++ + SEGMENT_SUFFIX;
+                segment.isDirty = false;
+                written.add(segment);
+            }
+            total += segment.count;
+        }
+        assert total == list.size() : "Segments hold " + total + " tasks, the list " + list.size();
+        return new Plan(segments, written);
+    }
+
+    /**
+     * Writes the new segments of the plan and the new manifest, to the temporary
+     * manifest file. Storage then puts the manifest in place and calls
+     * {@link #deleteUnlisted(Plan)}.
+     *
+     * @param list    The tasks as they were when the plan was made.
+     * @param plan    The plan made for the list.
+     * @param isForce A flag indicating whether to wait for the files to reach the
+     *                disk.
+     * @return The number of bytes written.
+     * @throws IOException If a file cannot be written.
+     */
+    long write(List<Task> list, Plan plan, boolean isForce) throws IOException {
+        for (int i = 0; i < plan.names.length; i++) {
+            if (!plan.isNew[i] && failedNames.contains(plan.names[i])) {
+                // Made before an earlier save failed, so it lists a segment that may not exist
+                throw new IOException("Segment " + plan.names[i] + " was not saved");
+            }
+        }
+        Files.createDirectories(segmentFolder);
+        long bytes = 0;
+        int start = 0;
+        for (int i = 0; i < plan.names.length; i++) {
+            if (plan.isNew[i]) {
+                Path segment = segmentFolder.resolve(plan.names[i]);
+                try (FileOutputStream output = new FileOutputStream(segment.toFile())) {
+                    Storage.writeText(output, list.subList(start, start + plan.counts[i]));
+                    if (isForce) {
+                        output.getFD().sync();
+                    }
+                }
+                bytes += Files.size(segment);
+            }
+            start += plan.counts[i];
+        }
+
+        try (FileOutputStream output = new FileOutputStream(manifestTemp.toFile())) {
+            output.write(String.join("\n", plan.names).getBytes(StandardCharsets.UTF_8));
+            if (isForce) {
+                output.getFD().sync();
+            }
+        }
+        return bytes + Files.size(manifestTemp);
+    }
+
+    /**
+     * Deletes the segment files the plan no longer lists.
+     */
+    void deleteUnlisted(Plan plan) throws IOException {
+        deleteUnlisted(Set.of(plan.names));
+    }
+
+    /**
+     * Deletes every segment, once the list is saved another way and the manifest
+     * is gone.
+     */
+    void deleteSegments() throws IOException {
+        deleteUnlisted(Set.of());
+        Files.deleteIfExists(segmentFolder);
+        segments = null;
+    }
+
+    private void deleteUnlisted(Set<String> names) throws IOException {
+        if (!Files.isDirectory(segmentFolder)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(segmentFolder, SEGMENT_PREFIX + "*")) {
+            for (Path file : files) {
+                if (!names.contains(file.getFileName().toString())) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    private int segmentOf(int index) {
+        int start = 0;
+        for (int s = 0; s < segments.size(); s++) {
+            start += segments.get(s).count;
+            if (index < start) {
+                return s;
+            }
+        }
+        throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + start);
+    }
+
+    private static long numberOf(String name) {
+        try {
+            return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (RuntimeException e) {
+            return -1;
+        }
+    }
+}
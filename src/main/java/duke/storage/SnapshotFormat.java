@@ -0,0 +1,13 @@
+package duke.storage;
+
+/**
+ * The formats a snapshot of the task list can be saved in.
+ */
+public enum SnapshotFormat {
+    /** One "T | 0 | description" line per task, as written by Task.toFileString. */
+    TEXT,
+    /** The compact format read and written by {@link BinaryTaskFile}. */
+    BINARY,
+    /** Text segment files listed by a manifest, as kept by {@link SegmentedTaskFile}. */
+    SEGMENTED
+}
@@ -1,74 +1,598 @@
 package duke.storage;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executor;
 
-import duke.parser.Parser;
+import duke.metrics.Metrics;
 import duke.task.Task;
+import duke.tasklist.LazyTaskStore;
+import duke.tasklist.PersistentTaskStore;
+import duke.tasklist.TaskChange;
 
 public class Storage {
     private static final String FOLDER_PATH = "./data";
-    private static final String FILE_PATH = FOLDER_PATH + "/duke.txt";
+    private static final String FILE_NAME = "duke.txt";
+    private static final String TEMP_NAME = FILE_NAME + ".tmp";
+    private static final String JOURNAL_NAME = "duke.journal";
+    private static final String INDEX_NAME = "duke.idx";
     private static final String DUKE_PATH = "./text-ui-test/EXPECTED.TXT";
 
-    public List<Task> loadTasks() {
-        List<Task> list = new ArrayList<>();
-        File file = new File(FILE_PATH);
+    // The journal is folded into the snapshot once it holds at least this many
+    // records, or as many records as there are tasks, whichever is larger.
+    private static final int MIN_COMPACTION_THRESHOLD = 1024;
 
-        // Check if the file exists before attempting to load
-        if (!file.exists()) {
-            // System.out.println("No saved tasks found. Starting with an empty task
-            // list.");
-            return list;
+    private final Path folder;
+    private final Path file;
+    private final Path temp;
+    private final Path index;
+    private final Journal journal;
+    private final SegmentedTaskFile segmentedFile;
+    private int journalRecords = 0;
+    // Records waiting for commit() while commits are deferred, otherwise null
+    private List<String> pendingRecords = null;
+    private Durability durability = Durability.SYNC;
+    // The format snapshots are saved in, by default whichever was found on disk
+    private SnapshotFormat format = null;
+    // Writes changes in the background unless durability is SYNC
+    private WriteBehindWriter writeBehind = null;
+    // The list whose changes were last handed to the writer, saved in full if a write fails
+    private List<Task> writtenList = null;
+    // Whether a text snapshot is read a task at a time as tasks are used
+    private boolean isLazy = false;
+
+    public Storage() {
+        this(Paths.get(FOLDER_PATH));
+    }
+
+    /**
+     * Constructs a storage that keeps its snapshot and journal in the given folder
+     * instead of ./data.
+     *
+     * @param folder The folder to save tasks in.
+     */
+    public Storage(Path folder) {
+        this.folder = folder;
+        this.file = folder.resolve(FILE_NAME);
+        this.temp = folder.resolve(TEMP_NAME);
+        this.index = folder.resolve(INDEX_NAME);
+        this.journal = new Journal(folder.resolve(JOURNAL_NAME));
+        this.segmentedFile = new SegmentedTaskFile(folder);
+    }
+
+    public List<Task> loadTasks() {
+        long start = System.nanoTime();
+        List<Task> list = new PersistentTaskStore();
+        try {
+            recoverSnapshot();
+        } catch (IOException e) {
+            e.printStackTrace();
         }
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(FILE_PATH))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                list.add(Parser.createTaskFromLine(line));
+        if (segmentedFile.exists()) {
+            try {
+                if (format == null) {
+                    format = SnapshotFormat.SEGMENTED;
+                }
+                list = new PersistentTaskStore(segmentedFile.read());
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        } else if (Files.exists(file)) {
+            // Check if the file exists before attempting to load
+            try {
+                SnapshotFormat diskFormat = BinaryTaskFile.isBinary(file) ? SnapshotFormat.BINARY : SnapshotFormat.TEXT;
+                if (format == null) {
+                    format = diskFormat;
+                }
+                list = diskFormat == SnapshotFormat.TEXT && isLazy ? loadLazily() : null;
+                if (list == null) {
+                    list = diskFormat == SnapshotFormat.BINARY ? BinaryTaskFile.read(file) : TaskFileReader.read(file);
+                    list = new PersistentTaskStore(list); // So that replayed deletes do not shift the list, and for undo
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
             }
+        } else if (format == null) {
+            format = SnapshotFormat.SEGMENTED; // A new folder
+        }
+
+        try {
+            journalRecords = Journal.replay(segmentedFile.tracking(list), journal.readPending());
         } catch (IOException e) {
             e.printStackTrace();
         }
 
+        Metrics.get().recordLoad(System.nanoTime() - start);
         return list;
     }
 
-    public void saveTasks(List<Task> list) {
-        try {
-            // Ensure the directory exists
-            File directory = new File(FOLDER_PATH);
-            if (!directory.exists()) {
-                directory.mkdirs();
+    /**
+     * Returns the tasks of the text snapshot as a store that reads each one only
+     * when it is used, or null if the snapshot is too large to be read that way.
+     */
+    private List<Task> loadLazily() throws IOException {
+        TaskFileIndex fileIndex = TaskFileIndex.open(file, index);
+        if (fileIndex == null) {
+            return null;
+        }
+        return new LazyTaskStore(fileIndex.size(), fileIndex::read, fileIndex.getTypeCounts(),
+                LazyTaskStore.DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * Records a task appended to the end of the list.
+     *
+     * @param list The task list after the task was added.
+     * @param task The task that was added.
+     */
+    public void logAdd(List<Task> list, Task task) {
+        segmentedFile.added();
+        log(list, Journal.addRecord(task));
+    }
+
+    /**
+     * Records tasks appended to the end of the list together, as one write, or as
+     * a snapshot if there are more of them than the journal would keep.
+     *
+     * @param list  The task list after the tasks were added.
+     * @param count The number of tasks added, the last in the list.
+     */
+    public void logAdds(List<Task> list, int count) {
+        for (int i = 0; i < count; i++) {
+            segmentedFile.added();
+        }
+        if (pendingRecords == null && journalRecords + count >= compactionThreshold(list)) {
+            saveTasks(list); // Without building records that would only be dropped
+            return;
+        }
+        List<String> records = new ArrayList<>(count);
+        for (Task task : list.subList(list.size() - count, list.size())) {
+            records.add(Journal.addRecord(task));
+        }
+        log(list, records);
+    }
+
+    /**
+     * Records a task being marked or unmarked.
+     *
+     * @param list   The task list after the change.
+     * @param index  The 0-based index of the task.
+     * @param isDone The new status of the task.
+     */
+    public void logMark(List<Task> list, int index, boolean isDone) {
+        segmentedFile.changed(index);
+        log(list, Journal.markRecord(index, isDone));
+    }
+
+    /**
+     * Records a task being deleted.
+     *
+     * @param list  The task list after the task was removed.
+     * @param index The 0-based index the task had before it was removed.
+     */
+    public void logDelete(List<Task> list, int index) {
+        segmentedFile.removed(index);
+        log(list, Journal.deleteRecord(index));
+    }
+
+    /**
+     * Records several tasks being marked or unmarked together, as one write.
+     *
+     * @param list    The task list after the change.
+     * @param indices The 0-based indices of the tasks, in increasing order.
+     * @param isDone  The new status of the tasks.
+     */
+    public void logMarks(List<Task> list, int[] indices, boolean isDone) {
+        segmentedFile.changed(indices);
+        List<String> records = new ArrayList<>(indices.length);
+        for (int index : indices) {
+            records.add(Journal.markRecord(index, isDone));
+        }
+        log(list, records);
+    }
+
+    /**
+     * Records several tasks being deleted together, as one write.
+     *
+     * @param list    The task list after the tasks were removed.
+     * @param indices The 0-based indices the tasks had before any was removed, in
+     *                increasing order.
+     */
+    public void logDeletes(List<Task> list, int[] indices) {
+        segmentedFile.removed(indices);
+        List<String> records = new ArrayList<>(indices.length);
+        // Highest first, so that each index still holds when the records are replayed in turn
+        for (int i = indices.length - 1; i >= 0; i--) {
+            records.add(Journal.deleteRecord(indices[i]));
+        }
+        log(list, records);
+    }
+
+    /**
+     * Records the steps of an undo or redo as one write. A deleted task put back
+     * anywhere but the end has no journal record, so a change with such a step is
+     * saved as a snapshot instead, which in segmented format rewrites only the
+     * segments the tasks went back into.
+     *
+     * @param list    The task list after the change.
+     * @param changes The steps, in the order they were applied.
+     */
+    public void logChanges(List<Task> list, List<TaskChange> changes) {
+        int size = list.size();
+        for (TaskChange change : changes) {
+            size += change.getKind() == TaskChange.Kind.DELETE ? 1
+                    : change.getKind() == TaskChange.Kind.MARK ? 0 : -1;
+        }
+        List<String> records = new ArrayList<>(changes.size());
+        boolean isInsert = false;
+        for (TaskChange change : changes) {
+            int index = change.getIndex();
+            switch (change.getKind()) {
+                case ADD:
+                case INSERT:
+                    if (index == size) {
+                        segmentedFile.added();
+                        records.add(Journal.addRecord(change.getTask()));
+                    } else {
+                        segmentedFile.inserted(index);
+                        isInsert = true;
+                    }
+                    size++;
+                    break;
+                case DELETE:
+                    segmentedFile.removed(index);
+                    records.add(Journal.deleteRecord(index));
+                    size--;
+                    break;
+                default:
+                    segmentedFile.changed(index);
+                    records.add(Journal.markRecord(index, change.getTask().getIsDone()));
+                    break;
             }
+        }
+        if (isInsert) {
+            saveTasks(list);
+            return;
+        }
+        log(list, records);
+    }
 
-            // Now, save the tasks to the file
-            try (FileWriter writer = new FileWriter(FILE_PATH)) {
-                for (Task task : list) {
-                    writer.write(task.toFileString() + System.lineSeparator());
-                }
+    /**
+     * Holds further changes in memory until {@link #commit(List)} is called,
+     * instead of journalling each one as it happens.
+     */
+    public void deferCommits() {
+        if (pendingRecords == null) {
+            pendingRecords = new ArrayList<>();
+        }
+    }
+
+    /**
+     * Commits any held changes and goes back to journalling each change as it
+     * happens.
+     *
+     * @param list The task list after the changes.
+     */
+    public void resumeCommits(List<Task> list) {
+        commit(list);
+        pendingRecords = null;
+    }
+
+    /**
+     * Saves the changes held since the last commit with a single write, or as a
+     * full snapshot if there are more of them than the journal would keep.
+     *
+     * @param list The task list after the changes.
+     */
+    public void commit(List<Task> list) {
+        if (pendingRecords == null || pendingRecords.isEmpty()) {
+            return;
+        }
+        List<String> records = pendingRecords;
+        pendingRecords = new ArrayList<>();
+        appendRecords(list, records);
+    }
+
+    /**
+     * Sets the format of every snapshot saved from now on. Snapshots of either
+     * format are recognised when loading.
+     *
+     * @param format The format to save snapshots in.
+     */
+    public void setFormat(SnapshotFormat format) {
+        this.format = format;
+    }
+
+    /**
+     * Sets whether {@link #loadTasks()} reads a text snapshot a task at a time as
+     * the tasks are used, instead of all at once, so that startup takes about the
+     * same time however many tasks there are. The position of each task is kept
+     * in duke.idx next to the snapshot.
+     *
+     * @param isLazy A flag indicating whether to load lazily.
+     */
+    public void setLazy(boolean isLazy) {
+        this.isLazy = isLazy;
+    }
+
+    /**
+     * Hands journal writes and snapshots to a background writer thread. Changes
+     * made within the commit window of each other are written together.
+     * SYNC goes back to writing each change before returning.
+     *
+     * @param durability   How far a change must get before the command returns.
+     * @param windowMillis How long the writer waits for more changes to group
+     *                     with the first one.
+     */
+    public void setDurability(Durability durability, long windowMillis) {
+        setDurability(durability, windowMillis, null);
+    }
+
+    /**
+     * Hands journal writes and snapshots to a writer that runs on the given
+     * executor instead of a thread of its own. Nothing flushes the writer when
+     * the JVM exits, so the caller must {@link #close()} the storage first.
+     *
+     * @param durability   How far a change must get before the command returns.
+     * @param windowMillis How long the writer waits for more changes to group
+     *                     with the first one.
+     * @param executor     Where the writer runs, or null for a thread of its own
+     *                     that is flushed on exit.
+     */
+    public void setDurability(Durability durability, long windowMillis, Executor executor) {
+        close();
+        this.durability = durability;
+        if (durability != Durability.SYNC) {
+            ensureFolder();
+            writeBehind = new WriteBehindWriter(journal, this::writeSnapshot, durability, windowMillis, executor);
+        }
+    }
+
+    /**
+     * Waits until every change handed to the writer thread is written.
+     */
+    public void flush() {
+        if (writeBehind != null) {
+            writeBehind.flush();
+            if (writeBehind.takeFailure() && writtenList != null) {
+                saveTasks(writtenList); // Fall back to a full snapshot so the changes are not lost
+                writeBehind.flush();
+            }
+        }
+    }
+
+    /**
+     * Flushes any queued changes and stops the writer thread. If a change
+     * failed to be written, the tasks are saved in full instead.
+     */
+    public void close() {
+        if (writeBehind != null) {
+            writeBehind.close();
+            boolean isFailed = writeBehind.takeFailure();
+            writeBehind = null;
+            if (isFailed && writtenList != null) {
+                saveTasks(writtenList); // Written right away, with the writer gone
+            }
+            writtenList = null;
+        }
+    }
+
+    private int compactionThreshold(List<Task> list) {
+        return Math.max(MIN_COMPACTION_THRESHOLD, list.size());
+    }
+
+    private void log(List<Task> list, String record) {
+        log(list, List.of(record));
+    }
+
+    private void log(List<Task> list, List<String> records) {
+        if (pendingRecords != null) {
+            pendingRecords.addAll(records);
+            return;
+        }
+        appendRecords(list, records);
+    }
+
+    /**
+     * Appends records to the journal, or saves a full snapshot instead once the
+     * journal would grow past the compaction threshold.
+     */
+    private void appendRecords(List<Task> list, List<String> records) {
+        if (journalRecords + records.size() >= compactionThreshold(list)) {
+            saveTasks(list);
+            return;
+        }
+        journalRecords += records.size();
+        if (writeBehind != null) {
+            writtenList = list;
+            writeBehind.append(records);
+            if (writeBehind.takeFailure()) {
+                saveTasks(list); // Fall back to a full snapshot so the changes are not lost
             }
+            return;
+        }
+        try {
+            ensureFolder();
+            journal.append(records);
         } catch (IOException e) {
             e.printStackTrace();
+            saveTasks(list); // Fall back to a full snapshot so the changes are not lost
+        }
+    }
+
+    /**
+     * Writes a full snapshot of the list and clears the journal.
+     * The snapshot is written to a temporary file first and a checkpoint is
+     * journalled before it replaces duke.txt, so a crash at any point leaves
+     * either the old snapshot with its journal or the new one.
+     *
+     * @param list The tasks to save.
+     */
+    public void saveTasks(List<Task> list) {
+        journalRecords = 0;
+        if (pendingRecords != null) {
+            pendingRecords.clear(); // Part of the snapshot
+        }
+        if (format == SnapshotFormat.SEGMENTED) {
+            // Fixed now, since the list goes on changing while the writer thread works
+            SegmentedTaskFile.Plan plan = segmentedFile.prepare(list);
+            if (writeBehind != null) {
+                writtenList = list;
+                writeBehind.snapshot(new ArrayList<>(list), copy -> writeSegments(copy, plan));
+                return;
+            }
+            try {
+                writeSegments(list, plan);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            return;
+        }
+        segmentedFile.invalidate();
+        if (writeBehind != null) {
+            writtenList = list;
+            writeBehind.snapshot(new ArrayList<>(list));
+            return;
+        }
+        try {
+            writeSnapshot(list);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void writeSnapshot(List<Task> list) throws IOException {
+        long start = System.nanoTime();
+        ensureFolder();
+
+        // Now, save the tasks to the file
+        try (FileOutputStream output = new FileOutputStream(temp.toFile())) {
+            if (format == SnapshotFormat.BINARY) {
+                BinaryTaskFile.write(output, list);
+            } else {
+                writeText(output, list);
+            }
+            if (isForced()) {
+                output.getFD().sync();
+            }
+        }
+        Metrics.get().recordBytesWritten(Files.size(temp));
+        journal.appendCheckpoint();
+        Files.deleteIfExists(index); // Built again from the new snapshot when next needed
+        replaceSnapshot(temp, file, segmentedFile.getManifest());
+        journal.reset();
+        segmentedFile.deleteSegments();
+        Metrics.get().recordSave(System.nanoTime() - start);
+    }
+
+    /**
+     * Writes the segments changed since the last save and a new manifest, which
+     * then replaces the old one as a snapshot replaces duke.txt.
+     */
+    private void writeSegments(List<Task> list, SegmentedTaskFile.Plan plan) throws IOException {
+        long start = System.nanoTime();
+        try {
+            ensureFolder();
+            Metrics.get().recordBytesWritten(segmentedFile.write(list, plan, isForced()));
+            journal.appendCheckpoint();
+            replaceSnapshot(segmentedFile.getManifestTemp(), segmentedFile.getManifest(), file);
+            journal.reset();
+        } catch (IOException | RuntimeException e) {
+            segmentedFile.fail(plan); // So the next save writes every segment again
+            throw e;
+        }
+        segmentedFile.deleteUnlisted(plan);
+        Metrics.get().recordSave(System.nanoTime() - start);
+    }
+
+    private boolean isForced() {
+        return durability == Durability.BATCHED || durability == Durability.FSYNC;
+    }
+
+    static void writeText(OutputStream output, List<Task> list) throws IOException {
+        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        for (Task task : list) {
+            writer.write(task.toFileString());
+            writer.newLine();
+        }
+        writer.flush();
+    }
+
+    /**
+     * Completes or discards a snapshot or manifest left behind by an interrupted
+     * save.
+     */
+    private void recoverSnapshot() throws IOException {
+        boolean isComplete = journal.endsWithCheckpoint();
+        // The checkpoint vouches for one temporary file at most
+        isComplete &= !recoverSnapshot(temp, file, segmentedFile.getManifest(), isComplete);
+        recoverSnapshot(segmentedFile.getManifestTemp(), segmentedFile.getManifest(), file, isComplete);
+        journal.discardCheckpointed();
+    }
+
+    /**
+     * Puts the temporary file in place if it is complete, or deletes it.
+     *
+     * @return True if it was put in place.
+     */
+    private static boolean recoverSnapshot(Path temp, Path target, Path other, boolean isComplete)
+            throws IOException {
+        if (!Files.exists(temp)) {
+            return false;
+        }
+        if (isComplete) {
+            replaceSnapshot(temp, target, other);
+        } else {
+            Files.delete(temp);
+        }
+        return isComplete;
+    }
+
+    /**
+     * Puts a fully written snapshot in place. A snapshot saved in the other kind
+     * of file, duke.txt or the manifest, is deleted first, so that once the
+     * temporary file is gone only one of them is left to load.
+     */
+    private static void replaceSnapshot(Path temp, Path target, Path other) throws IOException {
+        Files.deleteIfExists(other);
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private void ensureFolder() {
+        // Ensure the directory exists
+        File directory = folder.toFile();
+        if (!directory.exists()) {
+            directory.mkdirs();
         }
     }
 
     public String loadDuke() {
-        String result = "";
-        File file = new File(DUKE_PATH);
+        StringBuilder result = new StringBuilder();
+        File dukeFile = new File(DUKE_PATH);
         // Check if the file exists before attempting to load
-        if (file.exists()) {
+        if (dukeFile.exists()) {
             try (BufferedReader reader = new BufferedReader(new FileReader(DUKE_PATH))) {
                 String line;
                 while ((line = reader.readLine()) != null) {
-                    result += line + "\n";
+                    result.append(line).append('\n');
                 }
             } catch (IOException e) {
                 e.printStackTrace();
             }
-        } 
-        return result;
+        }
+        return result.toString();
     }
 
 }
@@ -0,0 +1,231 @@
+package duke.storage;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+
+import duke.task.Deadlines;
+import duke.task.Events;
+import duke.task.Task;
+
+/**
+ * Writes the task list out in an {@link ExportFormat}.
+ * Each task is encoded as it is reached and goes straight through a fixed-size
+ * buffer to the file channel, so memory use does not grow with the number of
+ * tasks, and a lazily loaded list is read a task at a time. The export is
+ * written to a temporary file next to the target and moved into place once
+ * complete, so an interrupted export does not leave half a file behind.
+ */
+public class TaskExporter {
+    static final String CSV_HEADER = "type,done,description,by,from,to";
+    static final String TODO = "todo";
+    static final String DEADLINE = "deadline";
+    static final String EVENT = "event";
+
+    static final DateTimeFormatter ICAL_DATE = DateTimeFormatter.BASIC_ISO_DATE;
+    static final DateTimeFormatter ICAL_DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+    // Longest iCalendar line in bytes, not counting the line break, before it is folded
+    static final int ICAL_LINE_LENGTH = 75;
+    static final String ICAL_DONE = "X-DUKE-DONE";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Writes the tasks to the file in the given format, replacing it if it exists.
+     *
+     * @param path   The file to write.
+     * @param tasks  The tasks, in the order to write them.
+     * @param format The format to write.
+     * @return The number of tasks written.
+     * @throws IOException If the file cannot be written.
+     */
+    public static int write(Path path, Iterable<Task> tasks, ExportFormat format) throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        int count = 0;
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+                Writer writer = new BufferedWriter(
+                        Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), BUFFER_SIZE), BUFFER_SIZE)) {
+            String stamp = ZonedDateTime.now(ZoneOffset.UTC).format(ICAL_DATE_TIME) + "Z";
+            if (format == ExportFormat.CSV) {
+                writer.write(CSV_HEADER + "\r\n");
+            } else if (format == ExportFormat.ICAL) {
+                writeIcalLine(writer, "BEGIN:VCALENDAR");
+                writeIcalLine(writer, "VERSION:2.0");
+                writeIcalLine(writer, "PRODID:-//Duke//Duke Tasks//EN");
+            }
+            for (Task task : tasks) {
+                switch (format) {
+                    case CSV:
+                        writeCsv(writer, task);
+                        break;
+                    case JSONL:
+                        writeJson(writer, task);
+                        break;
+                    default:
+                        writeIcal(writer, task, count + 1, stamp);
+                        break;
+                }
+                count++;
+            }
+            if (format == ExportFormat.ICAL) {
+                writeIcalLine(writer, "END:VCALENDAR");
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        try {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return count;
+    }
+
+    static String typeName(Task task) {
+        if (task instanceof Deadlines) {
+            return DEADLINE;
+        }
+        return task instanceof Events ? EVENT : TODO;
+    }
+
+    private static void writeCsv(Writer writer, Task task) throws IOException {
+        writer.write(typeName(task));
+        writer.write(task.getIsDone() ? ",true," : ",false,");
+        writeCsvField(writer, task.getDescription());
+        if (task instanceof Deadlines) {
+            writer.write("," + ((Deadlines) task).getDeadline() + ",,");
+        } else if (task instanceof Events) {
+            writer.write(",," + ((Events) task).getFrom() + "," + ((Events) task).getTo());
+        } else {
+            writer.write(",,,");
+        }
+        writer.write("\r\n");
+    }
+
+    /**
+     * Writes the field as is, or in double quotes with any double quote in it
+     * doubled if it holds a character that would otherwise end or split it.
+     */
+    private static void writeCsvField(Writer writer, String field) throws IOException {
+        boolean isQuoted = false;
+        for (int i = 0; i < field.length() && !isQuoted; i++) {
+            char c = field.charAt(i);
+            isQuoted = c == ',' || c == '"' || c == '\r' || c == '\n';
+        }
+        if (!isQuoted) {
+            writer.write(field);
+            return;
+        }
+        writer.write('"');
+        writer.write(field.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private static void writeJson(Writer writer, Task task) throws IOException {
+        writer.write("{\"type\":\"" + typeName(task) + "\",\"done\":" + task.getIsDone() + ",\"description\":");
+        writeJsonString(writer, task.getDescription());
+        if (task instanceof Deadlines) {
+            writer.write(",\"by\":\"" + ((Deadlines) task).getDeadline() + "\"");
+        } else if (task instanceof Events) {
+            writer.write(",\"from\":\"" + ((Events) task).getFrom() + "\",\"to\":\"" + ((Events) task).getTo() + "\"");
+        }
+        writer.write("}\n");
+    }
+
+    private static void writeJsonString(Writer writer, String text) throws IOException {
+        writer.write('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"':
+                    writer.write("\\\"");
+                    break;
+                case '\\':
+                    writer.write("\\\\");
+                    break;
+                case '\n':
+                    writer.write("\\n");
+                    break;
+                case '\r':
+                    writer.write("\\r");
+                    break;
+                case '\t':
+                    writer.write("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        writer.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        writer.write(c);
+                    }
+                    break;
+            }
+        }
+        writer.write('"');
+    }
+
+    private static void writeIcal(Writer writer, Task task, int number, String stamp) throws IOException {
+        boolean isEvent = task instanceof Events;
+        String component = isEvent ? "VEVENT" : "VTODO";
+        writeIcalLine(writer, "BEGIN:" + component);
+        writeIcalLine(writer, "UID:" + stamp + "-" + number + "@duke");
+        writeIcalLine(writer, "DTSTAMP:" + stamp);
+        writeIcalLine(writer, "SUMMARY:" + escapeIcalText(task.getDescription()));
+        if (isEvent) {
+            writeIcalLine(writer, "DTSTART:" + ((Events) task).getFrom().format(ICAL_DATE_TIME));
+            writeIcalLine(writer, "DTEND:" + ((Events) task).getTo().format(ICAL_DATE_TIME));
+            if (task.getIsDone()) {
+                // Events have no status for being done, so it is kept in a property of Duke's own
+                writeIcalLine(writer, ICAL_DONE + ":TRUE");
+            }
+        } else {
+            if (task instanceof Deadlines) {
+                writeIcalLine(writer, "DUE;VALUE=DATE:" + ((Deadlines) task).getDeadline().format(ICAL_DATE));
+            }
+            writeIcalLine(writer, "STATUS:" + (task.getIsDone() ? "COMPLETED" : "NEEDS-ACTION"));
+        }
+        writeIcalLine(writer, "END:" + component);
+    }
+
+    private static String escapeIcalText(String text) {
+        return text.replace("\\", "\\\\").replace(";", "\\;").replace(",", "\\,").replace("\n", "\\n")
+                .replace("\r", "");
+    }
+
+    /**
+     * Writes a content line ended by CRLF, folding it onto continuation lines
+     * that start with a space wherever it would pass {@link #ICAL_LINE_LENGTH}
+     * bytes of UTF-8, without splitting a character.
+     */
+    private static void writeIcalLine(Writer writer, String line) throws IOException {
+        int lineBytes = 0;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            boolean isPair = Character.isHighSurrogate(c) && i + 1 < line.length();
+            int bytes = isPair ? 4 : c < 0x80 ? 1 : c < 0x800 ? 2 : 3;
+            if (lineBytes + bytes > ICAL_LINE_LENGTH) {
+                writer.write("\r\n ");
+                lineBytes = 1;
+            }
+            writer.write(c);
+            if (isPair) {
+                writer.write(line.charAt(++i));
+            }
+            lineBytes += bytes;
+        }
+        writer.write("\r\n");
+    }
+}
@@ -0,0 +1,213 @@
+package duke.storage;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import duke.command.TaskType;
+import duke.parser.Parser;
+import duke.task.Task;
+
+/**
+ * Where each task starts in the text snapshot, so that single tasks can be read
+ * from it without parsing the rest.
+ * The offsets are saved next to the snapshot, together with the size and
+ * modification time it had, and are mapped straight from that file while those
+ * still match, so opening the index of a snapshot of any size takes about the
+ * same time. Otherwise they are found by parsing each line of the snapshot
+ * once, and saved for next time, along with the number of tasks of each type.
+ * Lines that cannot be parsed are reported and left out, as they are when the
+ * snapshot is parsed in full, so that a position means the same task whichever
+ * way the snapshot was loaded, and journal records replay onto the same tasks.
+ */
+class TaskFileIndex {
+    // "DKI3"; indexes saved before a bare \r ended a line are built again
+    private static final int MAGIC = 0x444b4933;
+    // The types of task counted, in the order their counts are saved; see typeSlot
+    private static final TaskType[] TYPES = { TaskType.TODO, TaskType.DEADLINE, TaskType.EVENT };
+    private static final int HEADER_SIZE = 4 + 8 + 8 + 4 + 4 * TYPES.length;
+
+    private final Path snapshot;
+    private final ByteBuffer bytes;
+    private final IntBuffer offsets;
+    private final int[] typeCounts;
+
+    private TaskFileIndex(Path snapshot, ByteBuffer bytes, IntBuffer offsets, int[] typeCounts) {
+        this.snapshot = snapshot;
+        this.bytes = bytes;
+        this.offsets = offsets;
+        this.typeCounts = typeCounts;
+    }
+
+    /**
+     * Opens the index of the given snapshot, building and saving it if the saved
+     * one is missing or out of date.
+     *
+     * @param snapshot  The text snapshot.
+     * @param indexFile Where the index is saved.
+     * @return The index, or null if the snapshot is too large to map in one piece.
+     * @throws IOException If the snapshot cannot be read.
+     */
+    static TaskFileIndex open(Path snapshot, Path indexFile) throws IOException {
+        MappedByteBuffer bytes;
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                return null;
+            }
+            bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        long size = bytes.capacity();
+        long modified = Files.getLastModifiedTime(snapshot).toMillis();
+
+        TaskFileIndex index = read(snapshot, bytes, indexFile, size, modified);
+        if (index != null) {
+            return index;
+        }
+        index = build(snapshot, bytes);
+        try {
+            index.save(indexFile, size, modified);
+        } catch (IOException e) {
+            System.err.println("Unable to save " + indexFile + ": " + e.getMessage());
+        }
+        return index;
+    }
+
+    /**
+     * Returns the number of tasks in the snapshot.
+     */
+    int size() {
+        return offsets.limit();
+    }
+
+    /**
+     * Returns the number of tasks of each type, by {@link TaskType} ordinal.
+     */
+    int[] getTypeCounts() {
+        int[] counts = new int[TaskType.values().length];
+        for (int i = 0; i < TYPES.length; i++) {
+            counts[TYPES[i].ordinal()] = typeCounts[i];
+        }
+        return counts;
+    }
+
+    /**
+     * Parses the task at the given position. Only lines that parsed when the index
+     * was built are listed, so this fails only if the snapshot has since been
+     * changed in place without its size or modification time changing.
+     *
+     * @param index The 0-based number of the task.
+     * @throws IllegalStateException If the line can no longer be parsed.
+     */
+    Task read(int index) {
+        int start = offsets.get(index);
+        String line = lineAt(bytes, start, TaskFileReader.lineEnd(bytes, start));
+        try {
+            return Parser.createTaskFromLine(line);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("Task " + (index + 1) + " of " + snapshot + " changed after it was indexed",
+                    e);
+        }
+    }
+
+    private static String lineAt(ByteBuffer bytes, int start, int end) {
+        return StandardCharsets.UTF_8.decode(bytes.slice(start, end - start)).toString();
+    }
+
+    private static int typeSlot(TaskType type) {
+        switch (type) {
+            case TODO:
+                return 0;
+            case DEADLINE:
+                return 1;
+            case EVENT:
+                return 2;
+            default:
+                throw new IllegalArgumentException("Not a task type: " + type);
+        }
+    }
+
+    private static TaskFileIndex read(Path snapshot, ByteBuffer bytes, Path indexFile, long size, long modified)
+            throws IOException {
+        if (!Files.exists(indexFile)) {
+            return null;
+        }
+        MappedByteBuffer index;
+        try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) {
+                return null;
+            }
+            index = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (index.getInt() != MAGIC || index.getLong() != size || index.getLong() != modified) {
+            return null;
+        }
+        int count = index.getInt();
+        int[] typeCounts = new int[TYPES.length];
+        for (int i = 0; i < typeCounts.length; i++) {
+            typeCounts[i] = index.getInt();
+        }
+        if (count < 0 || index.remaining() != 4L * count) {
+            return null;
+        }
+        return new TaskFileIndex(snapshot, bytes, index.slice().asIntBuffer(), typeCounts);
+    }
+
+    private static TaskFileIndex build(Path snapshot, ByteBuffer bytes) {
+        int[] offsets = new int[1024];
+        int count = 0;
+        int[] typeCounts = new int[TYPES.length];
+        int limit = bytes.limit();
+        int start = 0;
+        int lineNumber = 0;
+        while (start < limit) {
+            int end = TaskFileReader.lineEnd(bytes, start);
+            lineNumber++;
+            if (end > start) {
+                try {
+                    TaskType type = Parser.createTaskFromLine(lineAt(bytes, start, end)).getTaskType();
+                    if (count == offsets.length) {
+                        offsets = Arrays.copyOf(offsets, count * 2);
+                    }
+                    offsets[count++] = start;
+                    typeCounts[typeSlot(type)]++;
+                } catch (IllegalArgumentException e) {
+                    System.err.println("Skipping line " + lineNumber + " of " + snapshot + ": " + e.getMessage());
+                }
+            }
+            start = TaskFileReader.nextLineStart(bytes, end);
+        }
+        return new TaskFileIndex(snapshot, bytes, IntBuffer.wrap(offsets, 0, count).slice(), typeCounts);
+    }
+
+    private void save(Path indexFile, long size, long modified) throws IOException {
+        Path temp = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeLong(size);
+            out.writeLong(modified);
+            out.writeInt(size());
+            for (int typeCount : typeCounts) {
+                out.writeInt(typeCount);
+            }
+            for (int i = 0; i < size(); i++) {
+                out.writeInt(offsets.get(i));
+            }
+        }
+        try {
+            Files.move(temp, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, indexFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package duke.storage;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import duke.parser.Parser;
+import duke.task.Task;
+
+/**
+ * Reads the text snapshot into a list of tasks.
+ * Small files are read line by line. Large files are memory-mapped in chunks that
+ * end on a line boundary, and the chunks are parsed in parallel on the common
+ * fork-join pool and joined back in file order, giving the same list as the
+ * sequential path.
+ * Malformed lines are reported with their line number and skipped, so one bad
+ * line does not lose the rest of the list.
+ */
+public class TaskFileReader {
+    // Below this size the cost of splitting outweighs the parallel speedup.
+    static final long PARALLEL_THRESHOLD = 4L * 1024 * 1024;
+    static final long CHUNK_SIZE = 4L * 1024 * 1024;
+
+    private static final int BOUNDARY_SCAN_SIZE = 8 * 1024;
+
+    public static List<Task> read(Path path) throws IOException {
+        if (Files.size(path) < PARALLEL_THRESHOLD || ForkJoinPool.getCommonPoolParallelism() < 2) {
+            return readSequential(path);
+        }
+        return readParallel(path, CHUNK_SIZE);
+    }
+
+    public static List<Task> readSequential(Path path) throws IOException {
+        return parseChunk(Files.readAllBytes(path)).finish(path);
+    }
+
+    /**
+     * Returns the position of the line break that ends the line starting at the
+     * given position, or the limit if the line is the last one and has none.
+     * A line ends at \n, \r\n or a bare \r, like {@link BufferedReader#readLine()},
+     * and those bytes never occur inside a multi-byte UTF-8 character.
+     */
+    static int lineEnd(ByteBuffer bytes, int start) {
+        int end = start;
+        while (end < bytes.limit() && bytes.get(end) != '\n' && bytes.get(end) != '\r') {
+            end++;
+        }
+        return end;
+    }
+
+    /**
+     * Returns where the line after the one ending at the given line break starts.
+     */
+    static int nextLineStart(ByteBuffer bytes, int end) {
+        if (end + 1 < bytes.limit() && bytes.get(end) == '\r' && bytes.get(end + 1) == '\n') {
+            return end + 2;
+        }
+        return end + 1;
+    }
+
+    /**
+     * Parses the file in chunks of roughly the given size on the common fork-join
+     * pool.
+     *
+     * @param path      The snapshot to read.
+     * @param chunkSize The target number of bytes per chunk.
+     * @return The tasks in file order.
+     * @throws IOException If the file cannot be read.
+     */
+    public static List<Task> readParallel(Path path, long chunkSize) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            List<Long> boundaries = findBoundaries(channel, chunkSize);
+            try {
+                return ForkJoinPool.commonPool().invoke(new ChunkTask(channel, boundaries, 0, boundaries.size() - 1))
+                        .finish(path);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    /**
+     * Splits the file into chunks that each end just after a line break, or at the
+     * end of the file.
+     *
+     * @return The chunk start offsets, followed by the file size.
+     */
+    private static List<Long> findBoundaries(FileChannel channel, long chunkSize) throws IOException {
+        long size = channel.size();
+        List<Long> boundaries = new ArrayList<>();
+        boundaries.add(0L);
+        ByteBuffer buffer = ByteBuffer.allocate(BOUNDARY_SCAN_SIZE);
+        long position = chunkSize;
+        while (position < size) {
+            long lineEnd = findLineBreak(channel, buffer, position);
+            if (lineEnd < 0) {
+                break;
+            }
+            boundaries.add(lineEnd + 1);
+            position = lineEnd + 1 + chunkSize;
+        }
+        if (boundaries.get(boundaries.size() - 1) < size) {
+            boundaries.add(size);
+        }
+        return boundaries;
+    }
+
+    /**
+     * Returns the position of the last byte of the first line break at or after the
+     * given position, so that a \r\n is never split between two chunks.
+     */
+    private static long findLineBreak(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (true) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                return -1;
+            }
+            buffer.limit(read);
+            int end = lineEnd(buffer, 0);
+            if (end < read - 1 || (end == read - 1 && buffer.get(end) == '\n')) {
+                return position + nextLineStart(buffer, end) - 1;
+            }
+            if (end == read - 1 && position + read == channel.size()) {
+                return position + end; // A \r that ends the file
+            }
+            // Read on from a \r at the end of the buffer to see whether a \n follows
+            position += end;
+        }
+    }
+
+    /**
+     * Parses every line in the given bytes, split as {@link #lineEnd} describes.
+     */
+    private static Chunk parseChunk(byte[] text) {
+        ByteBuffer bytes = ByteBuffer.wrap(text);
+        Chunk chunk = new Chunk();
+        int start = 0;
+        while (start < text.length) {
+            int end = lineEnd(bytes, start);
+            chunk.parse(new String(text, start, end - start, StandardCharsets.UTF_8));
+            start = nextLineStart(bytes, end);
+        }
+        return chunk;
+    }
+
+    /**
+     * The tasks parsed from a run of consecutive lines, along with the lines that
+     * could not be parsed, numbered from the start of the run.
+     */
+    private static class Chunk {
+        private final List<Task> tasks = new ArrayList<>();
+        private final List<Integer> badLines = new ArrayList<>();
+        private final List<String> errors = new ArrayList<>();
+        private int lineCount = 0;
+
+        void parse(String line) {
+            lineCount++;
+            try {
+                tasks.add(Parser.createTaskFromLine(line));
+            } catch (IllegalArgumentException e) {
+                badLines.add(lineCount);
+                errors.add(e.getMessage());
+            }
+        }
+
+        /**
+         * Appends the lines of the chunk that follows this one.
+         */
+        Chunk append(Chunk next) {
+            tasks.addAll(next.tasks);
+            for (int lineNumber : next.badLines) {
+                badLines.add(lineCount + lineNumber);
+            }
+            errors.addAll(next.errors);
+            lineCount += next.lineCount;
+            return this;
+        }
+
+        List<Task> finish(Path path) {
+            for (int i = 0; i < badLines.size(); i++) {
+                System.err.println("Skipping line " + badLines.get(i) + " of " + path + ": " + errors.get(i));
+            }
+            return tasks;
+        }
+    }
+
+    /**
+     * Parses the chunks in [from, to) by splitting the range in half until a single
+     * chunk is left, then concatenates the halves in order.
+     */
+    private static class ChunkTask extends RecursiveTask<Chunk> {
+        private static final long serialVersionUID = 1L;
+
+        private final FileChannel channel;
+        private final List<Long> boundaries;
+        private final int from;
+        private final int to;
+
+        ChunkTask(FileChannel channel, List<Long> boundaries, int from, int to) {
+            this.channel = channel;
+            this.boundaries = boundaries;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Chunk compute() {
+            if (to - from <= 1) {
+                return from < to ? parse(from) : new Chunk();
+            }
+            int mid = (from + to) >>> 1;
+            ChunkTask left = new ChunkTask(channel, boundaries, from, mid);
+            left.fork();
+            Chunk right = new ChunkTask(channel, boundaries, mid, to).compute();
+            return left.join().append(right);
+        }
+
+        private Chunk parse(int chunk) {
+            long start = boundaries.get(chunk);
+            long end = boundaries.get(chunk + 1);
+            try {
+                MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+                byte[] text = new byte[bytes.remaining()];
+                bytes.get(text);
+                return parseChunk(text);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
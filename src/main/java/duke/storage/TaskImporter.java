@@ -0,0 +1,545 @@
+package duke.storage;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import duke.parser.Parser;
+import duke.task.Deadlines;
+import duke.task.Events;
+import duke.task.Task;
+import duke.task.ToDos;
+
+/**
+ * Reads tasks written in an {@link ExportFormat}, by Duke or another tool, one
+ * task at a time as they are asked for, so that memory use does not grow with
+ * the size of the file.
+ * A record that cannot be read is reported with its line number and skipped,
+ * as {@link TaskFileReader} does with the snapshot. In CSV and JSON Lines the
+ * dates are those Duke writes, yyyy-MM-dd and yyyy-MM-ddTHH:mm. In iCalendar a
+ * VTODO is read as a deadline if it has a DUE date and as a todo otherwise, and
+ * a VEVENT as an event. Times in UTC or with a TZID are moved to the local time
+ * zone, and the end date of an all-day event, which iCalendar excludes, is taken
+ * back a day.
+ */
+public class TaskImporter implements Iterator<Task>, Closeable {
+    private final BufferedReader reader;
+    private final ExportFormat format;
+    private final Path path;
+    private int lineNumber = 0;
+    private int skippedCount = 0;
+    private Task next;
+    // The iCalendar line read ahead to see if it continues the one before
+    private String pendingLine;
+
+    private TaskImporter(BufferedReader reader, ExportFormat format, Path path) {
+        this.reader = reader;
+        this.format = format;
+        this.path = path;
+    }
+
+    /**
+     * Opens the file for reading in the given format.
+     *
+     * @param path   The file to read.
+     * @param format The format it is in.
+     * @return The importer, which must be closed once done with.
+     * @throws IOException If the file cannot be opened.
+     */
+    public static TaskImporter open(Path path, ExportFormat format) throws IOException {
+        return new TaskImporter(Files.newBufferedReader(path, StandardCharsets.UTF_8), format, path);
+    }
+
+    /**
+     * Returns the number of records skipped so far because they could not be read.
+     */
+    public int getSkippedCount() {
+        return skippedCount;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws UncheckedIOException If the file cannot be read.
+     */
+    @Override
+    public boolean hasNext() {
+        if (next != null) {
+            return true;
+        }
+        try {
+            next = readTask();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return next != null;
+    }
+
+    @Override
+    public Task next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Task task = next;
+        next = null;
+        return task;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * Returns the next task that can be read, or null at the end of the file.
+     */
+    private Task readTask() throws IOException {
+        while (true) {
+            int recordLine = lineNumber + 1;
+            try {
+                switch (format) {
+                    case CSV:
+                        return readCsvTask();
+                    case JSONL:
+                        return readJsonTask();
+                    default:
+                        return readIcalTask();
+                }
+            } catch (IllegalArgumentException | DateTimeException e) {
+                skippedCount++;
+                System.err.println("Skipping unreadable record at line " + recordLine + " of " + path + ": "
+                        + e.getMessage());
+            }
+        }
+    }
+
+    private Task readCsvTask() throws IOException {
+        List<String> fields = readCsvRecord();
+        while (fields != null && (fields.size() == 1 && fields.get(0).isEmpty()
+                || String.join(",", fields).equals(TaskExporter.CSV_HEADER))) {
+            fields = readCsvRecord(); // An empty line, or the header
+        }
+        if (fields == null) {
+            return null;
+        }
+        if (fields.size() < 3) {
+            throw new IllegalArgumentException("Expected at least 3 fields but found " + fields.size());
+        }
+        return createTask(fields.get(0), fields.get(1), fields.get(2), field(fields, 3), field(fields, 4),
+                field(fields, 5));
+    }
+
+    private static String field(List<String> fields, int index) {
+        return index < fields.size() && !fields.get(index).isEmpty() ? fields.get(index) : null;
+    }
+
+    /**
+     * Reads the fields of one CSV record, which runs on to the next line while
+     * inside a quoted field.
+     *
+     * @return The fields, or null at the end of the file.
+     */
+    private List<String> readCsvRecord() throws IOException {
+        String line = reader.readLine();
+        if (line == null) {
+            return null;
+        }
+        lineNumber++;
+        List<String> fields = new ArrayList<>();
+        if (line.indexOf('"') == -1) {
+            int start = 0;
+            for (int comma = line.indexOf(','); comma != -1; comma = line.indexOf(',', start)) {
+                fields.add(line.substring(start, comma));
+                start = comma + 1;
+            }
+            fields.add(line.substring(start));
+            return fields;
+        }
+        StringBuilder field = new StringBuilder();
+        boolean isQuoted = false;
+        int i = 0;
+        while (true) {
+            if (i == line.length()) {
+                if (!isQuoted) {
+                    break;
+                }
+                line = reader.readLine();
+                if (line == null) {
+                    throw new IllegalArgumentException("Quoted field is not closed");
+                }
+                lineNumber++;
+                field.append('\n');
+                i = 0;
+                continue;
+            }
+            char c = line.charAt(i++);
+            if (isQuoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i < line.length() && line.charAt(i) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    isQuoted = false;
+                }
+            } else if (c == '"') {
+                isQuoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private Task readJsonTask() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+            lineNumber++;
+        } while (line.isBlank());
+        Map<String, String> object = new JsonObjectParser(line).parse();
+        return createTask(object.get("type"), object.get("done"), object.get("description"), object.get("by"),
+                object.get("from"), object.get("to"));
+    }
+
+    /**
+     * Builds a task from the fields of a CSV or JSON record.
+     */
+    private static Task createTask(String type, String done, String description, String by, String from,
+            String to) {
+        if (type == null || description == null || description.isBlank()) {
+            throw new IllegalArgumentException("Missing type or description");
+        }
+        description = toOneLine(description);
+        boolean isDone = done != null && (done.equalsIgnoreCase("true") || done.equals("1"));
+        switch (type.toLowerCase()) {
+            case TaskExporter.TODO:
+                return new ToDos(description, isDone);
+            case TaskExporter.DEADLINE:
+                if (by == null) {
+                    throw new IllegalArgumentException("Deadline without a date");
+                }
+                return new Deadlines(description, isDone, Parser.parseDate(by, 0, by.length()));
+            case TaskExporter.EVENT:
+                if (from == null || to == null) {
+                    throw new IllegalArgumentException("Event without a start and an end");
+                }
+                return new Events(description, isDone, Parser.parseDateTime(from, 0, from.length()),
+                        Parser.parseDateTime(to, 0, to.length()));
+            default:
+                throw new IllegalArgumentException("Unknown task type: " + type);
+        }
+    }
+
+    /**
+     * Joins the lines of a description with spaces, as the snapshot keeps each
+     * task on one line.
+     */
+    private static String toOneLine(String description) {
+        return description.replaceAll("\\s*[\\r\\n]+\\s*", " ").trim();
+    }
+
+    /**
+     * Reads on to the next VTODO or VEVENT and builds its task. Anything outside
+     * them, and any component nested in them such as an alarm, is passed over.
+     */
+    private Task readIcalTask() throws IOException {
+        String line;
+        String component = null;
+        int nestedDepth = 0;
+        Map<String, String> values = new HashMap<>();
+        Map<String, String> params = new HashMap<>();
+        while ((line = readIcalLine()) != null) {
+            int colon = valueStart(line);
+            if (colon == -1) {
+                continue;
+            }
+            int semicolon = line.indexOf(';');
+            String name = line.substring(0, semicolon != -1 && semicolon < colon ? semicolon : colon)
+                    .toUpperCase();
+            String value = line.substring(colon + 1);
+            if (component == null) {
+                if (name.equals("BEGIN") && (value.equalsIgnoreCase("VTODO") || value.equalsIgnoreCase("VEVENT"))) {
+                    component = value.toUpperCase();
+                }
+            } else if (name.equals("BEGIN")) {
+                nestedDepth++;
+            } else if (name.equals("END") && nestedDepth > 0) {
+                nestedDepth--;
+            } else if (name.equals("END")) {
+                return createIcalTask(component, values, params);
+            } else if (nestedDepth == 0) {
+                values.put(name, value);
+                params.put(name, colon > name.length() ? line.substring(name.length() + 1, colon) : "");
+            }
+        }
+        if (component != null) {
+            throw new IllegalArgumentException(component + " is not closed");
+        }
+        return null;
+    }
+
+    private static Task createIcalTask(String component, Map<String, String> values, Map<String, String> params) {
+        String summary = values.get("SUMMARY");
+        if (summary == null || summary.isBlank()) {
+            throw new IllegalArgumentException(component + " without a summary");
+        }
+        String description = toOneLine(unescapeIcalText(summary));
+        if (component.equals("VTODO")) {
+            boolean isDone = "COMPLETED".equalsIgnoreCase(values.get("STATUS")) || values.containsKey("COMPLETED");
+            if (!values.containsKey("DUE")) {
+                return new ToDos(description, isDone);
+            }
+            return new Deadlines(description, isDone, parseIcalTime(values.get("DUE"), params.get("DUE"))
+                    .toLocalDate());
+        }
+        if (!values.containsKey("DTSTART")) {
+            throw new IllegalArgumentException("VEVENT without a start");
+        }
+        boolean isDone = "TRUE".equalsIgnoreCase(values.get(TaskExporter.ICAL_DONE));
+        LocalDateTime from = parseIcalTime(values.get("DTSTART"), params.get("DTSTART"));
+        LocalDateTime to = from;
+        if (values.containsKey("DTEND")) {
+            String end = values.get("DTEND");
+            to = parseIcalTime(end, params.get("DTEND"));
+            if (isIcalDate(end) && to.isAfter(from)) {
+                to = to.minusDays(1);
+            }
+        }
+        return new Events(description, isDone, from, to);
+    }
+
+    private static boolean isIcalDate(String value) {
+        return value.indexOf('T') == -1;
+    }
+
+    /**
+     * Parses an iCalendar DATE or DATE-TIME as local time. A DATE is taken as the
+     * start of its day.
+     */
+    private static LocalDateTime parseIcalTime(String value, String params) {
+        value = value.trim();
+        if (isIcalDate(value)) {
+            return LocalDate.parse(value, TaskExporter.ICAL_DATE).atStartOfDay();
+        }
+        boolean isUtc = value.endsWith("Z");
+        LocalDateTime time = LocalDateTime.parse(isUtc ? value.substring(0, value.length() - 1) : value,
+                TaskExporter.ICAL_DATE_TIME);
+        ZoneId zone = isUtc ? ZoneId.of("UTC") : null;
+        for (String param : params.split(";")) {
+            if (param.toUpperCase().startsWith("TZID=")) {
+                zone = ZoneId.of(param.substring("TZID=".length()).replace("\"", ""));
+            }
+        }
+        return zone == null ? time : ZonedDateTime.of(time, zone).withZoneSameInstant(ZoneId.systemDefault())
+                .toLocalDateTime();
+    }
+
+    private static String unescapeIcalText(String text) {
+        StringBuilder result = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\\' && i + 1 < text.length()) {
+                char escaped = text.charAt(++i);
+                result.append(escaped == 'n' || escaped == 'N' ? '\n' : escaped);
+            } else {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * Returns the position of the colon that ends the name and parameters of a
+     * content line, skipping any inside a quoted parameter value, or -1.
+     */
+    private static int valueStart(String line) {
+        boolean isQuoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                isQuoted = !isQuoted;
+            } else if (c == ':' && !isQuoted) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Reads one content line, joining on any continuation lines folded from it.
+     *
+     * @return The line, or null at the end of the file.
+     */
+    private String readIcalLine() throws IOException {
+        String line = pendingLine != null ? pendingLine : nextLine();
+        pendingLine = null;
+        if (line == null) {
+            return null;
+        }
+        StringBuilder unfolded = null;
+        String continuation;
+        while ((continuation = nextLine()) != null) {
+            if (continuation.isEmpty() || (continuation.charAt(0) != ' ' && continuation.charAt(0) != '\t')) {
+                pendingLine = continuation;
+                break;
+            }
+            if (unfolded == null) {
+                unfolded = new StringBuilder(line);
+            }
+            unfolded.append(continuation, 1, continuation.length());
+        }
+        return unfolded == null ? line : unfolded.toString();
+    }
+
+    private String nextLine() throws IOException {
+        String line = reader.readLine();
+        if (line != null) {
+            lineNumber++;
+        }
+        return line;
+    }
+
+    /**
+     * Reads a JSON object of strings, booleans, numbers and nulls, each kept as
+     * the text of the value. Nested objects and arrays are not expected in a task
+     * and are rejected.
+     */
+    private static class JsonObjectParser {
+        private final String text;
+        private int position = 0;
+
+        JsonObjectParser(String text) {
+            this.text = text;
+        }
+
+        Map<String, String> parse() {
+            Map<String, String> object = new HashMap<>();
+            expect('{');
+            if (peek() == '}') {
+                position++;
+            } else {
+                do {
+                    String key = readString();
+                    expect(':');
+                    object.put(key, readValue());
+                } while (consume(','));
+                expect('}');
+            }
+            if (peek() != 0) {
+                throw new IllegalArgumentException("Unexpected text after the object");
+            }
+            return object;
+        }
+
+        private String readValue() {
+            if (peek() == '"') {
+                return readString();
+            }
+            int start = position;
+            while (position < text.length() && ",}] \t".indexOf(text.charAt(position)) == -1) {
+                position++;
+            }
+            String value = text.substring(start, position);
+            if (value.isEmpty()) {
+                throw new IllegalArgumentException("Expected a value at column " + (start + 1));
+            }
+            return value.equals("null") ? null : value;
+        }
+
+        private String readString() {
+            expect('"');
+            StringBuilder result = new StringBuilder();
+            while (true) {
+                if (position >= text.length()) {
+                    throw new IllegalArgumentException("String is not closed");
+                }
+                char c = text.charAt(position++);
+                if (c == '"') {
+                    return result.toString();
+                }
+                if (c != '\\') {
+                    result.append(c);
+                    continue;
+                }
+                if (position >= text.length()) {
+                    throw new IllegalArgumentException("String is not closed");
+                }
+                char escaped = text.charAt(position++);
+                switch (escaped) {
+                    case 'n':
+                        result.append('\n');
+                        break;
+                    case 'r':
+                        result.append('\r');
+                        break;
+                    case 't':
+                        result.append('\t');
+                        break;
+                    case 'b':
+                        result.append('\b');
+                        break;
+                    case 'f':
+                        result.append('\f');
+                        break;
+                    case 'u':
+                        if (position + 4 > text.length()) {
+                            throw new IllegalArgumentException("Incomplete escape at column " + position);
+                        }
+                        result.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+                        position += 4;
+                        break;
+                    default:
+                        result.append(escaped);
+                        break;
+                }
+            }
+        }
+
+        /**
+         * Returns the next character after any whitespace, or 0 at the end.
+         */
+        private char peek() {
+            while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+                position++;
+            }
+            return position < text.length() ? text.charAt(position) : 0;
+        }
+
+        private boolean consume(char c) {
+            if (peek() != c) {
+                return false;
+            }
+            position++;
+            return true;
+        }
+
+        private void expect(char c) {
+            if (!consume(c)) {
+                throw new IllegalArgumentException("Expected '" + c + "' at column " + (position + 1));
+            }
+        }
+    }
+}
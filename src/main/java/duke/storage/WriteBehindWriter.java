@@ -0,0 +1,304 @@
+package duke.storage;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import duke.task.Task;
+
+/**
+ * Writes journal records and snapshots on a dedicated thread so that commands
+ * do not wait for the disk. The thread is either its own, flushed when the JVM
+ * exits, or one taken from an executor whose owner closes the writer in time,
+ * so that a server with many sessions need not start a platform thread and a
+ * shutdown hook for each.
+ * Records that arrive within the commit window of each other are written, and
+ * forced to disk if the durability level asks for it, as one group. Writes are
+ * applied in the order they were submitted.
+ * A write that fails is completed exceptionally and remembered, and journal
+ * records are then dropped, since they would replay onto the wrong tasks, until
+ * a snapshot is written. The owner checks {@link #takeFailure()} and falls back
+ * to a snapshot, as it does when writing synchronously. The thread outlives any
+ * failure, and writes that can no longer be carried out fail instead of waiting.
+ */
+class WriteBehindWriter {
+    /**
+     * Writes a full snapshot of the given tasks.
+     */
+    interface SnapshotWriter {
+        void write(List<Task> list) throws IOException;
+    }
+
+    private final Journal journal;
+    private final SnapshotWriter snapshotWriter;
+    private final Durability durability;
+    private final long windowNanos;
+    private final BlockingQueue<Write> queue = new LinkedBlockingQueue<>();
+    private final CompletableFuture<Void> stopped = new CompletableFuture<>();
+    private final AtomicBoolean isFailed = new AtomicBoolean();
+    // Only touched on the writer thread
+    private boolean needsSnapshot = false;
+    private final Thread shutdownHook;
+
+    /**
+     * A unit of work for the writer thread: journal records, a snapshot, or, when
+     * both are null, a barrier that completes once every earlier write is done.
+     */
+    private static class Write {
+        final List<String> records;
+        final List<Task> snapshot;
+        final SnapshotWriter snapshotWriter;
+        final boolean isStop;
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        Write(List<String> records, List<Task> snapshot, SnapshotWriter snapshotWriter, boolean isStop) {
+            this.records = records;
+            this.snapshot = snapshot;
+            this.snapshotWriter = snapshotWriter;
+            this.isStop = isStop;
+        }
+
+        boolean isBarrier() {
+            return records == null && snapshot == null;
+        }
+    }
+
+    WriteBehindWriter(Journal journal, SnapshotWriter snapshotWriter, Durability durability, long windowMillis) {
+        this(journal, snapshotWriter, durability, windowMillis, null);
+    }
+
+    /**
+     * Starts a writer that runs on the given executor, or on a daemon thread of
+     * its own, flushed by a shutdown hook, if it is null.
+     */
+    WriteBehindWriter(Journal journal, SnapshotWriter snapshotWriter, Durability durability, long windowMillis,
+            Executor executor) {
+        assert durability != Durability.SYNC : "SYNC durability does not use a writer thread";
+        this.journal = journal;
+        this.snapshotWriter = snapshotWriter;
+        this.durability = durability;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+
+        if (executor != null) {
+            this.shutdownHook = null;
+            executor.execute(this::run);
+            return;
+        }
+        Thread thread = new Thread(this::run, "duke-storage-writer");
+        thread.setDaemon(true);
+        thread.start();
+
+        this.shutdownHook = new Thread(this::flush, "duke-storage-flush");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    /**
+     * Queues records to be appended to the journal. With FSYNC durability this
+     * waits until they are on disk.
+     */
+    void append(List<String> records) {
+        Write write = submit(new Write(records, null, null, false));
+        if (durability == Durability.FSYNC) {
+            await(write);
+        }
+    }
+
+    /**
+     * Queues a snapshot of the given tasks. The list must not be changed
+     * afterwards.
+     */
+    void snapshot(List<Task> list) {
+        snapshot(list, snapshotWriter);
+    }
+
+    /**
+     * Queues a snapshot of the given tasks to be written by the given writer
+     * instead of the usual one. The list must not be changed afterwards.
+     */
+    void snapshot(List<Task> list, SnapshotWriter writer) {
+        Write write = submit(new Write(null, list, writer, false));
+        if (durability == Durability.FSYNC) {
+            await(write);
+        }
+    }
+
+    /**
+     * Returns whether a write has failed since the last call, in which case the
+     * owner must save a snapshot for the changes to reach the disk.
+     */
+    boolean takeFailure() {
+        return isFailed.getAndSet(false);
+    }
+
+    /**
+     * Waits until every write submitted so far is done.
+     */
+    void flush() {
+        if (!stopped.isDone()) {
+            await(submit(new Write(null, null, null, false)));
+        }
+    }
+
+    /**
+     * Flushes and stops the writer thread.
+     */
+    void close() {
+        if (!stopped.isDone()) {
+            await(submit(new Write(null, null, null, true)));
+        }
+        if (shutdownHook == null) {
+            return;
+        }
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException e) {
+            // Already shutting down, the hook is running or has run
+        }
+    }
+
+    private Write submit(Write write) {
+        queue.add(write);
+        if (stopped.isDone()) {
+            failQueued(); // No one is left to carry it out
+        }
+        return write;
+    }
+
+    /**
+     * Waits for the write to be done. A failure is not thrown, since it is
+     * reported through {@link #takeFailure()}.
+     */
+    private static void await(Write write) {
+        try {
+            write.done.join();
+        } catch (CompletionException e) {
+            // Reported through takeFailure
+        }
+    }
+
+    private void failQueued() {
+        Write write;
+        while ((write = queue.poll()) != null) {
+            if (!write.isBarrier()) {
+                isFailed.set(true);
+            }
+            write.done.completeExceptionally(new IllegalStateException("The storage writer has stopped"));
+        }
+    }
+
+    private void run() {
+        List<Write> batch = new ArrayList<>();
+        boolean isStopped = false;
+        try {
+            while (!isStopped) {
+                batch.clear();
+                try {
+                    collect(batch);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    isStopped = true;
+                }
+                isStopped |= process(batch);
+            }
+        } finally {
+            stopped.complete(null);
+            failQueued();
+        }
+    }
+
+    /**
+     * Takes the next write, then keeps taking writes until the commit window
+     * closes or a write that someone waits on arrives.
+     */
+    private void collect(List<Write> batch) throws InterruptedException {
+        Write write = queue.take();
+        batch.add(write);
+        long deadline = System.nanoTime() + windowNanos;
+        while (!isUrgent(write)) {
+            long remaining = deadline - System.nanoTime();
+            write = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+            if (write == null) {
+                return;
+            }
+            batch.add(write);
+        }
+    }
+
+    private boolean isUrgent(Write write) {
+        return write.isBarrier() || durability == Durability.FSYNC;
+    }
+
+    /**
+     * Applies the batch in order, merging runs of journal records into one append.
+     * A write that fails, or is dropped because an earlier one failed, is
+     * completed exceptionally; the others complete normally.
+     *
+     * @return True if the batch asked the writer to stop.
+     */
+    private boolean process(List<Write> batch) {
+        boolean isForce = durability != Durability.ASYNC;
+        List<Write> pending = new ArrayList<>(); // Whose records are merged but not yet appended
+        boolean isStop = false;
+        for (Write write : batch) {
+            if (write.snapshot != null) {
+                appendRecords(pending, isForce);
+                try {
+                    write.snapshotWriter.write(write.snapshot);
+                    needsSnapshot = false;
+                    write.done.complete(null);
+                } catch (IOException | RuntimeException e) {
+                    fail(write, e);
+                }
+            } else if (write.records != null) {
+                pending.add(write);
+            } else {
+                appendRecords(pending, isForce);
+                write.done.complete(null);
+            }
+            isStop |= write.isStop;
+        }
+        appendRecords(pending, isForce);
+        return isStop;
+    }
+
+    private void appendRecords(List<Write> pending, boolean isForce) {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<String> records = new ArrayList<>();
+        for (Write write : pending) {
+            records.addAll(write.records);
+        }
+        try {
+            if (needsSnapshot) {
+                throw new IOException("Journal records dropped until a snapshot is saved after a failed write");
+            }
+            journal.append(records, isForce);
+            for (Write write : pending) {
+                write.done.complete(null);
+            }
+        } catch (IOException | RuntimeException e) {
+            for (Write write : pending) {
+                fail(write, e);
+            }
+        }
+        pending.clear();
+    }
+
+    private void fail(Write write, Exception e) {
+        if (!needsSnapshot) {
+            e.printStackTrace();
+        }
+        needsSnapshot = true;
+        isFailed.set(true);
+        write.done.completeExceptionally(e instanceof IOException ? new UncheckedIOException((IOException) e) : e);
+    }
+}
@@ -9,8 +9,9 @@ import duke.command.TaskType;
 public class Deadlines extends Task {
     LocalDate deadline;
 
-    String INPUT_DATETIME_PATTERN = "yyyy-MM-dd";
-    String OUTPUT_DATETIME_PATTERN = "MMM d yyyy";
+    static final String INPUT_DATETIME_PATTERN = "yyyy-MM-dd";
+    static final String OUTPUT_DATETIME_PATTERN = "MMM d yyyy";
+    static final DateTimeFormatter OUTPUT_FORMATTER = DateTimeFormatter.ofPattern(OUTPUT_DATETIME_PATTERN);
 
     public Deadlines(String instruction) {
         super("");
@@ -26,6 +27,13 @@ public class Deadlines extends Task {
         this.isDone = isDone;
     }
 
+    public Deadlines(String description, boolean isDone, LocalDate deadline) {
+        super("", false);
+        this.description = description;
+        this.deadline = deadline;
+        this.isDone = isDone;
+    }
+
     private String[] derive(String instruction) {
         String[] result = instruction.split("/");
         if (result.length != 2) {
@@ -41,6 +49,15 @@ public class Deadlines extends Task {
         }
     }
 
+    public LocalDate getDeadline() {
+        return deadline;
+    }
+
+    @Override
+    public Task withIsDone(boolean isDone) {
+        return new Deadlines(description, isDone, deadline);
+    }
+
     @Override
     public TaskType getTaskType() {
         return TaskType.DEADLINE;
@@ -58,9 +75,8 @@ public class Deadlines extends Task {
 
     @Override
     public String getPrintStatus() {
-        DateTimeFormatter patt = DateTimeFormatter.ofPattern(OUTPUT_DATETIME_PATTERN);
         return "[" + (isDone ? "X" : " ") + "] " + description + " (by: "
-        + deadline.format(patt) + ")";
+        + deadline.format(OUTPUT_FORMATTER) + ")";
     }
 
     private LocalDate convertToDate(String d) {
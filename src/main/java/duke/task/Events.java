@@ -11,11 +11,17 @@ public class Events extends Task {
     LocalDateTime from;
     LocalDateTime to;
 
-    String INPUT_DATE_PATTERN = "yyyy-MM-dd";
-    String INPUT_DATETIME_PATTERN = "yyyy-MM-dd HH:mm";
-    String OUTPUT_DATETIME_PATTERN = "MMM d yyyy, hh:mm a";
-    String OUTPUT_DATE_PATTERN = "MMM d yyyy";
-    String OUTPUT_TIME_PATTERN = "hh:mm a";
+    static final String INPUT_DATE_PATTERN = "yyyy-MM-dd";
+    static final String INPUT_DATETIME_PATTERN = "yyyy-MM-dd HH:mm";
+    static final String OUTPUT_DATETIME_PATTERN = "MMM d yyyy, hh:mm a";
+    static final String OUTPUT_DATE_PATTERN = "MMM d yyyy";
+    static final String OUTPUT_TIME_PATTERN = "hh:mm a";
+
+    // Formatters are immutable and thread-safe, so every event shares them
+    static final DateTimeFormatter INPUT_DATETIME_FORMATTER = DateTimeFormatter.ofPattern(INPUT_DATETIME_PATTERN);
+    static final DateTimeFormatter OUTPUT_DATETIME_FORMATTER = DateTimeFormatter.ofPattern(OUTPUT_DATETIME_PATTERN);
+    static final DateTimeFormatter OUTPUT_DATE_FORMATTER = DateTimeFormatter.ofPattern(OUTPUT_DATE_PATTERN);
+    static final DateTimeFormatter OUTPUT_TIME_FORMATTER = DateTimeFormatter.ofPattern(OUTPUT_TIME_PATTERN);
 
     public Events(String instruction) {
         super("");
@@ -59,6 +65,19 @@ public class Events extends Task {
         }
     }
 
+    public LocalDateTime getFrom() {
+        return from;
+    }
+
+    public LocalDateTime getTo() {
+        return to;
+    }
+
+    @Override
+    public Task withIsDone(boolean isDone) {
+        return new Events(description, isDone, from, to);
+    }
+
     @Override
     public TaskType getTaskType() {
         return TaskType.EVENT;
@@ -85,36 +104,30 @@ public class Events extends Task {
         boolean isHideTime = from.toLocalTime().equals(LocalTime.MIDNIGHT)
                 && to.toLocalTime().equals(LocalTime.MIDNIGHT);
 
-        DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern(OUTPUT_DATE_PATTERN);
-        DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern(OUTPUT_TIME_PATTERN);
-        DateTimeFormatter dateTimeFormatter = DateTimeFormatter.ofPattern(OUTPUT_DATETIME_PATTERN);
-
         String dateRange = "";
 
         if (isFallOnSameDate && isHideTime) {
-            dateRange = "on: " + from.format(dateFormatter);
+            dateRange = "on: " + from.format(OUTPUT_DATE_FORMATTER);
         } else if (isFallOnSameDate) {
             // But show time
-            dateRange = "from: " + from.format(dateTimeFormatter) + " to: " + to.format(timeFormatter);
+            dateRange = "from: " + from.format(OUTPUT_DATETIME_FORMATTER) + " to: " + to.format(OUTPUT_TIME_FORMATTER);
         } else if (isHideTime) {
-            dateRange = "from: " + from.format(dateFormatter) + " " +
-                    "to: " + to.format(dateFormatter);
+            dateRange = "from: " + from.format(OUTPUT_DATE_FORMATTER) + " " +
+                    "to: " + to.format(OUTPUT_DATE_FORMATTER);
         } else {
-            dateRange = "from: " + from.format(dateTimeFormatter) + " " +
-                    "to: " + to.format(dateTimeFormatter);
+            dateRange = "from: " + from.format(OUTPUT_DATETIME_FORMATTER) + " " +
+                    "to: " + to.format(OUTPUT_DATETIME_FORMATTER);
         }
 
         return "[" + (isDone ? "X" : " ") + "] " + description + " (" + dateRange + ")";
     }
 
     private LocalDateTime convertToDateTime(String dt) {
-        DateTimeFormatter patt = DateTimeFormatter.ofPattern(INPUT_DATETIME_PATTERN);
-
         if (dt.length() == INPUT_DATE_PATTERN.length()) {
             dt += " " + LocalTime.MIDNIGHT;
         }
         try {
-            LocalDateTime datetime = LocalDateTime.parse(dt, patt);
+            LocalDateTime datetime = LocalDateTime.parse(dt, INPUT_DATETIME_FORMATTER);
             return datetime;
         } catch (DateTimeParseException e) {
             throw new IllegalArgumentException("Invalid date-time format, use yyyy-MM-dd hh:mm", e);
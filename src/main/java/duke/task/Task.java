@@ -9,6 +9,9 @@ import duke.command.TaskType;
 public abstract class Task {
     public String description;
     protected boolean isDone;
+    // The line printed for this task, built on first use and cleared whenever the
+    // task changes
+    private String printLine;
 
     public Task(String description) {
         this.description = description;
@@ -24,10 +27,23 @@ public abstract class Task {
         return this.description;
     }
 
+    public boolean getIsDone() {
+        return this.isDone;
+    }
+
     public void setIsDone(boolean isDone) {
         this.isDone = isDone;
+        this.printLine = null;
     }
 
+    /**
+     * Returns a copy of this task with the given status, leaving this task as it
+     * is, for lists that share their tasks with readers on other threads.
+     *
+     * @param isDone The status of the copy.
+     */
+    public abstract Task withIsDone(boolean isDone);
+
     public abstract TaskType getTaskType();
 
     public abstract String getType();
@@ -36,7 +52,10 @@ public abstract class Task {
 
     public abstract String getPrintStatus();
 
-    public void print() {
-        System.out.println("[" + getType() + "]" + getPrintStatus());
+    public String getPrintLine() {
+        if (printLine == null) {
+            printLine = "[" + getType() + "]" + getPrintStatus();
+        }
+        return printLine;
     }
 }
@@ -13,6 +13,11 @@ public class ToDos extends Task {
         super(description, isDone);
     }
 
+    @Override
+    public Task withIsDone(boolean isDone) {
+        return new ToDos(description, isDone);
+    }
+
     @Override
     public TaskType getTaskType() {
         return TaskType.TODO;
@@ -0,0 +1,254 @@
+package duke.tasklist;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import duke.task.Deadlines;
+import duke.task.Events;
+import duke.task.Task;
+import duke.task.ToDos;
+
+/**
+ * Task store that keeps each field in its own primitive column instead of one
+ * object graph per task:
+ * <pre>
+ * types         byte per task: TODO, DEADLINE or EVENT
+ * done          one bit per task
+ * starts, ends  deadline epoch day, or event from/to epoch second
+ * descriptions  every description back to back in one char arena, located by
+ *               offset and length
+ * ids           the task ids, in increasing order
+ * </pre>
+ * {@link #get(int)} builds a short-lived task from the columns, so changes to it
+ * must be written back with {@link #set(int, Task)}. Space left in the arena by
+ * removed tasks is reclaimed once it outgrows the live descriptions.
+ */
+public class ColumnarTaskStore extends TaskStore {
+    private static final byte TODO = 0;
+    private static final byte DEADLINE = 1;
+    private static final byte EVENT = 2;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private byte[] types = new byte[INITIAL_CAPACITY];
+    private final BitSet done = new BitSet();
+    private long[] starts = new long[INITIAL_CAPACITY];
+    private long[] ends = new long[INITIAL_CAPACITY];
+    private int[] offsets = new int[INITIAL_CAPACITY];
+    private int[] lengths = new int[INITIAL_CAPACITY];
+    private int[] ids = new int[INITIAL_CAPACITY];
+    private char[] arena = new char[INITIAL_CAPACITY * 16];
+    private int arenaSize = 0;
+    private int liveChars = 0;
+    private int size = 0;
+    private int nextId = 0;
+
+    public ColumnarTaskStore() {
+    }
+
+    public ColumnarTaskStore(List<Task> list) {
+        for (Task task : list) {
+            append(task);
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Task get(int index) {
+        checkIndex(index);
+        String description = new String(arena, offsets[index], lengths[index]);
+        boolean isDone = done.get(index);
+        switch (types[index]) {
+            case DEADLINE:
+                return new Deadlines(description, isDone, LocalDate.ofEpochDay(starts[index]));
+            case EVENT:
+                return new Events(description, isDone, toDateTime(starts[index]), toDateTime(ends[index]));
+            default:
+                return new ToDos(description, isDone);
+        }
+    }
+
+    @Override
+    public Task set(int index, Task task) {
+        Task previous = get(index);
+        write(index, task);
+        return previous;
+    }
+
+    @Override
+    protected void append(Task task) {
+        if (size == types.length) {
+            grow();
+        }
+        ids[size] = nextId++;
+        lengths[size] = 0;
+        size++;
+        write(size - 1, task);
+        modCount++;
+    }
+
+    @Override
+    public Task remove(int index) {
+        Task removed = get(index);
+        liveChars -= lengths[index];
+        int tail = size - index - 1;
+        System.arraycopy(types, index + 1, types, index, tail);
+        System.arraycopy(starts, index + 1, starts, index, tail);
+        System.arraycopy(ends, index + 1, ends, index, tail);
+        System.arraycopy(offsets, index + 1, offsets, index, tail);
+        System.arraycopy(lengths, index + 1, lengths, index, tail);
+        System.arraycopy(ids, index + 1, ids, index, tail);
+        for (int i = index; i < size - 1; i++) {
+            done.set(i, done.get(i + 1));
+        }
+        done.clear(size - 1);
+        size--;
+        modCount++;
+        return removed;
+    }
+
+    /**
+     * Closes up the gaps in one pass over the columns, rather than shifting the
+     * tail once per removed task.
+     */
+    @Override
+    public List<Task> removeAll(int[] indices) {
+        checkIncreasing(indices);
+        List<Task> removed = new ArrayList<>(indices.length);
+        for (int index : indices) {
+            removed.add(get(index));
+        }
+        int next = 0; // The next of the indices to drop
+        int live = indices.length == 0 ? size : indices[0];
+        for (int i = live; i < size; i++) {
+            if (next < indices.length && indices[next] == i) {
+                liveChars -= lengths[i];
+                next++;
+                continue;
+            }
+            types[live] = types[i];
+            starts[live] = starts[i];
+            ends[live] = ends[i];
+            offsets[live] = offsets[i];
+            lengths[live] = lengths[i];
+            ids[live] = ids[i];
+            done.set(live, done.get(i));
+            live++;
+        }
+        done.clear(live, size);
+        size = live;
+        modCount++;
+        return removed;
+    }
+
+    @Override
+    public int idAt(int index) {
+        checkIndex(index);
+        return ids[index];
+    }
+
+    @Override
+    public int indexOfId(int id) {
+        int index = Arrays.binarySearch(ids, 0, size, id);
+        return index >= 0 ? index : -1;
+    }
+
+    @Override
+    public int nextId() {
+        return nextId;
+    }
+
+    private void write(int index, Task task) {
+        done.set(index, task.getIsDone());
+        switch (task.getTaskType()) {
+            case DEADLINE:
+                types[index] = DEADLINE;
+                starts[index] = ((Deadlines) task).getDeadline().toEpochDay();
+                break;
+            case EVENT:
+                Events event = (Events) task;
+                types[index] = EVENT;
+                starts[index] = event.getFrom().toEpochSecond(ZoneOffset.UTC);
+                ends[index] = event.getTo().toEpochSecond(ZoneOffset.UTC);
+                break;
+            default:
+                types[index] = TODO;
+                break;
+        }
+
+        String description = task.getDescription();
+        if (isStored(index, description)) {
+            return;
+        }
+        liveChars -= lengths[index];
+        lengths[index] = 0; // So that compacting does not keep the old description
+        if (arenaSize + description.length() > arena.length) {
+            compactArena(description.length());
+        }
+        description.getChars(0, description.length(), arena, arenaSize);
+        offsets[index] = arenaSize;
+        lengths[index] = description.length();
+        arenaSize += description.length();
+        liveChars += description.length();
+    }
+
+    private boolean isStored(int index, String description) {
+        if (lengths[index] != description.length()) {
+            return false;
+        }
+        for (int i = 0; i < lengths[index]; i++) {
+            if (arena[offsets[index] + i] != description.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Makes room for the given number of chars, dropping descriptions that are no
+     * longer referenced if they take up at least half the arena.
+     */
+    private void compactArena(int needed) {
+        int capacity = arena.length;
+        if (liveChars + needed > capacity / 2) {
+            capacity = Math.max(capacity * 2, liveChars + needed);
+        }
+        char[] compacted = new char[capacity];
+        int position = 0;
+        for (int i = 0; i < size; i++) {
+            System.arraycopy(arena, offsets[i], compacted, position, lengths[i]);
+            offsets[i] = position;
+            position += lengths[i];
+        }
+        arena = compacted;
+        arenaSize = position;
+    }
+
+    private void grow() {
+        int capacity = types.length * 2;
+        types = Arrays.copyOf(types, capacity);
+        starts = Arrays.copyOf(starts, capacity);
+        ends = Arrays.copyOf(ends, capacity);
+        offsets = Arrays.copyOf(offsets, capacity);
+        lengths = Arrays.copyOf(lengths, capacity);
+        ids = Arrays.copyOf(ids, capacity);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+        }
+    }
+
+    private static LocalDateTime toDateTime(long epochSecond) {
+        return LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,106 @@
+package duke.tasklist;
+
+import java.util.List;
+
+import duke.task.Task;
+
+/**
+ * A task list that can be shared between threads.
+ * Readers work on a {@link TaskSnapshot}, an immutable version of the list, so
+ * listing and searching never block and never see a change half made, however
+ * long they take. Writers are serialized on a lock and publish each change as a
+ * new snapshot, which copies only the chunk of tasks it touches. Tasks are never
+ * changed once in the list: marking a task replaces it with a marked copy.
+ * Searches use a trigram index of the version they search, built once that
+ * version has been searched often enough to pay for it, since the indexes
+ * {@link TaskList} keeps up to date as it changes are not safe to share.
+ */
+public class ConcurrentTaskList {
+    private final Object writeLock = new Object();
+    private volatile TaskSnapshot snapshot;
+
+    public ConcurrentTaskList() {
+        this.snapshot = TaskSnapshot.EMPTY;
+    }
+
+    /**
+     * Constructs a task list holding the given tasks, which must not be changed
+     * afterwards.
+     *
+     * @param list The tasks to start with.
+     */
+    public ConcurrentTaskList(List<Task> list) {
+        this.snapshot = TaskSnapshot.of(list);
+    }
+
+    public int getListSize() {
+        return snapshot.size();
+    }
+
+    /**
+     * Returns the current version of the list, which later changes leave as it is.
+     */
+    public TaskSnapshot getList() {
+        return snapshot;
+    }
+
+    /**
+     * Finds the tasks whose description contains, or equals, the keyword,
+     * ignoring case, in the current version of the list.
+     *
+     * @param keyword        The keyword as typed after the command.
+     * @param isExactSearch  A flag indicating whether the whole description must
+     *                       match.
+     * @param skipSlashCheck A flag indicating whether to keep any part of the
+     *                       keyword after a '/'.
+     * @return The matching tasks with their positions, in list order.
+     */
+    public List<IndexedTask> searchList(String keyword, boolean isExactSearch, boolean skipSlashCheck) {
+        TaskSnapshot current = snapshot;
+        keyword = TaskList.normalize(keyword, skipSlashCheck);
+        if (!isExactSearch && SearchIndex.canSearch(keyword)) {
+            SearchIndex index = current.searchIndex();
+            if (index != null) {
+                return index.search(keyword);
+            }
+        }
+        return TaskList.scan(current, keyword, isExactSearch);
+    }
+
+    /**
+     * Adds a task to the end of the list. The task must not be changed afterwards.
+     *
+     * @param task The task to add.
+     */
+    public void addTask(Task task) {
+        synchronized (writeLock) {
+            snapshot = snapshot.withAdded(task);
+        }
+    }
+
+    public Task deleteTask(int index) {
+        synchronized (writeLock) {
+            TaskSnapshot current = snapshot;
+            Task existing = current.get(index);
+            snapshot = current.withRemoved(index);
+            return existing;
+        }
+    }
+
+    /**
+     * Replaces the task at the given position with a copy of it with the given
+     * status.
+     *
+     * @param index  The 0-based position of the task.
+     * @param isDone The new status.
+     * @return The copy now in the list.
+     */
+    public Task markTask(int index, boolean isDone) {
+        synchronized (writeLock) {
+            TaskSnapshot current = snapshot;
+            Task task = current.get(index).withIsDone(isDone);
+            snapshot = current.withSet(index, task);
+            return task;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package duke.tasklist;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import duke.task.Deadlines;
+import duke.task.Events;
+import duke.task.Task;
+
+/**
+ * Index of deadlines and events by date, so that date queries take time in
+ * proportion to the number of matches rather than the size of the list.
+ * A deadline is indexed as the single day it is due, and an event as every day
+ * from the date it starts to the date it ends.
+ */
+class DateIndex {
+    private final TaskStore store;
+    private final IntervalTree deadlines = new IntervalTree();
+    private final IntervalTree events = new IntervalTree();
+
+    DateIndex(TaskStore store) {
+        this.store = store;
+        rebuild();
+    }
+
+    void add(Task task, int id) {
+        switch (task.getTaskType()) {
+            case DEADLINE:
+                long day = ((Deadlines) task).getDeadline().toEpochDay();
+                deadlines.add(day, day, id);
+                break;
+            case EVENT:
+                Events event = (Events) task;
+                events.add(event.getFrom().toLocalDate().toEpochDay(), event.getTo().toLocalDate().toEpochDay(), id);
+                break;
+            default:
+                break;
+        }
+    }
+
+    void remove(Task task, int id) {
+        switch (task.getTaskType()) {
+            case DEADLINE:
+                deadlines.remove(((Deadlines) task).getDeadline().toEpochDay(), id);
+                break;
+            case EVENT:
+                events.remove(((Events) task).getFrom().toLocalDate().toEpochDay(), id);
+                break;
+            default:
+                break;
+        }
+    }
+
+    void rebuild() {
+        deadlines.clear();
+        events.clear();
+        for (int i = 0; i < store.size(); i++) {
+            add(store.get(i), store.idAt(i));
+        }
+    }
+
+    /**
+     * Returns the ids of the deadlines due on or before the given date.
+     */
+    List<Integer> dueBy(LocalDate date) {
+        List<Integer> ids = new ArrayList<>();
+        deadlines.query(Long.MIN_VALUE, date.toEpochDay(), ids);
+        return ids;
+    }
+
+    /**
+     * Returns the ids of the deadlines due and the events taking place between
+     * the two dates, both inclusive.
+     */
+    List<Integer> between(LocalDate from, LocalDate to) {
+        List<Integer> ids = new ArrayList<>();
+        deadlines.query(from.toEpochDay(), to.toEpochDay(), ids);
+        events.query(from.toEpochDay(), to.toEpochDay(), ids);
+        return ids;
+    }
+}
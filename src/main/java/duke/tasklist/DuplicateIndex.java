@@ -0,0 +1,90 @@
+package duke.tasklist;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import duke.command.TaskType;
+import duke.task.Task;
+
+/**
+ * Hash index from (task type, lowercased description) to the ids of the tasks
+ * that share it, so that duplicate checks on add do not scan the list.
+ */
+class DuplicateIndex {
+    private final TaskStore store;
+    private final Map<TaskType, Map<String, List<Integer>>> ids = new EnumMap<>(TaskType.class);
+
+    DuplicateIndex(TaskStore store) {
+        this.store = store;
+        rebuild();
+    }
+
+    void add(Task task, int id) {
+        List<Integer> matches = ids.computeIfAbsent(task.getTaskType(), k -> new HashMap<>())
+                .computeIfAbsent(task.getDescription().toLowerCase(), k -> new ArrayList<>(1));
+        if (matches.isEmpty() || matches.get(matches.size() - 1) < id) {
+            matches.add(id);
+        } else {
+            // A task put back by an undo keeps its older id
+            int position = Collections.binarySearch(matches, id);
+            if (position < 0) {
+                matches.add(-position - 1, id);
+            }
+        }
+    }
+
+    void remove(Task task, int id) {
+        Map<String, List<Integer>> byDescription = ids.get(task.getTaskType());
+        if (byDescription == null) {
+            return;
+        }
+        String key = task.getDescription().toLowerCase();
+        List<Integer> matches = byDescription.get(key);
+        if (matches != null) {
+            matches.remove(Integer.valueOf(id));
+            if (matches.isEmpty()) {
+                byDescription.remove(key);
+            }
+        }
+    }
+
+    void rebuild() {
+        ids.clear();
+        for (int i = 0; i < store.size(); i++) {
+            add(store.get(i), store.idAt(i));
+        }
+    }
+
+    /**
+     * Returns true if a task of the same type with the same description, ignoring
+     * case, is indexed.
+     */
+    boolean contains(Task task) {
+        Map<String, List<Integer>> byDescription = ids.get(task.getTaskType());
+        return byDescription != null && byDescription.containsKey(task.getDescription().toLowerCase());
+    }
+
+    /**
+     * Returns the tasks of the given type whose lowercased description equals the
+     * normalized description with their positions, in list order.
+     */
+    List<IndexedTask> get(TaskType taskType, String normalizedDescription) {
+        List<IndexedTask> result = new ArrayList<>();
+        Map<String, List<Integer>> byDescription = ids.get(taskType);
+        if (byDescription == null) {
+            return result;
+        }
+        List<Integer> matches = byDescription.get(normalizedDescription);
+        if (matches != null) {
+            for (int id : matches) {
+                int index = store.indexOfId(id);
+                result.add(new IndexedTask(index, store.get(index)));
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,28 @@
+package duke.tasklist;
+
+import duke.task.Task;
+
+/**
+ * A task found in the list together with its position, so that results can be
+ * printed with their numbers without searching the list again.
+ */
+public class IndexedTask {
+    private final int index;
+    private final Task task;
+
+    public IndexedTask(int index, Task task) {
+        this.index = index;
+        this.task = task;
+    }
+
+    /**
+     * Returns the 0-based position of the task in the list.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    public Task getTask() {
+        return task;
+    }
+}
@@ -0,0 +1,172 @@
+package duke.tasklist;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Set of closed intervals of epoch days, each tagged with a task id, that can
+ * list every interval overlapping a query range in time proportional to the
+ * number of matches.
+ * It is a treap ordered by (start, id) where each node also records the largest
+ * end in its subtree, so that subtrees ending before the query can be skipped.
+ */
+class IntervalTree {
+    private final Random random = new Random();
+    private Node root;
+    private int size = 0;
+
+    private static class Node {
+        final long start;
+        final long end;
+        final int id;
+        final int priority;
+        long maxEnd;
+        Node left;
+        Node right;
+
+        Node(long start, long end, int id, int priority) {
+            this.start = start;
+            this.end = end;
+            this.id = id;
+            this.priority = priority;
+            this.maxEnd = end;
+        }
+
+        int compareTo(long otherStart, int otherId) {
+            int result = Long.compare(start, otherStart);
+            return result != 0 ? result : Integer.compare(id, otherId);
+        }
+
+        void update() {
+            maxEnd = end;
+            if (left != null && left.maxEnd > maxEnd) {
+                maxEnd = left.maxEnd;
+            }
+            if (right != null && right.maxEnd > maxEnd) {
+                maxEnd = right.maxEnd;
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        root = null;
+        size = 0;
+    }
+
+    /**
+     * Adds the interval [start, end] for the given id. An end before the start is
+     * treated as the start.
+     */
+    void add(long start, long end, int id) {
+        root = insert(root, new Node(start, Math.max(start, end), id, random.nextInt()));
+        size++;
+    }
+
+    /**
+     * Removes the interval added with the given start and id, if present.
+     */
+    void remove(long start, int id) {
+        root = delete(root, start, id);
+    }
+
+    /**
+     * Adds the ids of every interval overlapping [from, to] to the result, in
+     * order of interval start.
+     */
+    void query(long from, long to, List<Integer> result) {
+        query(root, from, to, result);
+    }
+
+    private static void query(Node node, long from, long to, List<Integer> result) {
+        if (node == null || node.maxEnd < from) {
+            return;
+        }
+        query(node.left, from, to, result);
+        if (node.start > to) {
+            return; // Everything to the right starts later still
+        }
+        if (node.end >= from) {
+            result.add(node.id);
+        }
+        query(node.right, from, to, result);
+    }
+
+    private static Node insert(Node node, Node added) {
+        if (node == null) {
+            return added;
+        }
+        if (node.compareTo(added.start, added.id) > 0) {
+            node.left = insert(node.left, added);
+            if (node.left.priority > node.priority) {
+                node = rotateRight(node);
+            }
+        } else {
+            node.right = insert(node.right, added);
+            if (node.right.priority > node.priority) {
+                node = rotateLeft(node);
+            }
+        }
+        node.update();
+        return node;
+    }
+
+    private Node delete(Node node, long start, int id) {
+        if (node == null) {
+            return null;
+        }
+        int comparison = node.compareTo(start, id);
+        if (comparison > 0) {
+            node.left = delete(node.left, start, id);
+        } else if (comparison < 0) {
+            node.right = delete(node.right, start, id);
+        } else {
+            size--;
+            return merge(node.left, node.right);
+        }
+        node.update();
+        return node;
+    }
+
+    /**
+     * Joins two treaps where every key on the left is smaller than every key on
+     * the right.
+     */
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            left.update();
+            return left;
+        }
+        right.left = merge(left, right.left);
+        right.update();
+        return right;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        node.update();
+        pivot.update();
+        return pivot;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        node.update();
+        pivot.update();
+        return pivot;
+    }
+}
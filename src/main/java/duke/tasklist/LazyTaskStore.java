@@ -0,0 +1,206 @@
+package duke.tasklist;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.IntFunction;
+
+import duke.command.TaskType;
+import duke.task.Task;
+
+/**
+ * Task store that reads the tasks it starts with only when they are used.
+ * The starting tasks are fetched by id through a loader, such as one decoding a
+ * line of the saved file, and the most recently used are kept in a cache of
+ * bounded size. Tasks written back with {@link #set(int, Task)} and appended
+ * tasks are kept in memory. Positions map straight to ids until the first
+ * removal, after which a Fenwick tree over the ids, as in
+ * {@link TombstoneTaskStore}, finds the id at each position in O(log n).
+ */
+public class LazyTaskStore extends TaskStore {
+    public static final int DEFAULT_CACHE_SIZE = 4096;
+
+    private final IntFunction<Task> loader;
+    // Ids below this are fetched through the loader
+    private final int loadedCount;
+    private final Map<Integer, Task> cache;
+    private final Map<Integer, Task> changed = new HashMap<>();
+    private final List<Task> appended = new ArrayList<>();
+    private final int[] typeCounts = new int[TaskType.values().length];
+    /** Fenwick tree over the ids, 1-based, or null until the first removal. */
+    private int[] tree = null;
+    private int size;
+
+    /**
+     * Constructs a store of the given number of tasks, none of which are read yet.
+     *
+     * @param count      The number of tasks to start with.
+     * @param loader     Returns a new copy of the starting task with the given id.
+     * @param typeCounts The number of starting tasks of each type, by
+     *                   {@link TaskType} ordinal.
+     * @param cacheSize  The number of starting tasks to keep once read.
+     */
+    public LazyTaskStore(int count, IntFunction<Task> loader, int[] typeCounts, int cacheSize) {
+        if (count < 0 || cacheSize < 1) {
+            throw new IllegalArgumentException("Invalid count or cache size: " + count + ", " + cacheSize);
+        }
+        this.loader = loader;
+        this.loadedCount = count;
+        this.size = count;
+        System.arraycopy(typeCounts, 0, this.typeCounts, 0, typeCounts.length);
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Task> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Task get(int index) {
+        return taskOf(idAt(index));
+    }
+
+    @Override
+    public Task set(int index, Task task) {
+        Objects.requireNonNull(task);
+        int id = idAt(index);
+        Task previous = taskOf(id);
+        if (id >= loadedCount) {
+            appended.set(id - loadedCount, task);
+        } else {
+            changed.put(id, task);
+            cache.remove(id);
+        }
+        return previous;
+    }
+
+    @Override
+    protected void append(Task task) {
+        Objects.requireNonNull(task);
+        appended.add(task);
+        int k = idCount();
+        if (tree != null) {
+            if (k >= tree.length) {
+                tree = Arrays.copyOf(tree, tree.length * 2);
+            }
+            // The new node covers (k - lowbit(k), k]: the ids before it in that range plus itself
+            tree[k] = prefixCount(k - 1) - prefixCount(k - (k & -k)) + 1;
+        }
+        typeCounts[task.getTaskType().ordinal()]++;
+        size++;
+        modCount++;
+    }
+
+    @Override
+    public Task remove(int index) {
+        int id = idAt(index);
+        Task removed = taskOf(id);
+        if (tree == null) {
+            buildTree();
+        }
+        for (int k = id + 1; k <= idCount(); k += k & -k) {
+            tree[k]--;
+        }
+        if (id >= loadedCount) {
+            appended.set(id - loadedCount, null);
+        } else {
+            changed.remove(id);
+            cache.remove(id);
+        }
+        typeCounts[removed.getTaskType().ordinal()]--;
+        size--;
+        modCount++;
+        return removed;
+    }
+
+    @Override
+    public int idAt(int index) {
+        Objects.checkIndex(index, size);
+        if (tree == null) {
+            return index;
+        }
+        // Descend the tree to the first id with index + 1 live tasks up to it
+        int position = 0;
+        int remaining = index + 1;
+        for (int step = Integer.highestOneBit(idCount()); step > 0; step >>= 1) {
+            int next = position + step;
+            if (next <= idCount() && tree[next] < remaining) {
+                position = next;
+                remaining -= tree[next];
+            }
+        }
+        return position;
+    }
+
+    @Override
+    public int indexOfId(int id) {
+        if (id < 0 || id >= idCount()) {
+            return -1;
+        }
+        if (tree == null) {
+            return id;
+        }
+        int before = prefixCount(id);
+        return prefixCount(id + 1) > before ? before : -1;
+    }
+
+    @Override
+    public int nextId() {
+        return idCount();
+    }
+
+    /**
+     * Uses the counts kept as tasks come and go, so that no task is read.
+     */
+    @Override
+    public void countTypes(int[] counts) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += typeCounts[i];
+        }
+    }
+
+    private int idCount() {
+        return loadedCount + appended.size();
+    }
+
+    private Task taskOf(int id) {
+        if (id >= loadedCount) {
+            return appended.get(id - loadedCount);
+        }
+        Task task = changed.get(id);
+        if (task == null) {
+            task = cache.get(id);
+        }
+        if (task == null) {
+            task = loader.apply(id);
+            cache.put(id, task);
+        }
+        return task;
+    }
+
+    private void buildTree() {
+        int count = idCount();
+        tree = new int[Math.max(16, count + 1)];
+        for (int k = 1; k <= count; k++) {
+            tree[k] = k & -k; // Every id is live
+        }
+    }
+
+    private int prefixCount(int id) {
+        int count = 0;
+        for (int k = id; k > 0; k -= k & -k) {
+            count += tree[k];
+        }
+        return count;
+    }
+}
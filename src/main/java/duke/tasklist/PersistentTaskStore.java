@@ -0,0 +1,442 @@
+package duke.tasklist;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+import duke.command.TaskType;
+import duke.task.Task;
+
+/**
+ * Task store whose every change leaves the previous contents intact as a
+ * {@link Version}, so that any earlier version can be put back in O(1).
+ * The tasks sit in the leaves of a tree that is never changed in place: a change
+ * copies only the nodes on the path to the task, at most {@link #WIDTH} entries
+ * per level, and shares the rest with the version before. Each branch keeps the
+ * running number of tasks under its children, so the task at a position is found
+ * in O(log n), and since ids increase in list order the task with a given id is
+ * found the same way. Neighbouring nodes that fit in one are merged as tasks are
+ * removed, so nodes stay at least half full on average.
+ */
+public class PersistentTaskStore extends TaskStore {
+    static final int WIDTH = 32;
+
+    private static final Leaf EMPTY = new Leaf(new Task[0], new int[0]);
+
+    private Version version;
+    private int nextId = 0;
+
+    /**
+     * The tasks held by a {@link PersistentTaskStore} at one point in time.
+     */
+    public static final class Version {
+        private final Node root;
+        private final int[] typeCounts;
+
+        private Version(Node root, int[] typeCounts) {
+            this.root = root;
+            this.typeCounts = typeCounts;
+        }
+
+        public int size() {
+            return root.size;
+        }
+    }
+
+    private abstract static class Node {
+        final int size;
+        final int lastId;
+
+        Node(int size, int lastId) {
+            this.size = size;
+            this.lastId = lastId;
+        }
+
+        abstract int width();
+    }
+
+    private static final class Leaf extends Node {
+        final Task[] tasks;
+        final int[] ids;
+
+        Leaf(Task[] tasks, int[] ids) {
+            super(tasks.length, ids.length == 0 ? -1 : ids[ids.length - 1]);
+            this.tasks = tasks;
+            this.ids = ids;
+        }
+
+        @Override
+        int width() {
+            return tasks.length;
+        }
+    }
+
+    private static final class Branch extends Node {
+        final Node[] children;
+        /** ends[c] is the number of tasks under children 0 to c. */
+        final int[] ends;
+
+        Branch(Node[] children) {
+            super(total(children), children[children.length - 1].lastId);
+            this.children = children;
+            this.ends = new int[children.length];
+            int end = 0;
+            for (int c = 0; c < children.length; c++) {
+                end += children[c].size;
+                ends[c] = end;
+            }
+        }
+
+        @Override
+        int width() {
+            return children.length;
+        }
+
+        int childAt(int index) {
+            int c = Arrays.binarySearch(ends, index);
+            return c >= 0 ? c + 1 : -c - 1;
+        }
+
+        int start(int c) {
+            return c == 0 ? 0 : ends[c - 1];
+        }
+
+        private static int total(Node[] children) {
+            int size = 0;
+            for (Node child : children) {
+                size += child.size;
+            }
+            return size;
+        }
+    }
+
+    public PersistentTaskStore() {
+        version = new Version(EMPTY, new int[TaskType.values().length]);
+    }
+
+    /**
+     * Constructs a store holding the given tasks, building the tree bottom up.
+     *
+     * @param list The tasks to start with.
+     */
+    public PersistentTaskStore(List<Task> list) {
+        int[] typeCounts = new int[TaskType.values().length];
+        Node[] level = new Node[(list.size() + WIDTH - 1) / WIDTH];
+        Iterator<Task> tasks = list.iterator();
+        for (int l = 0; l < level.length; l++) {
+            int width = Math.min(WIDTH, list.size() - l * WIDTH);
+            Task[] leafTasks = new Task[width];
+            int[] ids = new int[width];
+            for (int i = 0; i < width; i++) {
+                leafTasks[i] = Objects.requireNonNull(tasks.next());
+                ids[i] = nextId++;
+                typeCounts[leafTasks[i].getTaskType().ordinal()]++;
+            }
+            level[l] = new Leaf(leafTasks, ids);
+        }
+        while (level.length > 1) {
+            Node[] parents = new Node[(level.length + WIDTH - 1) / WIDTH];
+            for (int p = 0; p < parents.length; p++) {
+                parents[p] = new Branch(Arrays.copyOfRange(level, p * WIDTH, Math.min(level.length, (p + 1) * WIDTH)));
+            }
+            level = parents;
+        }
+        version = new Version(level.length == 0 ? EMPTY : level[0], typeCounts);
+    }
+
+    /**
+     * Returns the current contents, which later changes leave as they are.
+     */
+    public Version getVersion() {
+        return version;
+    }
+
+    /**
+     * Puts back contents returned by {@link #getVersion()}. Ids handed out since
+     * are not reused.
+     *
+     * @param version The contents to put back.
+     */
+    public void restore(Version version) {
+        this.version = Objects.requireNonNull(version);
+        modCount++;
+    }
+
+    @Override
+    public int size() {
+        return version.root.size;
+    }
+
+    @Override
+    public Task get(int index) {
+        Objects.checkIndex(index, size());
+        Node node = version.root;
+        while (node instanceof Branch) {
+            Branch branch = (Branch) node;
+            int c = branch.childAt(index);
+            index -= branch.start(c);
+            node = branch.children[c];
+        }
+        return ((Leaf) node).tasks[index];
+    }
+
+    @Override
+    public Task set(int index, Task task) {
+        Objects.requireNonNull(task);
+        Objects.checkIndex(index, size());
+        Task previous = get(index);
+        int[] typeCounts = version.typeCounts.clone();
+        typeCounts[previous.getTaskType().ordinal()]--;
+        typeCounts[task.getTaskType().ordinal()]++;
+        version = new Version(set(version.root, index, task), typeCounts);
+        return previous;
+    }
+
+    @Override
+    protected void append(Task task) {
+        Objects.requireNonNull(task);
+        Node[] appended = append(version.root, task, nextId++);
+        Node root = appended.length == 1 ? appended[0] : new Branch(appended);
+        int[] typeCounts = version.typeCounts.clone();
+        typeCounts[task.getTaskType().ordinal()]++;
+        version = new Version(root, typeCounts);
+        modCount++;
+    }
+
+    @Override
+    public Task remove(int index) {
+        Task removed = get(index);
+        Node root = remove(version.root, index);
+        while (root instanceof Branch && root.width() == 1) {
+            root = ((Branch) root).children[0];
+        }
+        if (root.size == 0) {
+            root = EMPTY;
+        }
+        int[] typeCounts = version.typeCounts.clone();
+        typeCounts[removed.getTaskType().ordinal()]--;
+        version = new Version(root, typeCounts);
+        modCount++;
+        return removed;
+    }
+
+    @Override
+    public int idAt(int index) {
+        Objects.checkIndex(index, size());
+        Node node = version.root;
+        while (node instanceof Branch) {
+            Branch branch = (Branch) node;
+            int c = branch.childAt(index);
+            index -= branch.start(c);
+            node = branch.children[c];
+        }
+        return ((Leaf) node).ids[index];
+    }
+
+    @Override
+    public int indexOfId(int id) {
+        Node node = version.root;
+        if (node.size == 0 || id > node.lastId) {
+            return -1;
+        }
+        int index = 0;
+        while (node instanceof Branch) {
+            Branch branch = (Branch) node;
+            // The first child whose last id is not below the id
+            int low = 0;
+            int high = branch.children.length - 1;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (branch.children[middle].lastId < id) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            index += branch.start(low);
+            node = branch.children[low];
+        }
+        int position = Arrays.binarySearch(((Leaf) node).ids, id);
+        return position >= 0 ? index + position : -1;
+    }
+
+    @Override
+    public int nextId() {
+        return nextId;
+    }
+
+    /**
+     * Uses the counts kept with each version, so that no task is read.
+     */
+    @Override
+    public void countTypes(int[] counts) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += version.typeCounts[i];
+        }
+    }
+
+    /**
+     * Walks the leaves in turn rather than looking up each position from the
+     * root.
+     */
+    @Override
+    public Iterator<Task> iterator() {
+        return new Iterator<Task>() {
+            private final int expectedModCount = modCount;
+            private final Node root = version.root;
+            private Leaf leaf = EMPTY;
+            private int offset = 0;
+            private int index = 0;
+
+            @Override
+            public boolean hasNext() {
+                return index < root.size;
+            }
+
+            @Override
+            public Task next() {
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+                if (index >= root.size) {
+                    throw new NoSuchElementException();
+                }
+                if (offset == leaf.tasks.length) {
+                    leaf = leafAt(root, index);
+                    offset = 0;
+                }
+                index++;
+                return leaf.tasks[offset++];
+            }
+        };
+    }
+
+    /**
+     * Returns the leaf that starts at the given position.
+     */
+    private static Leaf leafAt(Node node, int index) {
+        while (node instanceof Branch) {
+            Branch branch = (Branch) node;
+            int c = branch.childAt(index);
+            index -= branch.start(c);
+            node = branch.children[c];
+        }
+        assert index == 0 : "position is not the start of a leaf";
+        return (Leaf) node;
+    }
+
+    private static Node set(Node node, int index, Task task) {
+        if (node instanceof Leaf) {
+            Leaf leaf = (Leaf) node;
+            Task[] tasks = leaf.tasks.clone();
+            tasks[index] = task;
+            return new Leaf(tasks, leaf.ids);
+        }
+        Branch branch = (Branch) node;
+        int c = branch.childAt(index);
+        Node[] children = branch.children.clone();
+        children[c] = set(children[c], index - branch.start(c), task);
+        return new Branch(children);
+    }
+
+    /**
+     * Appends the task to the subtree, returning the new subtree, or the subtree
+     * and a new sibling of the same height if it was full.
+     */
+    private static Node[] append(Node node, Task task, int id) {
+        if (node instanceof Leaf) {
+            Leaf leaf = (Leaf) node;
+            if (leaf.width() == WIDTH) {
+                return new Node[] { leaf, new Leaf(new Task[] { task }, new int[] { id }) };
+            }
+            Task[] tasks = Arrays.copyOf(leaf.tasks, leaf.width() + 1);
+            int[] ids = Arrays.copyOf(leaf.ids, leaf.width() + 1);
+            tasks[leaf.width()] = task;
+            ids[leaf.width()] = id;
+            return new Node[] { new Leaf(tasks, ids) };
+        }
+        Branch branch = (Branch) node;
+        int last = branch.width() - 1;
+        Node[] appended = append(branch.children[last], task, id);
+        Node[] children = branch.children.clone();
+        children[last] = appended[0];
+        if (appended.length == 1) {
+            return new Node[] { new Branch(children) };
+        }
+        if (branch.width() < WIDTH) {
+            children = Arrays.copyOf(children, branch.width() + 1);
+            children[last + 1] = appended[1];
+            return new Node[] { new Branch(children) };
+        }
+        return new Node[] { new Branch(children), new Branch(new Node[] { appended[1] }) };
+    }
+
+    /**
+     * Removes the task at the position from the subtree, dropping children left
+     * empty and merging a changed child with a neighbour when the two fit in one.
+     */
+    private static Node remove(Node node, int index) {
+        if (node instanceof Leaf) {
+            Leaf leaf = (Leaf) node;
+            Task[] tasks = new Task[leaf.width() - 1];
+            int[] ids = new int[leaf.width() - 1];
+            System.arraycopy(leaf.tasks, 0, tasks, 0, index);
+            System.arraycopy(leaf.tasks, index + 1, tasks, index, tasks.length - index);
+            System.arraycopy(leaf.ids, 0, ids, 0, index);
+            System.arraycopy(leaf.ids, index + 1, ids, index, ids.length - index);
+            return new Leaf(tasks, ids);
+        }
+        Branch branch = (Branch) node;
+        int c = branch.childAt(index);
+        Node child = remove(branch.children[c], index - branch.start(c));
+        Node[] children = branch.children;
+        if (child.size == 0) {
+            Node[] remaining = new Node[children.length - 1];
+            System.arraycopy(children, 0, remaining, 0, c);
+            System.arraycopy(children, c + 1, remaining, c, remaining.length - c);
+            return remaining.length == 0 ? EMPTY : new Branch(remaining);
+        }
+        children = children.clone();
+        children[c] = child;
+        if (c > 0 && children[c - 1].width() + child.width() <= WIDTH) {
+            return new Branch(merged(children, c - 1));
+        }
+        if (c + 1 < children.length && child.width() + children[c + 1].width() <= WIDTH) {
+            return new Branch(merged(children, c));
+        }
+        return new Branch(children);
+    }
+
+    /**
+     * Returns the children with the one at the position and the one after it
+     * joined into one node.
+     */
+    private static Node[] merged(Node[] children, int c) {
+        Node left = children[c];
+        Node right = children[c + 1];
+        Node joined;
+        if (left instanceof Leaf) {
+            Leaf a = (Leaf) left;
+            Leaf b = (Leaf) right;
+            Task[] tasks = Arrays.copyOf(a.tasks, a.width() + b.width());
+            int[] ids = Arrays.copyOf(a.ids, a.width() + b.width());
+            System.arraycopy(b.tasks, 0, tasks, a.width(), b.width());
+            System.arraycopy(b.ids, 0, ids, a.width(), b.width());
+            joined = new Leaf(tasks, ids);
+        } else {
+            Branch a = (Branch) left;
+            Branch b = (Branch) right;
+            Node[] grandchildren = Arrays.copyOf(a.children, a.width() + b.width());
+            System.arraycopy(b.children, 0, grandchildren, a.width(), b.width());
+            joined = new Branch(grandchildren);
+        }
+        Node[] result = new Node[children.length - 1];
+        System.arraycopy(children, 0, result, 0, c);
+        result[c] = joined;
+        System.arraycopy(children, c + 2, result, c + 1, result.length - c - 1);
+        return result;
+    }
+}
@@ -0,0 +1,330 @@
+package duke.tasklist;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import duke.task.Task;
+
+/**
+ * Inverted trigram index over lowercased task descriptions.
+ * Every keyword of at least {@link #GRAM_LENGTH} characters that is a substring
+ * of a description shares all of its trigrams with it, so intersecting the
+ * posting lists of the keyword's trigrams gives a small candidate set that is then
+ * verified with the same contains check the linear search uses.
+ * Posting lists hold task ids in increasing order, which is also list order, so
+ * results need no sorting. Removed tasks are left in the posting lists and
+ * skipped when searching until there are enough of them to rebuild.
+ * The same posting lists rank descriptions by how many trigrams they share with
+ * a keyword, which tolerates typos that a contains check does not.
+ */
+class SearchIndex {
+    static final int GRAM_LENGTH = 3;
+    private static final int MIN_REBUILD_THRESHOLD = 1024;
+
+    private final TaskStore store;
+    private final Map<String, Postings> postings = new HashMap<>();
+    private int removedCount = 0;
+    // The number of distinct trigrams in each description, by id
+    private int[] gramCounts = new int[16];
+    // The last similarity search to have scored each id, by id
+    private int[] seen = new int[0];
+    private int searchCount = 0;
+
+    /**
+     * A growable array of task ids in increasing order.
+     */
+    private static class Postings {
+        private int[] ids = new int[2];
+        private int size = 0;
+
+        /**
+         * Adds the id in order, returning false if it is already there. Ids are
+         * almost always added in increasing order, but a task put back by an undo
+         * keeps its older id.
+         */
+        boolean add(int id) {
+            int position = size;
+            if (size > 0 && ids[size - 1] >= id) {
+                position = Arrays.binarySearch(ids, 0, size, id);
+                if (position >= 0) {
+                    return false; // Trigram repeated in the same description, or a removed task put back
+                }
+                position = -position - 1;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, position, ids, position + 1, size - position);
+            ids[position] = id;
+            size++;
+            return true;
+        }
+
+        boolean contains(int id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+        /**
+         * Returns the position of the first id not below the given one, searching
+         * from the given position in steps that double, so that a run of
+         * increasing ids is found in time proportional to the distance moved.
+         */
+        int seek(int id, int from) {
+            int step = 1;
+            int low = from;
+            int high = from;
+            while (high < size && ids[high] < id) {
+                low = high + 1;
+                high += step;
+                step *= 2;
+            }
+            int position = Arrays.binarySearch(ids, low, Math.min(high, size), id);
+            return position >= 0 ? position : -position - 1;
+        }
+
+        boolean isAt(int id, int position) {
+            return position < size && ids[position] == id;
+        }
+    }
+
+    SearchIndex(TaskStore store) {
+        this.store = store;
+        rebuild();
+    }
+
+    void add(Task task, int id) {
+        String description = task.getDescription().toLowerCase();
+        int count = 0;
+        for (int i = 0; i + GRAM_LENGTH <= description.length(); i++) {
+            if (postings.computeIfAbsent(description.substring(i, i + GRAM_LENGTH), k -> new Postings()).add(id)) {
+                count++;
+            }
+        }
+        if (id >= gramCounts.length) {
+            gramCounts = Arrays.copyOf(gramCounts, Math.max(gramCounts.length * 2, id + 1));
+        }
+        if (count > 0) {
+            // Otherwise the task was put back while still listed, and its count is still there
+            gramCounts[id] = count;
+        }
+    }
+
+    /**
+     * Notes that tasks have been removed from the store, rebuilding the index once
+     * removed tasks outnumber the ones left.
+     *
+     * @param count The number of tasks removed.
+     */
+    void remove(int count) {
+        removedCount += count;
+        if (removedCount > Math.max(MIN_REBUILD_THRESHOLD, store.size())) {
+            rebuild();
+        }
+    }
+
+    void rebuild() {
+        postings.clear();
+        removedCount = 0;
+        for (int i = 0; i < store.size(); i++) {
+            add(store.get(i), store.idAt(i));
+        }
+    }
+
+    /**
+     * Returns true if the keyword is long enough to be answered by the index.
+     */
+    static boolean canSearch(String keyword) {
+        return keyword.length() >= GRAM_LENGTH;
+    }
+
+    /**
+     * Finds the tasks whose lowercased description contains the keyword, in list
+     * order.
+     *
+     * @param keyword A lowercased keyword accepted by {@link #canSearch(String)}.
+     * @return The matching tasks with their positions.
+     */
+    List<IndexedTask> search(String keyword) {
+        assert canSearch(keyword) : "keyword is too short for the trigram index";
+        List<Postings> lists = new ArrayList<>();
+        Postings smallest = null;
+        for (int i = 0; i + GRAM_LENGTH <= keyword.length(); i++) {
+            Postings ids = postings.get(keyword.substring(i, i + GRAM_LENGTH));
+            if (ids == null) {
+                return new ArrayList<>();
+            }
+            lists.add(ids);
+            if (smallest == null || ids.size < smallest.size) {
+                smallest = ids;
+            }
+        }
+
+        List<IndexedTask> result = new ArrayList<>();
+        for (int i = 0; i < smallest.size; i++) {
+            int id = smallest.ids[i];
+            if (!isInAll(id, lists)) {
+                continue;
+            }
+            int index = store.indexOfId(id);
+            if (index < 0) {
+                continue;
+            }
+            Task task = store.get(index);
+            if (task.getDescription().toLowerCase().contains(keyword)) {
+                result.add(new IndexedTask(index, task));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Finds the tasks whose lowercased descriptions are most like the keyword, by
+     * the Dice coefficient of their distinct trigrams: twice the number shared
+     * over the number in both. A task must share at least a third of the
+     * keyword's trigrams to be considered at all.
+     * The posting lists of the keyword's trigrams are walked shortest first, and
+     * each task is scored the first time it turns up by probing the lists not yet
+     * walked. A task first met in a later list can share fewer trigrams, so the
+     * walk stops once such a task could no longer beat the best found so far,
+     * usually well before the longest lists, of the most common trigrams, are
+     * reached. Tasks whose descriptions are too long to beat the best are skipped
+     * without probing. The best are kept in a heap of the given size rather than
+     * sorting every candidate.
+     *
+     * @param keyword A lowercased keyword accepted by {@link #canSearch(String)}.
+     * @param limit   The most tasks to return.
+     * @return The closest tasks with their positions, closest first, ties in list
+     *         order.
+     */
+    List<IndexedTask> searchSimilar(String keyword, int limit) {
+        assert canSearch(keyword) : "keyword is too short for the trigram index";
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= keyword.length(); i++) {
+            grams.add(keyword.substring(i, i + GRAM_LENGTH));
+        }
+        List<Postings> lists = new ArrayList<>();
+        for (String gram : grams) {
+            Postings ids = postings.get(gram);
+            if (ids != null) {
+                lists.add(ids);
+            }
+        }
+        lists.sort(Comparator.comparingInt(ids -> ids.size));
+        int gramCount = grams.size();
+        int minShared = (gramCount + 2) / 3;
+        if (limit <= 0 || lists.size() < minShared) {
+            return new ArrayList<>();
+        }
+        if (seen.length < store.nextId()) {
+            seen = new int[Math.max(store.nextId(), seen.length * 2)];
+        }
+        if (++searchCount == 0) {
+            Arrays.fill(seen, 0); // Wrapped around, so old marks could be mistaken for this search's
+            searchCount = 1;
+        }
+
+        // The head is the worst of the best found so far
+        PriorityQueue<Match> best = new PriorityQueue<>(limit + 1, Match.CLOSEST_FIRST.reversed());
+        int[] cursors = new int[lists.size()];
+        for (int l = 0; l < lists.size(); l++) {
+            // A task first met here is in none of the lists before
+            int mostShared = lists.size() - l;
+            if (mostShared < minShared || (best.size() == limit && !canReach(mostShared, gramCount,
+                    mostShared, best.peek()))) {
+                break;
+            }
+            Arrays.fill(cursors, 0);
+            Postings ids = lists.get(l);
+            for (int i = 0; i < ids.size; i++) {
+                int id = ids.ids[i];
+                if (seen[id] == searchCount) {
+                    continue;
+                }
+                seen[id] = searchCount;
+                int descriptionGrams = gramCounts[id];
+                if (best.size() == limit && !canReach(mostShared, gramCount, descriptionGrams, best.peek())) {
+                    continue;
+                }
+                int shared = 1;
+                for (int j = l + 1; j < lists.size(); j++) {
+                    cursors[j] = lists.get(j).seek(id, cursors[j]);
+                    if (lists.get(j).isAt(id, cursors[j])) {
+                        shared++;
+                    }
+                    int reachable = shared + lists.size() - 1 - j;
+                    if (reachable < minShared || (best.size() == limit
+                            && !canReach(reachable, gramCount, descriptionGrams, best.peek()))) {
+                        shared = -1;
+                        break;
+                    }
+                }
+                if (shared < minShared) {
+                    continue;
+                }
+                Match match = new Match(id, 2.0 * shared / (gramCount + descriptionGrams));
+                if (best.size() == limit && Match.CLOSEST_FIRST.compare(match, best.peek()) >= 0) {
+                    continue;
+                }
+                match.index = store.indexOfId(id);
+                if (match.index < 0) {
+                    continue; // Removed
+                }
+                best.add(match);
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+        }
+
+        List<IndexedTask> result = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            Match match = best.poll();
+            result.add(new IndexedTask(match.index, store.get(match.index)));
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    /**
+     * Returns true if a task sharing the given number of trigrams could score at
+     * least as well as the worst match kept. A description has at least as many
+     * trigrams as it shares.
+     */
+    private static boolean canReach(int shared, int gramCount, int descriptionGrams, Match worst) {
+        return 2.0 * shared / (gramCount + Math.max(shared, descriptionGrams)) >= worst.score;
+    }
+
+    /**
+     * A task found by {@link #searchSimilar(String, int)}.
+     */
+    private static class Match {
+        static final Comparator<Match> CLOSEST_FIRST = Comparator.<Match>comparingDouble(match -> -match.score)
+                .thenComparingInt(match -> match.id);
+
+        final int id;
+        final double score;
+        int index;
+
+        Match(int id, double score) {
+            this.id = id;
+            this.score = score;
+        }
+    }
+
+    private static boolean isInAll(int id, List<Postings> lists) {
+        for (Postings ids : lists) {
+            if (!ids.contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,84 @@
+package duke.tasklist;
+
+import duke.task.Task;
+
+/**
+ * One step of a change to a task list, to be applied in turn with the steps
+ * around it: a task appended, put back at a position, deleted from a position,
+ * or marked or unmarked.
+ */
+public class TaskChange {
+    /**
+     * The kind of step.
+     */
+    public enum Kind {
+        ADD,
+        INSERT,
+        DELETE,
+        MARK,
+    }
+
+    private final Kind kind;
+    private final int index;
+    private final Task task;
+    private final int id;
+    // For MARK, the status of the task before the step
+    private final boolean wasDone;
+
+    private TaskChange(Kind kind, int index, Task task, int id, boolean wasDone) {
+        this.kind = kind;
+        this.index = index;
+        this.task = task;
+        this.id = id;
+        this.wasDone = wasDone;
+    }
+
+    static TaskChange add(int index, Task task, int id) {
+        return new TaskChange(Kind.ADD, index, task, id, false);
+    }
+
+    static TaskChange delete(int index, Task task, int id) {
+        return new TaskChange(Kind.DELETE, index, task, id, false);
+    }
+
+    static TaskChange mark(int index, Task task, int id, boolean wasDone) {
+        return new TaskChange(Kind.MARK, index, task, id, wasDone);
+    }
+
+    /**
+     * Returns the step that takes the list back to how it was before this one.
+     */
+    TaskChange inverse() {
+        switch (kind) {
+            case ADD:
+            case INSERT:
+                return delete(index, task, id);
+            case DELETE:
+                return new TaskChange(Kind.INSERT, index, task, id, false);
+            default:
+                return mark(index, task.withIsDone(wasDone), id, task.getIsDone());
+        }
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * Returns the 0-based position of the task at the time of the step.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Returns the task added, put back or deleted, or the task as marked.
+     */
+    public Task getTask() {
+        return task;
+    }
+
+    int getId() {
+        return id;
+    }
+}
@@ -1,84 +1,500 @@
 package duke.tasklist;
 
+import java.time.LocalDate;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
 
+import duke.command.TaskType;
 import duke.task.Task;
-import duke.ui.UI;
 
 public class TaskList {
 
-    private List<Task> list;
+    private static final int MAX_UNDO = 100;
+
+    private TaskStore list;
+    // Each index is built the first time it is needed, so a lazily loaded list is
+    // not read in full at startup
+    private SearchIndex searchIndex;
+    private DuplicateIndex duplicateIndex;
+    private DateIndex dateIndex;
+    private final int[] typeCounts = new int[TaskType.values().length];
+    // Changes that can be undone, latest first, and changes undone that can be made again
+    private final Deque<Edit> undoEdits = new ArrayDeque<>();
+    private final Deque<Edit> redoEdits = new ArrayDeque<>();
+
+    /**
+     * A change kept for undo: the versions of the list either side of it and its
+     * steps, which say how to bring the indexes and the saved tasks in line.
+     */
+    private static class Edit {
+        final PersistentTaskStore.Version before;
+        final PersistentTaskStore.Version after;
+        final List<TaskChange> changes;
+
+        Edit(PersistentTaskStore.Version before, PersistentTaskStore.Version after, List<TaskChange> changes) {
+            this.before = before;
+            this.after = after;
+            this.changes = changes;
+        }
+    }
 
     public TaskList() {
-        this.list = new ArrayList<>();
+        this(new TombstoneTaskStore());
     }
 
+    /**
+     * Constructs a task list holding the given tasks. A {@link TaskStore}, such as
+     * a {@link ColumnarTaskStore}, is used as is; any other list is copied into an
+     * {@link TombstoneTaskStore}. Changes can be undone only with a
+     * {@link PersistentTaskStore}.
+     *
+     * @param list The tasks to start with.
+     */
     public TaskList(List<Task> list) {
-        this.list = list;
+        setList(list);
     }
 
     public int getListSize() {
         return list.size();
     }
 
+    /**
+     * Returns a read-only view of the tasks. Changes must go through this task
+     * list, so that its indexes stay in step.
+     */
     public List<Task> getList() {
-        return list;
+        return Collections.unmodifiableList(list);
     }
 
     public void setList(List<Task> list) {
-        this.list = list;
+        this.list = list instanceof TaskStore ? (TaskStore) list : new TombstoneTaskStore(list);
+        this.searchIndex = null;
+        this.duplicateIndex = null;
+        this.dateIndex = null;
+        undoEdits.clear();
+        redoEdits.clear();
+        Arrays.fill(typeCounts, 0);
+        this.list.countTypes(typeCounts);
     }
 
-    public List<Task> searchList(String keyword, boolean isExactSearch, boolean skipSlashCheck) {
-        List<Task> resultList = new ArrayList<>();
-        if (!list.isEmpty()) {
+    /**
+     * Returns the number of tasks of the given type in the list.
+     */
+    public int getCount(TaskType taskType) {
+        return typeCounts[taskType.ordinal()];
+    }
 
-            if (!skipSlashCheck) {
-                keyword = keyword.indexOf("/") != -1 ? keyword.split("/")[0] : keyword;
-            }
-            keyword = keyword.toLowerCase().trim();
+    /**
+     * Finds the tasks whose description contains, or equals, the keyword,
+     * ignoring case.
+     *
+     * @param keyword        The keyword as typed after the command.
+     * @param isExactSearch  A flag indicating whether the whole description must
+     *                       match.
+     * @param skipSlashCheck A flag indicating whether to keep any part of the
+     *                       keyword after a '/'.
+     * @return The matching tasks with their positions, in list order.
+     */
+    public List<IndexedTask> searchList(String keyword, boolean isExactSearch, boolean skipSlashCheck) {
+        if (list.isEmpty()) {
+            return new ArrayList<>();
+        }
+        keyword = normalize(keyword, skipSlashCheck);
+        if (!isExactSearch && SearchIndex.canSearch(keyword)) {
+            return searchIndex().search(keyword);
+        }
+        return scan(list, keyword, isExactSearch);
+    }
 
-            for (Task task : list) {
-                String taskDescription = task.getDescription().toLowerCase();
+    /**
+     * Finds the tasks whose descriptions are most like the keyword, ignoring case,
+     * so that a keyword with a typo still finds the task it was meant for. A
+     * keyword too short to be compared this way finds the first tasks that
+     * contain it instead.
+     *
+     * @param keyword The keyword as typed after the command.
+     * @param limit   The most tasks to return.
+     * @return The closest tasks with their positions, closest first.
+     */
+    public List<IndexedTask> searchSimilar(String keyword, int limit) {
+        keyword = normalize(keyword, false);
+        if (list.isEmpty() || keyword.isEmpty()) {
+            return new ArrayList<>();
+        }
+        if (SearchIndex.canSearch(keyword)) {
+            return searchIndex().searchSimilar(keyword, limit);
+        }
+        List<IndexedTask> matches = scan(list, keyword, false);
+        return matches.size() > limit ? new ArrayList<>(matches.subList(0, limit)) : matches;
+    }
 
-                if (isExactSearch && taskDescription.equals(keyword)) {
-                    resultList.add(task);
-                } else if (!isExactSearch && taskDescription.contains(keyword)) {
-                    resultList.add(task);
-                }
+    /**
+     * Finds the tasks whose lowercased description contains, or equals, the
+     * normalized keyword by checking every task in turn.
+     */
+    static List<IndexedTask> scan(List<Task> list, String keyword, boolean isExactSearch) {
+        List<IndexedTask> resultList = new ArrayList<>();
+        int index = 0;
+        for (Task task : list) {
+            String taskDescription = task.getDescription().toLowerCase();
+
+            if (isExactSearch && taskDescription.equals(keyword)) {
+                resultList.add(new IndexedTask(index, task));
+            } else if (!isExactSearch && taskDescription.contains(keyword)) {
+                resultList.add(new IndexedTask(index, task));
             }
+            index++;
         }
         return resultList;
     }
 
+    /**
+     * Finds the tasks of the given type whose description matches, ignoring case,
+     * the description of a task about to be added.
+     *
+     * @param taskDescription The description as typed after the command.
+     * @param taskType        The type of the task about to be added.
+     * @return The existing tasks that would duplicate it with their positions, in
+     *         list order.
+     */
+    public List<IndexedTask> findDuplicates(String taskDescription, TaskType taskType) {
+        return duplicateIndex().get(taskType, normalize(taskDescription, taskType == TaskType.TODO));
+    }
+
+    /**
+     * Finds the deadlines due on or before the given date.
+     *
+     * @param date The last due date to include.
+     * @return The matching tasks with their positions, in list order.
+     */
+    public List<IndexedTask> findDueBy(LocalDate date) {
+        return toIndexedTasks(dateIndex().dueBy(date));
+    }
+
+    /**
+     * Finds the deadlines due and the events taking place between two dates.
+     *
+     * @param from The first date to include.
+     * @param to   The last date to include.
+     * @return The matching tasks with their positions, in list order.
+     */
+    public List<IndexedTask> findBetween(LocalDate from, LocalDate to) {
+        return toIndexedTasks(dateIndex().between(from, to));
+    }
+
+    private SearchIndex searchIndex() {
+        if (searchIndex == null) {
+            searchIndex = new SearchIndex(list);
+        }
+        return searchIndex;
+    }
+
+    private DuplicateIndex duplicateIndex() {
+        if (duplicateIndex == null) {
+            duplicateIndex = new DuplicateIndex(list);
+        }
+        return duplicateIndex;
+    }
+
+    private DateIndex dateIndex() {
+        if (dateIndex == null) {
+            dateIndex = new DateIndex(list);
+        }
+        return dateIndex;
+    }
+
+    private List<IndexedTask> toIndexedTasks(List<Integer> ids) {
+        ids.sort(null); // Ids are in list order
+        List<IndexedTask> result = new ArrayList<>(ids.size());
+        for (int id : ids) {
+            int index = list.indexOfId(id);
+            result.add(new IndexedTask(index, list.get(index)));
+        }
+        return result;
+    }
+
+    static String normalize(String keyword, boolean skipSlashCheck) {
+        if (!skipSlashCheck) {
+            int slash = keyword.indexOf("/");
+            keyword = slash != -1 ? keyword.substring(0, slash) : keyword;
+        }
+        return keyword.toLowerCase().trim();
+    }
+
     public void addTask(Task task) {
+        PersistentTaskStore.Version before = currentVersion();
+        int id = list.nextId();
         list.add(task);
-        UI.printSeparator();
-        System.out.println("Got it. I've added this task:");
-        task.print();
-        System.out.println("Now you have " + list.size() + " task(s) in the list");
-        UI.printSeparator();
+        indexAdded(task, id);
+        record(before, List.of(TaskChange.add(list.size() - 1, task, id)));
     }
 
-    public void deleteTask(int index) {
-        Task existing = list.get(index);
-        list.remove(index);
+    /**
+     * Appends the tasks as one change, taking each from the iterator only as it
+     * is added, so that they need not all be read before the first is added.
+     * A task of the same type and description, ignoring case, as one already in
+     * the list or added before it is skipped, as the add commands would warn.
+     * Tasks added before the iterator fails are kept.
+     *
+     * @param tasks The tasks to add.
+     * @return The number of tasks skipped as duplicates.
+     */
+    public int addNewTasks(Iterator<? extends Task> tasks) {
+        PersistentTaskStore.Version before = currentVersion();
+        List<TaskChange> changes = before == null ? null : new ArrayList<>();
+        DuplicateIndex duplicates = duplicateIndex();
+        int count = 0;
+        int duplicateCount = 0;
+        try {
+            while (tasks.hasNext()) {
+                Task task = tasks.next();
+                if (duplicates.contains(task)) {
+                    duplicateCount++;
+                    continue;
+                }
+                int id = list.nextId();
+                list.add(task);
+                indexAdded(task, id);
+                if (changes != null) {
+                    changes.add(TaskChange.add(list.size() - 1, task, id));
+                }
+                count++;
+            }
+        } finally {
+            if (count > 0) {
+                record(before, changes);
+            }
+        }
+        return duplicateCount;
+    }
 
-        UI.printSeparator();
-        System.out.println("Noted. I've removed this task:");
-        existing.print();
-        System.out.println("Now you have " + list.size() + " task(s) in the list");
-        UI.printSeparator();
+    public Task deleteTask(int index) {
+        PersistentTaskStore.Version before = currentVersion();
+        int id = list.idAt(index);
+        Task existing = list.remove(index);
+        indexRemoved(existing, id);
+        record(before, List.of(TaskChange.delete(index, existing, id)));
+        return existing;
     }
 
-    public void markTask(int index, boolean isDone) {
-        Task task = list.get(index);
-        task.setIsDone(isDone);
+    /**
+     * Deletes the tasks at the given positions together, updating each index once
+     * for the whole change.
+     *
+     * @param indices The positions of the tasks, in increasing order.
+     * @return The deleted tasks, in list order.
+     */
+    public List<Task> deleteTasks(int[] indices) {
+        PersistentTaskStore.Version before = currentVersion();
+        int[] ids = new int[indices.length];
+        for (int i = 0; i < indices.length; i++) {
+            ids[i] = list.idAt(indices[i]);
+        }
+        List<Task> removed = list.removeAll(indices);
+        if (searchIndex != null) {
+            searchIndex.remove(removed.size());
+        }
+        for (int i = 0; i < removed.size(); i++) {
+            Task existing = removed.get(i);
+            if (duplicateIndex != null) {
+                duplicateIndex.remove(existing, ids[i]);
+            }
+            if (dateIndex != null) {
+                dateIndex.remove(existing, ids[i]);
+            }
+            typeCounts[existing.getTaskType().ordinal()]--;
+        }
+        if (before != null) {
+            // Highest first, so that each position still holds as the steps are applied in turn
+            List<TaskChange> changes = new ArrayList<>(indices.length);
+            for (int i = indices.length - 1; i >= 0; i--) {
+                changes.add(TaskChange.delete(indices[i], removed.get(i), ids[i]));
+            }
+            record(before, changes);
+        }
+        return removed;
+    }
+
+    /**
+     * Marks or unmarks the tasks at the given positions.
+     *
+     * @param indices The positions of the tasks.
+     * @param isDone  The new status of the tasks.
+     * @return The changed tasks, in the order of the positions.
+     */
+    public List<Task> markTasks(int[] indices, boolean isDone) {
+        PersistentTaskStore.Version before = currentVersion();
+        List<Task> marked = new ArrayList<>(indices.length);
+        List<TaskChange> changes = new ArrayList<>(before == null ? 0 : indices.length);
+        for (int index : indices) {
+            marked.add(mark(index, isDone, before == null ? null : changes));
+        }
+        record(before, changes);
+        return marked;
+    }
+
+    /**
+     * Returns the positions of the tasks that are, or are not, done.
+     *
+     * @param isDone The status to look for.
+     * @return The positions, in increasing order.
+     */
+    public int[] findByStatus(boolean isDone) {
+        int[] found = new int[list.size()];
+        int count = 0;
+        int index = 0;
+        for (Task task : list) {
+            if (task.getIsDone() == isDone) {
+                found[count++] = index;
+            }
+            index++;
+        }
+        return Arrays.copyOf(found, count);
+    }
+
+    /**
+     * Marks or unmarks the task at the given position. The task is replaced with
+     * a changed copy rather than changed in place, so that earlier versions of
+     * the list, and anything else holding the task, keep it as it was.
+     *
+     * @param index  The position of the task.
+     * @param isDone The new status of the task.
+     * @return The changed task.
+     */
+    public Task markTask(int index, boolean isDone) {
+        PersistentTaskStore.Version before = currentVersion();
+        List<TaskChange> changes = new ArrayList<>(1);
+        Task task = mark(index, isDone, before == null ? null : changes);
+        record(before, changes);
+        return task;
+    }
+
+    private Task mark(int index, boolean isDone, List<TaskChange> changes) {
+        Task previous = list.get(index);
+        Task task = previous.withIsDone(isDone);
+        list.set(index, task);
+        if (changes != null) {
+            changes.add(TaskChange.mark(index, task, list.idAt(index), previous.getIsDone()));
+        }
+        return task;
+    }
+
+    /**
+     * Returns true if the list keeps its history, which it does when it holds its
+     * tasks in a {@link PersistentTaskStore}.
+     */
+    public boolean canUndo() {
+        return list instanceof PersistentTaskStore;
+    }
+
+    /**
+     * Takes the list back to how it was before the last change that has not been
+     * undone, one call to a changing method such as {@link #deleteTasks(int[])}
+     * at a time. Only the last {@value #MAX_UNDO} changes are kept.
+     *
+     * @return The steps that took the list back, in the order they were applied,
+     *         or null if there is nothing to undo.
+     */
+    public List<TaskChange> undo() {
+        if (undoEdits.isEmpty()) {
+            return null;
+        }
+        Edit edit = undoEdits.pop();
+        ((PersistentTaskStore) list).restore(edit.before);
+        List<TaskChange> applied = new ArrayList<>(edit.changes.size());
+        for (int i = edit.changes.size() - 1; i >= 0; i--) {
+            TaskChange inverse = edit.changes.get(i).inverse();
+            updateIndexes(inverse);
+            applied.add(inverse);
+        }
+        redoEdits.push(edit);
+        return applied;
+    }
+
+    /**
+     * Makes again the last change taken back by {@link #undo()}, as long as no
+     * other change has been made since.
+     *
+     * @return The steps of the change, in the order they were applied, or null if
+     *         there is nothing to redo.
+     */
+    public List<TaskChange> redo() {
+        if (redoEdits.isEmpty()) {
+            return null;
+        }
+        Edit edit = redoEdits.pop();
+        ((PersistentTaskStore) list).restore(edit.after);
+        for (TaskChange change : edit.changes) {
+            updateIndexes(change);
+        }
+        undoEdits.push(edit);
+        return edit.changes;
+    }
+
+    private PersistentTaskStore.Version currentVersion() {
+        return list instanceof PersistentTaskStore ? ((PersistentTaskStore) list).getVersion() : null;
+    }
+
+    /**
+     * Keeps a change for {@link #undo()}, dropping anything left to redo.
+     *
+     * @param before  The version before the change, or null if the list keeps
+     *                no history.
+     * @param changes The steps of the change.
+     */
+    private void record(PersistentTaskStore.Version before, List<TaskChange> changes) {
+        if (before == null) {
+            return;
+        }
+        undoEdits.push(new Edit(before, ((PersistentTaskStore) list).getVersion(), changes));
+        if (undoEdits.size() > MAX_UNDO) {
+            undoEdits.removeLast();
+        }
+        redoEdits.clear();
+    }
 
-        UI.printSeparator();
-        System.out.println("Got it. I've mark this task as " + (isDone ? "done" : "undone") + ":");
-        task.print();
-        UI.printSeparator();
+    private void updateIndexes(TaskChange change) {
+        switch (change.getKind()) {
+            case ADD:
+            case INSERT:
+                indexAdded(change.getTask(), change.getId());
+                break;
+            case DELETE:
+                indexRemoved(change.getTask(), change.getId());
+                break;
+            default:
+                break; // Nothing indexed depends on the status
+        }
+    }
+
+    private void indexAdded(Task task, int id) {
+        if (searchIndex != null) {
+            searchIndex.add(task, id);
+        }
+        if (duplicateIndex != null) {
+            duplicateIndex.add(task, id);
+        }
+        if (dateIndex != null) {
+            dateIndex.add(task, id);
+        }
+        typeCounts[task.getTaskType().ordinal()]++;
+    }
+
+    private void indexRemoved(Task task, int id) {
+        if (searchIndex != null) {
+            searchIndex.remove(1);
+        }
+        if (duplicateIndex != null) {
+            duplicateIndex.remove(task, id);
+        }
+        if (dateIndex != null) {
+            dateIndex.remove(task, id);
+        }
+        typeCounts[task.getTaskType().ordinal()]--;
     }
 }
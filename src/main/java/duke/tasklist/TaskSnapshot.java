@@ -0,0 +1,236 @@
+package duke.tasklist;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+import duke.task.Task;
+
+/**
+ * An immutable version of a {@link ConcurrentTaskList}.
+ * The tasks are kept in chunks of up to {@link #CHUNK_SIZE}, and a change copies
+ * only the chunk it touches and the array of chunks, sharing every other chunk
+ * with the version it was made from. Snapshots can therefore be read from any
+ * thread, for as long as needed, while newer versions are made.
+ * A version searched often enough gets a trigram index of its own, which is
+ * never changed once built and so is shared by every thread that searches it.
+ */
+public final class TaskSnapshot extends AbstractList<Task> implements RandomAccess {
+    static final int CHUNK_SIZE = 64;
+    // Building the index costs about as much as this many scans, so a version is
+    // scanned this many times first. A version searched that often has paid for
+    // its index, and one replaced sooner, as when changes and searches take
+    // turns, is searched no slower than by scanning.
+    static final int SEARCHES_BEFORE_INDEX = 32;
+    static final TaskSnapshot EMPTY = new TaskSnapshot(new Task[0][], new int[0], 0);
+
+    private final Task[][] chunks;
+    // ends[c] is the position just after the last task in chunks[c]
+    private final int[] ends;
+    private final long version;
+    // Searches that raced may both count as one, which only delays the index
+    private volatile int searchCount = 0;
+    private volatile SearchIndex searchIndex = null;
+
+    /**
+     * This version as a store for the search index: it never changes, so a
+     * task's id is its position.
+     */
+    private static final class Store extends TaskStore {
+        private final TaskSnapshot snapshot;
+
+        Store(TaskSnapshot snapshot) {
+            this.snapshot = snapshot;
+        }
+
+        @Override
+        public Task get(int index) {
+            return snapshot.get(index);
+        }
+
+        @Override
+        public int size() {
+            return snapshot.size();
+        }
+
+        @Override
+        public int idAt(int index) {
+            Objects.checkIndex(index, size());
+            return index;
+        }
+
+        @Override
+        public int indexOfId(int id) {
+            return id < size() ? id : -1;
+        }
+
+        @Override
+        public int nextId() {
+            return size();
+        }
+
+        @Override
+        protected void append(Task task) {
+            throw new UnsupportedOperationException("Snapshots cannot be changed");
+        }
+    }
+
+    private TaskSnapshot(Task[][] chunks, int[] ends, long version) {
+        this.chunks = chunks;
+        this.ends = ends;
+        this.version = version;
+    }
+
+    /**
+     * Returns a snapshot holding the given tasks, at version 0.
+     *
+     * @param list The tasks, which must not be changed afterwards.
+     */
+    static TaskSnapshot of(List<Task> list) {
+        Task[] tasks = list.toArray(new Task[0]);
+        int count = (tasks.length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        Task[][] chunks = new Task[count][];
+        int[] ends = new int[count];
+        for (int c = 0; c < count; c++) {
+            ends[c] = Math.min(tasks.length, (c + 1) * CHUNK_SIZE);
+            chunks[c] = Arrays.copyOfRange(tasks, c * CHUNK_SIZE, ends[c]);
+        }
+        return new TaskSnapshot(chunks, ends, 0);
+    }
+
+    /**
+     * Returns the number of changes made to the list before this snapshot.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public int size() {
+        return ends.length == 0 ? 0 : ends[ends.length - 1];
+    }
+
+    @Override
+    public Task get(int index) {
+        Objects.checkIndex(index, size());
+        int c = chunkOf(index);
+        return chunks[c][index - start(c)];
+    }
+
+    /**
+     * Returns the trigram index of this version, or null for the first
+     * {@link #SEARCHES_BEFORE_INDEX} times it is asked for. Two threads may both
+     * build it; either copy serves.
+     */
+    SearchIndex searchIndex() {
+        SearchIndex index = searchIndex;
+        if (index == null && ++searchCount > SEARCHES_BEFORE_INDEX) {
+            index = new SearchIndex(new Store(this));
+            searchIndex = index;
+        }
+        return index;
+    }
+
+    TaskSnapshot withAdded(Task task) {
+        int n = chunks.length;
+        Task[][] newChunks;
+        int[] newEnds;
+        if (n > 0 && chunks[n - 1].length < CHUNK_SIZE) {
+            Task[] last = chunks[n - 1];
+            newChunks = chunks.clone();
+            newChunks[n - 1] = Arrays.copyOf(last, last.length + 1);
+            newChunks[n - 1][last.length] = task;
+            newEnds = ends.clone();
+            newEnds[n - 1]++;
+        } else {
+            newChunks = Arrays.copyOf(chunks, n + 1);
+            newChunks[n] = new Task[] { task };
+            newEnds = Arrays.copyOf(ends, n + 1);
+            newEnds[n] = size() + 1;
+        }
+        return new TaskSnapshot(newChunks, newEnds, version + 1);
+    }
+
+    TaskSnapshot withSet(int index, Task task) {
+        Objects.checkIndex(index, size());
+        int c = chunkOf(index);
+        Task[][] newChunks = chunks.clone();
+        newChunks[c] = chunks[c].clone();
+        newChunks[c][index - start(c)] = task;
+        return new TaskSnapshot(newChunks, ends, version + 1);
+    }
+
+    /**
+     * Returns the snapshot without the task at the given position. A chunk left
+     * small enough to share a chunk with a neighbour is merged into it, so that
+     * deletions cannot leave the list spread over many nearly empty chunks.
+     */
+    TaskSnapshot withRemoved(int index) {
+        Objects.checkIndex(index, size());
+        int n = chunks.length;
+        int c = chunkOf(index);
+        int offset = index - start(c);
+        Task[] chunk = chunks[c];
+        Task[] shrunk = new Task[chunk.length - 1];
+        System.arraycopy(chunk, 0, shrunk, 0, offset);
+        System.arraycopy(chunk, offset + 1, shrunk, offset, shrunk.length - offset);
+
+        // Replace chunks[first, first + count) with the replacement, if any
+        int first = c;
+        int count = 1;
+        Task[] replacement = shrunk;
+        if (shrunk.length == 0) {
+            replacement = null;
+        } else if (c + 1 < n && shrunk.length + chunks[c + 1].length <= CHUNK_SIZE) {
+            replacement = concat(shrunk, chunks[c + 1]);
+            count = 2;
+        } else if (c > 0 && chunks[c - 1].length + shrunk.length <= CHUNK_SIZE) {
+            replacement = concat(chunks[c - 1], shrunk);
+            first = c - 1;
+            count = 2;
+        }
+
+        int newCount = n - count + (replacement == null ? 0 : 1);
+        Task[][] newChunks = new Task[newCount][];
+        int[] newEnds = new int[newCount];
+        System.arraycopy(chunks, 0, newChunks, 0, first);
+        System.arraycopy(ends, 0, newEnds, 0, first);
+        int at = first;
+        if (replacement != null) {
+            newChunks[at] = replacement;
+            newEnds[at] = ends[first + count - 1] - 1;
+            at++;
+        }
+        for (int i = first + count; i < n; i++, at++) {
+            newChunks[at] = chunks[i];
+            newEnds[at] = ends[i] - 1;
+        }
+        return new TaskSnapshot(newChunks, newEnds, version + 1);
+    }
+
+    private int chunkOf(int index) {
+        int low = 0;
+        int high = ends.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (ends[mid] > index) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    private int start(int c) {
+        return c == 0 ? 0 : ends[c - 1];
+    }
+
+    private static Task[] concat(Task[] a, Task[] b) {
+        Task[] result = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, result, a.length, b.length);
+        return result;
+    }
+}
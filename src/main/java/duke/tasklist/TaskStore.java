@@ -0,0 +1,80 @@
+package duke.tasklist;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+import duke.command.TaskType;
+import duke.task.Task;
+
+/**
+ * A list of tasks that gives every task an id when it is added.
+ * Ids increase in list order and are never reused, so indexes can refer to a task
+ * by id and still find its current position after earlier tasks are removed.
+ * Tasks can only be appended; {@link #set(int, Object)} must be used to write
+ * back a changed task, since stores may hand out copies.
+ */
+public abstract class TaskStore extends AbstractList<Task> {
+    /**
+     * Returns the id of the task at the given position.
+     */
+    public abstract int idAt(int index);
+
+    /**
+     * Returns the position of the task with the given id, or -1 if it has been
+     * removed.
+     */
+    public abstract int indexOfId(int id);
+
+    /**
+     * Returns the id the next appended task will get.
+     */
+    public abstract int nextId();
+
+    /**
+     * Adds the number of tasks of each type to the counts, indexed by
+     * {@link TaskType} ordinal.
+     */
+    public void countTypes(int[] counts) {
+        for (Task task : this) {
+            counts[task.getTaskType().ordinal()]++;
+        }
+    }
+
+    /**
+     * Removes the tasks at the given positions as one change. The positions are
+     * those before any of the tasks is removed.
+     *
+     * @param indices The positions to remove, in increasing order.
+     * @return The removed tasks, in list order.
+     * @throws IllegalArgumentException If the positions are not in increasing
+     *                                  order.
+     */
+    public List<Task> removeAll(int[] indices) {
+        checkIncreasing(indices);
+        Task[] removed = new Task[indices.length];
+        // From the back, so the positions still to remove stay where they are
+        for (int i = indices.length - 1; i >= 0; i--) {
+            removed[i] = remove(indices[i]);
+        }
+        return Arrays.asList(removed);
+    }
+
+    static void checkIncreasing(int[] indices) {
+        for (int i = 1; i < indices.length; i++) {
+            if (indices[i] <= indices[i - 1]) {
+                throw new IllegalArgumentException("Positions out of order: " + indices[i - 1] + ", " + indices[i]);
+            }
+        }
+    }
+
+    @Override
+    public void add(int index, Task task) {
+        if (index != size()) {
+            throw new UnsupportedOperationException("Tasks can only be appended");
+        }
+        append(task);
+    }
+
+    protected abstract void append(Task task);
+}
@@ -0,0 +1,221 @@
+package duke.tasklist;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+import duke.task.Task;
+
+/**
+ * Task store where removing a task leaves a tombstone instead of shifting the
+ * tasks after it.
+ * Tasks sit in slots in the order they were appended, and a Fenwick tree over
+ * the slots counts the live tasks before each one, so finding the slot of the
+ * i-th task, removing it and appending all take O(log n). Slots are compacted
+ * once tombstones outnumber live tasks, which keeps removal amortized O(log n).
+ */
+public class TombstoneTaskStore extends TaskStore {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int MIN_COMPACT_THRESHOLD = 1024;
+
+    private Task[] slots;
+    private int[] slotIds;
+    /** Fenwick tree over the slots, 1-based: tree[k] counts the live slots in (k - lowbit(k), k]. */
+    private int[] tree;
+    private int slotCount = 0;
+    private int size = 0;
+    private int nextId = 0;
+
+    public TombstoneTaskStore() {
+        this(INITIAL_CAPACITY);
+    }
+
+    public TombstoneTaskStore(List<Task> list) {
+        this(Math.max(INITIAL_CAPACITY, list.size()));
+        for (Task task : list) {
+            append(task);
+        }
+    }
+
+    private TombstoneTaskStore(int capacity) {
+        slots = new Task[capacity];
+        slotIds = new int[capacity];
+        tree = new int[capacity + 1];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Task get(int index) {
+        return slots[slotOf(index)];
+    }
+
+    @Override
+    public Task set(int index, Task task) {
+        Objects.requireNonNull(task);
+        int slot = slotOf(index);
+        Task previous = slots[slot];
+        slots[slot] = task;
+        return previous;
+    }
+
+    @Override
+    protected void append(Task task) {
+        Objects.requireNonNull(task);
+        if (slotCount == slots.length) {
+            if (slotCount - size > size) {
+                compact();
+            } else {
+                grow();
+            }
+        }
+        slots[slotCount] = task;
+        slotIds[slotCount] = nextId++;
+        slotCount++;
+        // The new node covers (k - lowbit(k), k]: the slots before it in that range plus itself
+        int k = slotCount;
+        tree[k] = prefixCount(k - 1) - prefixCount(k - (k & -k)) + 1;
+        size++;
+        modCount++;
+    }
+
+    @Override
+    public Task remove(int index) {
+        int slot = slotOf(index);
+        Task removed = slots[slot];
+        slots[slot] = null;
+        for (int k = slot + 1; k <= slotCount; k += k & -k) {
+            tree[k]--;
+        }
+        size--;
+        modCount++;
+        if (slotCount - size > Math.max(MIN_COMPACT_THRESHOLD, size)) {
+            compact();
+        }
+        return removed;
+    }
+
+    @Override
+    public int idAt(int index) {
+        return slotIds[slotOf(index)];
+    }
+
+    @Override
+    public int indexOfId(int id) {
+        int slot = Arrays.binarySearch(slotIds, 0, slotCount, id);
+        if (slot < 0 || slots[slot] == null) {
+            return -1;
+        }
+        return prefixCount(slot);
+    }
+
+    @Override
+    public int nextId() {
+        return nextId;
+    }
+
+    /**
+     * Walks the slots directly, skipping tombstones, rather than looking up each
+     * position in turn.
+     */
+    @Override
+    public Iterator<Task> iterator() {
+        return new Iterator<Task>() {
+            private final int expectedModCount = modCount;
+            private int slot = nextLive(0);
+
+            @Override
+            public boolean hasNext() {
+                return slot < slotCount;
+            }
+
+            @Override
+            public Task next() {
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+                if (slot >= slotCount) {
+                    throw new NoSuchElementException();
+                }
+                Task task = slots[slot];
+                slot = nextLive(slot + 1);
+                return task;
+            }
+        };
+    }
+
+    private int nextLive(int slot) {
+        while (slot < slotCount && slots[slot] == null) {
+            slot++;
+        }
+        return slot;
+    }
+
+    /**
+     * Returns the number of live tasks in the first {@code slot} slots.
+     */
+    private int prefixCount(int slot) {
+        int count = 0;
+        for (int k = slot; k > 0; k -= k & -k) {
+            count += tree[k];
+        }
+        return count;
+    }
+
+    /**
+     * Returns the slot holding the task at the given position, by descending the
+     * Fenwick tree to the first slot with index + 1 live tasks up to it.
+     */
+    private int slotOf(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+        }
+        int position = 0;
+        int remaining = index + 1;
+        for (int step = Integer.highestOneBit(slotCount); step > 0; step >>= 1) {
+            int next = position + step;
+            if (next <= slotCount && tree[next] < remaining) {
+                position = next;
+                remaining -= tree[next];
+            }
+        }
+        return position;
+    }
+
+    private void grow() {
+        int capacity = slots.length * 2;
+        slots = Arrays.copyOf(slots, capacity);
+        slotIds = Arrays.copyOf(slotIds, capacity);
+        tree = Arrays.copyOf(tree, capacity + 1);
+    }
+
+    /**
+     * Moves the live tasks to the front of the slots and rebuilds the tree.
+     */
+    private void compact() {
+        int live = 0;
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (slots[slot] != null) {
+                slots[live] = slots[slot];
+                slotIds[live] = slotIds[slot];
+                live++;
+            }
+        }
+        Arrays.fill(slots, live, slotCount, null);
+        slotCount = live;
+        Arrays.fill(tree, 0);
+        for (int k = 1; k <= slotCount; k++) {
+            tree[k]++;
+            int parent = k + (k & -k);
+            if (parent <= slotCount) {
+                tree[parent] += tree[k];
+            }
+        }
+    }
+}
@@ -1,15 +1,34 @@
 package duke.ui;
 
-import java.util.HashMap;
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 
 import duke.command.TaskType;
 import duke.error.ErrorType;
+import duke.metrics.LatencyHistogram;
+import duke.metrics.Metrics;
 import duke.task.Task;
+import duke.tasklist.IndexedTask;
 
+/**
+ * Renders Duke's replies.
+ * Output is collected in one buffered writer and only written out when
+ * {@link #flush()} is called, once per command, so that long lists are not
+ * flushed line by line.
+ */
 public class UI {
-    public final Map<TaskType, String> TASK_KEYWORDS = new HashMap<>();
+    private static final String SEPARATOR = "____________________________________________________________";
+
+    private static final int MAX_LISTED_FAILURES = 20;
+    private static final int MAX_LISTED_TASKS = 20;
+
+    private final PrintWriter out;
+
+    public final Map<TaskType, String> TASK_KEYWORDS = new EnumMap<>(TaskType.class);
     {
         TASK_KEYWORDS.put(TaskType.LIST, "list");
         TASK_KEYWORDS.put(TaskType.TODO, "todo");
@@ -19,51 +38,287 @@ public class UI {
         TASK_KEYWORDS.put(TaskType.FIND, "find");
         TASK_KEYWORDS.put(TaskType.MARK, "mark");
         TASK_KEYWORDS.put(TaskType.UNMARK, "unmark");
+        TASK_KEYWORDS.put(TaskType.DUE, "due");
+        TASK_KEYWORDS.put(TaskType.ON, "on");
+        TASK_KEYWORDS.put(TaskType.BETWEEN, "between");
+        TASK_KEYWORDS.put(TaskType.STATS, "stats");
+        TASK_KEYWORDS.put(TaskType.FUZZY_FIND, "find~");
+        TASK_KEYWORDS.put(TaskType.UNDO, "undo");
+        TASK_KEYWORDS.put(TaskType.REDO, "redo");
+        TASK_KEYWORDS.put(TaskType.EXPORT, "export");
+        TASK_KEYWORDS.put(TaskType.IMPORT, "import");
+    }
+
+    public UI() {
+        this(new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out)), false));
+    }
+
+    public UI(PrintWriter out) {
+        this.out = out;
+    }
+
+    /**
+     * Writes out everything printed since the last flush.
+     */
+    public void flush() {
+        out.flush();
     }
 
     public void printTaskList(List<Task> list) {
         printSeparator();
-        System.out.println("Here are the tasks in your list:");
-        for (int i = 0; i < list.size(); i++) {
-            System.out.print(i + 1 + ". ");
-            list.get(i).print();
+        out.println("Here are the tasks in your list:");
+        int number = 1;
+        for (Task task : list) {
+            printNumberedTask(number++, task);
+        }
+        printSeparator();
+    }
+
+    public void printTaskAdded(Task task, int size) {
+        printSeparator();
+        out.println("Got it. I've added this task:");
+        out.println(task.getPrintLine());
+        out.println("Now you have " + size + " task(s) in the list");
+        printSeparator();
+    }
+
+    public void printTaskDeleted(Task task, int size) {
+        printSeparator();
+        out.println("Noted. I've removed this task:");
+        out.println(task.getPrintLine());
+        out.println("Now you have " + size + " task(s) in the list");
+        printSeparator();
+    }
+
+    public void printTaskMarked(Task task, boolean isDone) {
+        printSeparator();
+        out.println("Got it. I've mark this task as " + (isDone ? "done" : "undone") + ":");
+        out.println(task.getPrintLine());
+        printSeparator();
+    }
+
+    /**
+     * Prints the tasks removed by a bulk delete, listing only the first few.
+     *
+     * @param tasks The removed tasks.
+     * @param size  The number of tasks left in the list.
+     */
+    public void printTasksDeleted(List<Task> tasks, int size) {
+        printSeparator();
+        out.println("Noted. I've removed these " + tasks.size() + " task(s):");
+        printSomeTasks(tasks);
+        out.println("Now you have " + size + " task(s) in the list");
+        printSeparator();
+    }
+
+    /**
+     * Prints the tasks changed by a bulk mark or unmark, listing only the first
+     * few.
+     *
+     * @param tasks  The changed tasks.
+     * @param isDone The new status of the tasks.
+     */
+    public void printTasksMarked(List<Task> tasks, boolean isDone) {
+        printSeparator();
+        out.println("Got it. I've marked these " + tasks.size() + " task(s) as " + (isDone ? "done" : "undone")
+                + ":");
+        printSomeTasks(tasks);
+        printSeparator();
+    }
+
+    /**
+     * Prints the result of an undo or redo.
+     *
+     * @param t         UNDO or REDO.
+     * @param stepCount The number of steps undone or made again, or -1 if there
+     *                  was nothing to undo or redo.
+     * @param size      The number of tasks in the list.
+     */
+    public void printHistoryMoved(TaskType t, int stepCount, int size) {
+        printSeparator();
+        String verb = t == TaskType.UNDO ? "undo" : "redo";
+        if (stepCount == -1) {
+            out.println("There is nothing to " + verb + ".");
+        } else {
+            out.println("Got it. I've " + (t == TaskType.UNDO ? "undone" : "redone") + " your last change of "
+                    + stepCount + " task(s).");
+            out.println("Now you have " + size + " task(s) in the list");
         }
         printSeparator();
     }
-    public void printSelectedTasks(List<Task> originalList, List<Task> printList, TaskType t) {
+
+    public void printTasksExported(int count, String path) {
+        printSeparator();
+        out.println("Got it. I've exported " + count + " task(s) to " + path);
+        printSeparator();
+    }
+
+    /**
+     * Prints the result of an import.
+     *
+     * @param count          The number of tasks added.
+     * @param skippedCount   The number of records that could not be read.
+     * @param duplicateCount The number of tasks already in the list.
+     * @param size           The number of tasks in the list.
+     */
+    public void printTasksImported(int count, int skippedCount, int duplicateCount, int size) {
+        printSeparator();
+        out.println("Got it. I've imported " + count + " task(s).");
+        if (skippedCount > 0) {
+            out.println("Skipped " + skippedCount + " record(s) I couldn't read.");
+        }
+        if (duplicateCount > 0) {
+            out.println("Skipped " + duplicateCount + " task(s) already in the list.");
+        }
+        out.println("Now you have " + size + " task(s) in the list");
+        printSeparator();
+    }
+
+    /**
+     * Prints why an export or import could not be carried out.
+     *
+     * @param t      EXPORT or IMPORT.
+     * @param path   The file as typed.
+     * @param reason What went wrong.
+     */
+    public void printTransferFailed(TaskType t, String path, String reason) {
+        printSeparator();
+        out.println("OOPS! I couldn't " + (t == TaskType.EXPORT ? "export to " : "import from ") + path + ": "
+                + reason);
+        printSeparator();
+    }
+
+    public void printNoTasksSelected() {
+        printSeparator();
+        out.println("No tasks match that selection.");
+        printSeparator();
+    }
+
+    private void printSomeTasks(List<Task> tasks) {
+        for (int i = 0; i < tasks.size() && i < MAX_LISTED_TASKS; i++) {
+            out.println(tasks.get(i).getPrintLine());
+        }
+        if (tasks.size() > MAX_LISTED_TASKS) {
+            out.println("...and " + (tasks.size() - MAX_LISTED_TASKS) + " more.");
+        }
+    }
+
+    private void printNumberedTask(int number, Task task) {
+        out.print(number);
+        out.print(". ");
+        out.println(task.getPrintLine());
+    }
+
+    /**
+     * Prints the tasks found by a search, or the existing tasks that an add would
+     * duplicate, with their numbers in the list.
+     *
+     * @param matches The tasks to print with their positions, in list order, or
+     *                closest first for FUZZY_FIND.
+     * @param t       The command the tasks were found for.
+     */
+    public void printSelectedTasks(List<IndexedTask> matches, TaskType t) {
         printSeparator();
         if (t == TaskType.FIND) {
-            System.out.println("Here are the matching tasks in your list:");
+            out.println("Here are the matching tasks in your list:");
+        } else if (t == TaskType.FUZZY_FIND) {
+            out.println(matches.isEmpty() ? "No tasks come close to that."
+                    : "Here are the closest tasks in your list:");
         } else if (t == TaskType.TODO ||
                 t == TaskType.EVENT ||
                 t == TaskType.DEADLINE) {
-            System.out.println("Unable to add due to a duplicate record.");
-            System.out.println("Please provide a unique description or delete the existing record to proceed:\n");
+            out.println("Unable to add due to a duplicate record.");
+            out.println("Please provide a unique description or delete the existing record to proceed:\n");
         }
-        for (int i = 0; i < originalList.size(); i++) {
-            if (printList.size() == 0){
-                break;
-            }
-            if (originalList.get(i).equals(printList.get(0))) {
-                System.out.print(i + 1 + ". ");
-                originalList.get(i).print();
-                printList.remove(0);
-            }
+        printIndexedTasks(matches);
+        printSeparator();
+    }
+
+    /**
+     * Prints the tasks found by a date query with their numbers in the list.
+     *
+     * @param matches The tasks to print with their positions, in list order.
+     */
+    public void printDateMatches(List<IndexedTask> matches) {
+        printSeparator();
+        out.println(matches.isEmpty() ? "No tasks fall on those dates." : "Here are the tasks on those dates:");
+        printIndexedTasks(matches);
+        printSeparator();
+    }
+
+    private void printIndexedTasks(List<IndexedTask> matches) {
+        for (IndexedTask match : matches) {
+            printNumberedTask(match.getIndex() + 1, match.getTask());
+        }
+    }
+
+    /**
+     * Prints the number of tasks of each type in the list, and the metrics
+     * recorded since startup.
+     *
+     * @param todoCount     The number of todos in the list.
+     * @param deadlineCount The number of deadlines in the list.
+     * @param eventCount    The number of events in the list.
+     * @param metrics       The metrics to print, or null to leave them out.
+     */
+    public void printStats(int todoCount, int deadlineCount, int eventCount, Metrics metrics) {
+        printSeparator();
+        out.println("Tasks: " + todoCount + " todo(s), " + deadlineCount + " deadline(s), " + eventCount
+                + " event(s)");
+        if (metrics == null) {
+            printSeparator();
+            return;
+        }
+        out.println("Commands (count, mean, p99 at most, max):");
+        for (TaskType taskType : TaskType.values()) {
+            printLatency("  " + Metrics.nameOf(taskType), metrics.getCommandLatency(taskType));
         }
+        printLatency("  " + Metrics.UNKNOWN_COMMAND, metrics.getCommandLatency(null));
+        printLatency("Saves", metrics.getSaveLatency());
+        printLatency("Loads", metrics.getLoadLatency());
+        out.println("Bytes written: " + metrics.getBytesWritten());
         printSeparator();
     }
 
+    private void printLatency(String label, LatencyHistogram histogram) {
+        if (histogram.getCount() == 0) {
+            return;
+        }
+        out.println(label + ": " + histogram.getCount() + ", " + formatNanos((long) histogram.getMeanNanos()) + ", "
+                + formatNanos(histogram.getPercentileNanos(99)) + ", " + formatNanos(histogram.getMaxNanos()));
+    }
+
+    private static String formatNanos(long nanos) {
+        if (nanos < 1_000_000) {
+            return String.format("%.1fus", nanos / 1e3);
+        }
+        return String.format("%.1fms", nanos / 1e6);
+    }
+
     public void printWelcomeMessage(String duke) {
         printSeparator();
-        System.out.println(duke);
-        System.out.println("I'm AngelBot!");
-        System.out.println("What can I do for you?");
+        out.println(duke);
+        out.println("I'm AngelBot!");
+        out.println("What can I do for you?");
         printSeparator();
     }
 
     public void printGoodbyeMessage() {
         printSeparator();
-        System.out.println("Bye. Hope to see you again soon!");
+        out.println("Bye. Hope to see you again soon!");
+        printSeparator();
+    }
+
+    public void printBatchSummary(int succeeded, List<String> failures) {
+        printSeparator();
+        out.println("Processed " + (succeeded + failures.size()) + " command(s): " + succeeded + " succeeded, "
+                + failures.size() + " failed.");
+        for (int i = 0; i < failures.size() && i < MAX_LISTED_FAILURES; i++) {
+            out.println("Line " + failures.get(i));
+        }
+        if (failures.size() > MAX_LISTED_FAILURES) {
+            out.println("...and " + (failures.size() - MAX_LISTED_FAILURES) + " more.");
+        }
         printSeparator();
     }
 
@@ -71,48 +326,65 @@ public class UI {
         printSeparator();
         switch (e) {
             case ERR_EMPTY_DESCRIPTION:
-                System.out.println("OOPS!!! The description of a " + TASK_KEYWORDS.get(t) + " cannot be empty.");
+                out.println("OOPS!!! The description of a " + TASK_KEYWORDS.get(t) + " cannot be empty.");
                 break;
             case ERR_INVALID_FORMAT:
-                System.out.printf(
+                if (t == TaskType.DUE || t == TaskType.ON || t == TaskType.BETWEEN) {
+                    out.println("OOPS! It seems you didn't provide a valid date. Use the following format:");
+                    out.println(t == TaskType.BETWEEN ? "between [start date] [end date]"
+                            : TASK_KEYWORDS.get(t) + " [date]");
+                    out.println("Date Format: yyyy-MM-dd");
+                    break;
+                }
+                if (t == TaskType.STATS || t == TaskType.UNDO || t == TaskType.REDO) {
+                    out.println("OOPS! " + TASK_KEYWORDS.get(t) + " takes nothing after it. Use the following format:");
+                    out.println(TASK_KEYWORDS.get(t));
+                    break;
+                }
+                if (t == TaskType.EXPORT || t == TaskType.IMPORT) {
+                    out.println("OOPS! It seems you didn't provide a format and a file. Use the following format:");
+                    out.println(TASK_KEYWORDS.get(t) + " [csv|jsonl|ical] [file]");
+                    break;
+                }
+                out.printf(
                         "OOPS! It seems you didn't provide a valid %s format. To create a %s task, use the following format:",
                         TASK_KEYWORDS.get(t), TASK_KEYWORDS.get(t));
-                System.out.println("");
+                out.println("");
                 switch (t) {
                     case DEADLINE:
-                        System.out.println("deadline [description] /by [date]");
-                        System.out.println("Date Format: yyyy-MM-dd");
+                        out.println("deadline [description] /by [date]");
+                        out.println("Date Format: yyyy-MM-dd");
                         break;
                         case EVENT:
-                        System.out.println("event [description] /from [start date] /to [end date]");
-                        System.out.println("Date Format: yyyy-MM-dd OR yyyy-MM-dd HH:mm");
+                        out.println("event [description] /from [start date] /to [end date]");
+                        out.println("Date Format: yyyy-MM-dd OR yyyy-MM-dd HH:mm");
                         break;
                     default:
-                        System.out.println("todo [description]"); // Not expecting any formatting error here
+                        out.println("todo [description]"); // Not expecting any formatting error here
                         break;
                 }
                 break;
             case ERR_POSSIBLE_TYPO:
-                System.out.printf("OOPS! It appears there might be a typo. Did you mean to write '%s'?",
+                out.printf("OOPS! It appears there might be a typo. Did you mean to write '%s'?",
                         TASK_KEYWORDS.get(t));
-                System.out.println("");
+                out.println("");
                 break;
             case ERR_EXPECT_NUMBER:
-                System.out.printf("Expect a number (1-%d) after %s", size, TASK_KEYWORDS.get(t));
-                System.out.println("");
+                out.printf("Expect a number (1-%d) after %s", size, TASK_KEYWORDS.get(t));
+                out.println("");
                 break;
             case ERR_EXCEED_LIMIT:
-                System.out.printf("The specified number exceeds the limit (1-%d)", size);
-                System.out.println("");
+                out.printf("The specified number exceeds the limit (1-%d)", size);
+                out.println("");
                 break;
             default:
-                System.out.println("OOPS!!! I'm sorry, but I don't know what that means :-(");
+                out.println("OOPS!!! I'm sorry, but I don't know what that means :-(");
         }
         printSeparator();
     }
 
-    public static void printSeparator() {
-        System.out.println("____________________________________________________________");
+    public void printSeparator() {
+        out.println(SEPARATOR);
     }
 
 }
\ No newline at end of file
@@ -15,8 +15,11 @@ import static org.junit.jupiter.api.Assertions.*;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 
 public class DukeTest {
@@ -79,6 +82,27 @@ public class DukeTest {
         runAndAssertTask(input, expectedOutput);
     }
 
+    @Test
+    void testBatch() throws IOException {
+        Path commands = Files.createTempFile("commands", ".txt");
+        Files.write(commands, List.of("list", "", "# comment", "find book", "lisy", "bye", "lisy"));
+
+        PrintStream originalOut = System.out;
+        ByteArrayOutputStream outContent = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(outContent));
+        try {
+            new Duke().runBatch(commands, 0, true);
+        } finally {
+            System.setOut(originalOut);
+            Files.delete(commands);
+        }
+
+        String output = outContent.toString();
+        assertTrue(output.contains("Processed 3 command(s): 2 succeeded, 1 failed."));
+        assertTrue(output.contains("Line 5: lisy"));
+        assertFalse(output.contains("Here are the tasks in your list:"));
+    }
+
     private void runAndAssertTask(String input, String expectedOutput) {
         // Save the original System.in and System.out
         InputStream originalIn = System.in;
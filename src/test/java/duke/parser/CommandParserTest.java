@@ -0,0 +1,68 @@
+package duke.parser;
+
+import duke.command.ParsedCommand;
+import duke.command.TaskType;
+import duke.error.ErrorType;
+import duke.ui.UI;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CommandParserTest {
+    private final CommandParser parser = new CommandParser(new UI().TASK_KEYWORDS);
+
+    @Test
+    void testCommands() {
+        assertCommand(TaskType.TODO, "read book", "todo   read book  ");
+        assertCommand(TaskType.UNMARK, "2", "unmark 2");
+        assertCommand(TaskType.ON, "2023-08-06", "on 2023-08-06");
+        assertCommand(TaskType.DEADLINE, "x /by 2023-01-01", "deadline x /by 2023-01-01");
+        assertCommand(TaskType.LIST, "", "list");
+        assertCommand(TaskType.LIST, "", "LISTing");
+        assertCommand(TaskType.STATS, "", "stats");
+        assertCommand(TaskType.FUZZY_FIND, "meetnig", "find~ meetnig");
+        assertCommand(TaskType.FIND, "~ meeting", "find ~ meeting");
+    }
+
+    @Test
+    void testErrors() {
+        assertError(TaskType.TODO, ErrorType.ERR_EMPTY_DESCRIPTION, "todo   ");
+        assertError(TaskType.TODO, ErrorType.ERR_EMPTY_DESCRIPTION, "TODO");
+        assertError(TaskType.TODO, ErrorType.ERR_POSSIBLE_TYPO, "Todo read book");
+        assertError(TaskType.TODO, ErrorType.ERR_POSSIBLE_TYPO, "todoxyz read book");
+        assertError(TaskType.STATS, ErrorType.ERR_POSSIBLE_TYPO, "statsx");
+        assertError(TaskType.UNDO, ErrorType.ERR_INVALID_FORMAT, "undo extra");
+        assertError(TaskType.REDO, ErrorType.ERR_INVALID_FORMAT, "redo foo");
+        assertError(TaskType.STATS, ErrorType.ERR_INVALID_FORMAT, "stats x");
+        assertCommand(TaskType.UNDO, "", "undo   ");
+        assertError(null, ErrorType.ERR_SYSTEM_READ_FAIL, "hello there");
+        assertError(null, ErrorType.ERR_SYSTEM_READ_FAIL, "");
+    }
+
+    @Test
+    void testTyposAreOneEditAway() {
+        assertError(TaskType.TODO, ErrorType.ERR_POSSIBLE_TYPO, "tdo read"); // Left out
+        assertError(TaskType.TODO, ErrorType.ERR_POSSIBLE_TYPO, "todp read"); // Changed
+        assertError(TaskType.DEADLINE, ErrorType.ERR_POSSIBLE_TYPO, "deadlinne x"); // Typed in extra
+        assertError(TaskType.UNMARK, ErrorType.ERR_POSSIBLE_TYPO, "unmrk 2");
+        assertError(null, ErrorType.ERR_SYSTEM_READ_FAIL, "tdoo read");
+
+        // "umark" is one edit from both "mark" and "unmark": the first in TaskType wins
+        for (int i = 0; i < 3; i++) {
+            assertError(TaskType.MARK, ErrorType.ERR_POSSIBLE_TYPO, "umark 2");
+        }
+    }
+
+    private void assertCommand(TaskType taskType, String description, String input) {
+        ParsedCommand parsed = parser.parse(input);
+        assertNull(parsed.getError(), input);
+        assertEquals(taskType, parsed.getTaskType(), input);
+        assertEquals(description, parsed.getDescription(), input);
+    }
+
+    private void assertError(TaskType taskType, ErrorType error, String input) {
+        ParsedCommand parsed = parser.parse(input);
+        assertEquals(error, parsed.getError(), input);
+        assertEquals(taskType, parsed.getTaskType(), input);
+    }
+}
@@ -0,0 +1,69 @@
+package duke.parser;
+
+import duke.task.Task;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParserTest {
+
+    @Test
+    void testRoundTrip() {
+        String[] lines = {
+            "T | 0 | read book",
+            "T | 1 | read | book",
+            "D | 0 | return book | 2023-06-06",
+            "E | 1 | project meeting | 2023-08-06T14:00 | 2023-08-06T16:00",
+            "E | 0 | late shift | 2023-08-06T23:59:30 | 2023-08-07T00:00",
+        };
+        String[] expected = {
+            "T | 0 | read book",
+            "T | 1 | read",
+            "D | 0 | return book | 2023-06-06",
+            "E | 1 | project meeting | 2023-08-06T14:00 | 2023-08-06T16:00",
+            "E | 0 | late shift | 2023-08-06T23:59:30 | 2023-08-07T00:00",
+        };
+        for (int i = 0; i < lines.length; i++) {
+            assertEquals(expected[i], Parser.createTaskFromLine(lines[i]).toFileString());
+        }
+    }
+
+    @Test
+    void testWhitespaceAroundSeparators() {
+        Task task = Parser.createTaskFromLine("D|1|\treturn book  |  2023-06-06");
+        assertEquals("D | 1 | return book | 2023-06-06", task.toFileString());
+    }
+
+    @Test
+    void testMalformedLines() {
+        String[] lines = {
+            "",
+            "T | 0",
+            "T | 0 | ",
+            "X | 0 | read book",
+            "T | yes | read book",
+            "D | 0 | return book",
+            "D | 0 | return book | 2023-13-06",
+            "D | 0 | return book | 06-06-2023",
+            "E | 0 | meeting | 2023-08-06T14:00",
+            "E | 0 | meeting | 2023-08-06 14:00 | 2023-08-06T16:00",
+        };
+        for (String line : lines) {
+            assertThrows(IllegalArgumentException.class, () -> Parser.createTaskFromLine(line));
+        }
+    }
+
+    @Test
+    void testSelection() {
+        assertArrayEquals(new int[] { 2, 4, 8, 9, 10 }, Parser.parseSelection("3,5,9-11", 20));
+        assertArrayEquals(new int[] { 0, 1, 2 }, Parser.parseSelection("3-1, 2", 3));
+        assertArrayEquals(new int[] { 6 }, Parser.parseSelection(" 7 ", 7));
+
+        for (String selection : new String[] { "x", "3,", "-3", "3-", "1,,2" }) {
+            assertThrows(NumberFormatException.class, () -> Parser.parseSelection(selection, 10), selection);
+        }
+        for (String selection : new String[] { "0", "11", "5-11", "0-2" }) {
+            assertThrows(IndexOutOfBoundsException.class, () -> Parser.parseSelection(selection, 10), selection);
+        }
+    }
+}
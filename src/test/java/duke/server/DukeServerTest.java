@@ -0,0 +1,137 @@
+package duke.server;
+
+import duke.storage.Durability;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class DukeServerTest {
+    private static final int SESSIONS = 2000;
+
+    @Test
+    void testConcurrentSessions() throws Exception {
+        Path folder = Files.createTempDirectory("duke-server");
+        DukeServer server = new DukeServer(0, folder, Durability.SYNC, 0);
+        Thread acceptor = new Thread(() -> {
+            try {
+                server.serve();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        acceptor.start();
+        List<Socket> clients = new ArrayList<>();
+        try {
+            for (int i = 0; i < SESSIONS; i++) {
+                Socket client = connect(server);
+                send(client, "s" + i + "\ntodo task " + i + "\n");
+                clients.add(client);
+            }
+            long deadline = System.currentTimeMillis() + 60_000;
+            while (server.getActiveSessionCount() < SESSIONS && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(SESSIONS, server.getActiveSessionCount());
+
+            try (Socket duplicate = connect(server)) {
+                send(duplicate, "s0\n");
+                assertTrue(readAll(duplicate).contains("Session s0 is already in use."));
+            }
+
+            for (int i = 0; i < SESSIONS; i++) {
+                Socket client = clients.get(i);
+                send(client, "bye\n");
+                String reply = readAll(client);
+                assertTrue(reply.contains("[T][ ] task " + i), reply);
+                assertTrue(reply.contains("Bye. Hope to see you again soon!"), reply);
+                client.close();
+            }
+
+            // A session picks up the tasks it saved last time
+            try (Socket client = connect(server)) {
+                send(client, "s7\nlist\nstats\nbye\n");
+                String reply = readAll(client);
+                assertTrue(reply.contains("1. [T][ ] task 7"), reply);
+                assertFalse(reply.contains("2. [T]"), reply);
+                // Stats cover this session's list only, not what other sessions did
+                assertTrue(reply.contains("Tasks: 1 todo(s), 0 deadline(s), 0 event(s)"), reply);
+                assertFalse(reply.contains("Commands"), reply);
+            }
+        } finally {
+            for (Socket client : clients) {
+                client.close();
+            }
+            server.close();
+            acceptor.join();
+            try (Stream<Path> paths = Files.walk(folder)) {
+                for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                    Files.delete(path);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testSessionsOnlyTransferTheirOwnFiles() throws Exception {
+        Path folder = Files.createTempDirectory("duke-server");
+        DukeServer server = new DukeServer(0, folder, Durability.ASYNC, 5);
+        Thread acceptor = new Thread(() -> {
+            try {
+                server.serve();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        acceptor.start();
+        assertTrue(server.getAddress().isLoopbackAddress());
+        Path outside = folder.resolve("outside.csv");
+        try (Socket client = connect(server)) {
+            send(client, "s1\ntodo task\nexport csv " + outside + "\nexport csv ../../outside.csv\n"
+                    + "export csv tasks.csv\nimport csv tasks.csv\nbye\n");
+            String reply = readAll(client);
+            assertTrue(reply.contains("OOPS! I couldn't export to " + outside), reply);
+            assertTrue(reply.contains("OOPS! I couldn't export to ../../outside.csv"), reply);
+            assertFalse(Files.exists(outside));
+            assertTrue(Files.exists(folder.resolve("s1").resolve("files").resolve("tasks.csv")));
+            assertTrue(reply.contains("Skipped 1 task(s) already in the list."), reply);
+        } finally {
+            server.close();
+            acceptor.join();
+            try (Stream<Path> paths = Files.walk(folder)) {
+                for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                    Files.delete(path);
+                }
+            }
+        }
+    }
+
+    private static Socket connect(DukeServer server) throws IOException {
+        Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+        socket.setSoTimeout(60_000);
+        return socket;
+    }
+
+    private static void send(Socket socket, String text) throws IOException {
+        OutputStream output = socket.getOutputStream();
+        output.write(text.getBytes(StandardCharsets.UTF_8));
+        output.flush();
+    }
+
+    private static String readAll(Socket socket) throws IOException {
+        InputStream input = socket.getInputStream();
+        return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+    }
+}
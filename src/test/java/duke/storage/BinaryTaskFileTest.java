@@ -0,0 +1,60 @@
+package duke.storage;
+
+import duke.parser.Parser;
+import duke.task.Task;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class BinaryTaskFileTest {
+
+    @Test
+    void testRoundTrip() throws IOException {
+        String[] lines = {
+            "T | 0 | read book",
+            "T | 1 | \u8bfb\u4e66 \u00fcn\u00efcode",
+            "D | 1 | return book | 2023-06-06",
+            "D | 0 | far future | 9999-12-31",
+            "E | 0 | project meeting | 2023-08-06T14:00 | 2023-08-06T16:00",
+            "E | 1 | with seconds | 2023-08-06T14:00:30 | 2023-08-06T16:00",
+        };
+        List<Task> list = new ArrayList<>();
+        for (String line : lines) {
+            list.add(Parser.createTaskFromLine(line));
+        }
+
+        Path file = Files.createTempFile("duke", ".bin");
+        try {
+            try (OutputStream output = Files.newOutputStream(file)) {
+                BinaryTaskFile.write(output, list);
+            }
+            assertTrue(BinaryTaskFile.isBinary(file));
+
+            List<Task> read = BinaryTaskFile.read(file);
+            assertEquals(lines.length, read.size());
+            for (int i = 0; i < lines.length; i++) {
+                assertEquals(lines[i], read.get(i).toFileString());
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void testTextIsNotBinary() throws IOException {
+        Path file = Files.createTempFile("duke", ".txt");
+        try {
+            Files.writeString(file, "T | 0 | read book\n");
+            assertFalse(BinaryTaskFile.isBinary(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package duke.storage;
+
+import duke.task.Task;
+import duke.task.ToDos;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class JournalTest {
+
+    @Test
+    void testReplay() {
+        List<Task> list = new ArrayList<>();
+        list.add(new ToDos("read book"));
+
+        List<String> records = List.of(
+                Journal.addRecord(new ToDos("write essay")),
+                Journal.markRecord(1, true),
+                Journal.deleteRecord(0));
+
+        assertEquals(3, Journal.replay(list, records));
+        assertEquals(1, list.size());
+        assertEquals("T | 1 | write essay", list.get(0).toFileString());
+    }
+
+    @Test
+    void testReplayStopsAtTornRecord() {
+        List<Task> list = new ArrayList<>();
+
+        List<String> records = List.of(
+                Journal.addRecord(new ToDos("read book")),
+                "x 4",
+                Journal.addRecord(new ToDos("write essay")));
+
+        assertEquals(1, Journal.replay(list, records));
+        assertEquals(1, list.size());
+    }
+
+    @Test
+    void testOnlyLastCheckpointCompletesSnapshot() throws IOException {
+        Path folder = Files.createTempDirectory("duke-journal");
+        Path file = folder.resolve("duke.txt");
+        Path temp = folder.resolve("duke.txt.tmp");
+        Path journal = folder.resolve("duke.journal");
+        try {
+            // A save put in place before its journal was reset, then a save torn mid-write
+            Files.writeString(file, "T | 0 | one\nT | 0 | two\nT | 0 | three\n");
+            Files.writeString(journal, "#\n+ T | 0 | four\n");
+            Files.writeString(temp, "T | 0 | on");
+            List<Task> list = new Storage(folder).loadTasks();
+            assertEquals(4, list.size());
+            assertEquals("T | 0 | four", list.get(3).toFileString());
+            assertFalse(Files.exists(temp));
+            assertEquals(List.of("+ T | 0 | four"), Files.readAllLines(journal));
+
+            // A save whose checkpoint is the last record is complete
+            Files.writeString(temp, "T | 0 | five\n");
+            Files.writeString(journal, "+ T | 0 | four\n#\n");
+            list = new Storage(folder).loadTasks();
+            assertEquals(1, list.size());
+            assertEquals("T | 0 | five", list.get(0).toFileString());
+            assertFalse(Files.exists(journal));
+        } finally {
+            for (Path path : List.of(file, temp, journal, folder.resolve("duke.idx"))) {
+                Files.deleteIfExists(path);
+            }
+            Files.delete(folder);
+        }
+    }
+}
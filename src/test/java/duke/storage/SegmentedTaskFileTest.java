@@ -0,0 +1,189 @@
+package duke.storage;
+
+import duke.task.Task;
+import duke.task.ToDos;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class SegmentedTaskFileTest {
+
+    @Test
+    void testSaveRewritesOnlyChangedSegments() throws IOException {
+        Path folder = Files.createTempDirectory("duke-segments");
+        try {
+            Storage storage = new Storage(folder);
+            List<Task> list = new ArrayList<>(storage.loadTasks());
+            for (int i = 0; i < 5000; i++) {
+                Task task = new ToDos("task " + i);
+                list.add(task);
+                storage.logAdd(list, task);
+            }
+            storage.saveTasks(list);
+            Set<String> before = segmentFiles(folder);
+            assertEquals(5, before.size());
+            assertFalse(Files.exists(folder.resolve("duke.txt")));
+
+            list.get(2000).setIsDone(true);
+            storage.logMark(list, 2000, true);
+            storage.saveTasks(list);
+            Set<String> after = segmentFiles(folder);
+            assertEquals(5, after.size());
+            after.removeAll(before);
+            assertEquals(1, after.size(), "Only the marked task's segment is written");
+            assertEquals(toLines(list), toLines(new Storage(folder).loadTasks()));
+        } finally {
+            deleteFolder(folder);
+        }
+    }
+
+    @Test
+    void testJournalReplayMarksSegments() throws IOException {
+        Path folder = Files.createTempDirectory("duke-segments");
+        try {
+            Storage storage = new Storage(folder);
+            List<Task> list = new ArrayList<>(storage.loadTasks());
+            for (int i = 0; i < 3000; i++) {
+                Task task = new ToDos("task " + i);
+                list.add(task);
+                storage.logAdd(list, task);
+            }
+            storage.saveTasks(list);
+            Set<String> before = segmentFiles(folder);
+
+            // Journalled only, then replayed by a new storage
+            list.remove(10);
+            storage.logDelete(list, 10);
+            Storage reloaded = new Storage(folder);
+            List<Task> loaded = reloaded.loadTasks();
+            assertEquals(toLines(list), toLines(loaded));
+
+            reloaded.saveTasks(loaded);
+            Set<String> after = segmentFiles(folder);
+            after.removeAll(before);
+            assertEquals(1, after.size());
+            assertEquals(toLines(list), toLines(new Storage(folder).loadTasks()));
+        } finally {
+            deleteFolder(folder);
+        }
+    }
+
+    @Test
+    void testDeletedSegmentsAreMerged() throws IOException {
+        Path folder = Files.createTempDirectory("duke-segments");
+        try {
+            SegmentedTaskFile segmentedFile = new SegmentedTaskFile(folder, 4);
+            List<Task> list = new ArrayList<>();
+            for (int i = 0; i < 12; i++) {
+                list.add(new ToDos("task " + i));
+            }
+            SegmentedTaskFile.Plan plan = segmentedFile.prepare(list);
+            assertEquals(3, plan.getWriteCount());
+            save(segmentedFile, list, plan);
+
+            // The first two segments drop to one task each, and fit in one
+            for (int i = 0; i < 3; i++) {
+                list.remove(1);
+                segmentedFile.removed(1);
+            }
+            list.remove(2);
+            segmentedFile.removed(2);
+            plan = segmentedFile.prepare(list);
+            assertEquals(1, plan.getWriteCount());
+            save(segmentedFile, list, plan);
+            assertEquals(2, segmentFiles(folder).size());
+
+            assertEquals(toLines(list), toLines(new SegmentedTaskFile(folder, 4).read()));
+        } finally {
+            deleteFolder(folder);
+        }
+    }
+
+    @Test
+    void testFailedSaveIsNotListedLater() throws IOException {
+        Path folder = Files.createTempDirectory("duke-segments");
+        try {
+            SegmentedTaskFile segmentedFile = new SegmentedTaskFile(folder, 4);
+            List<Task> list = new ArrayList<>();
+            for (int i = 0; i < 12; i++) {
+                list.add(new ToDos("task " + i));
+            }
+            save(segmentedFile, list, segmentedFile.prepare(list));
+
+            // The second plan takes the first as written, as it does on the writer thread
+            list.get(0).setIsDone(true);
+            segmentedFile.changed(0);
+            SegmentedTaskFile.Plan failed = segmentedFile.prepare(list);
+            list.get(8).setIsDone(true);
+            segmentedFile.changed(8);
+            SegmentedTaskFile.Plan later = segmentedFile.prepare(list);
+            segmentedFile.fail(failed);
+            assertThrows(IOException.class, () -> segmentedFile.write(list, later, false));
+
+            SegmentedTaskFile.Plan plan = segmentedFile.prepare(list);
+            assertEquals(3, plan.getWriteCount());
+            save(segmentedFile, list, plan);
+            assertEquals(toLines(list), toLines(new SegmentedTaskFile(folder, 4).read()));
+        } finally {
+            deleteFolder(folder);
+        }
+    }
+
+    @Test
+    void testConvertBackToText() throws IOException {
+        Path folder = Files.createTempDirectory("duke-segments");
+        try {
+            Storage storage = new Storage(folder);
+            List<Task> list = new ArrayList<>(storage.loadTasks());
+            list.add(new ToDos("read book"));
+            storage.saveTasks(list);
+            assertTrue(Files.exists(folder.resolve(SegmentedTaskFile.MANIFEST_NAME)));
+
+            storage.setFormat(SnapshotFormat.TEXT);
+            storage.saveTasks(list);
+            assertTrue(Files.exists(folder.resolve("duke.txt")));
+            assertFalse(Files.exists(folder.resolve(SegmentedTaskFile.MANIFEST_NAME)));
+            assertFalse(Files.exists(folder.resolve("segments")));
+            assertEquals(toLines(list), toLines(new Storage(folder).loadTasks()));
+        } finally {
+            deleteFolder(folder);
+        }
+    }
+
+    private static void save(SegmentedTaskFile segmentedFile, List<Task> list, SegmentedTaskFile.Plan plan)
+            throws IOException {
+        segmentedFile.write(list, plan, false);
+        Files.move(segmentedFile.getManifestTemp(), segmentedFile.getManifest(), StandardCopyOption.REPLACE_EXISTING);
+        segmentedFile.deleteUnlisted(plan);
+    }
+
+    private static Set<String> segmentFiles(Path folder) throws IOException {
+        try (Stream<Path> files = Files.list(folder.resolve("segments"))) {
+            return files.map(file -> file.getFileName().toString()).collect(Collectors.toCollection(HashSet::new));
+        }
+    }
+
+    private static List<String> toLines(List<Task> list) {
+        return list.stream().map(Task::toFileString).collect(Collectors.toList());
+    }
+
+    private static void deleteFolder(Path folder) throws IOException {
+        try (Stream<Path> paths = Files.walk(folder)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package duke.storage;
+
+import duke.parser.Parser;
+import duke.task.Task;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class TaskExporterTest {
+
+    @Test
+    void testRoundTrip() throws IOException {
+        List<Task> tasks = new ArrayList<>();
+        tasks.add(Parser.createTaskFromLine("T | 0 | read, \"the\" book; then \\ rest"));
+        tasks.add(Parser.createTaskFromLine("D | 1 | return book | 2023-06-06"));
+        tasks.add(Parser.createTaskFromLine("E | 1 | meeting | 2023-08-06T14:00 | 2023-08-06T16:00"));
+        tasks.add(Parser.createTaskFromLine("E | 0 | trip | 2023-09-01T00:00 | 2023-09-03T00:00"));
+        // Long enough, and with enough multi-byte characters, to be folded in iCalendar
+        tasks.add(Parser.createTaskFromLine("T | 0 | " + "caf\u00e9 \u4f1a\u8b70 ".repeat(12).trim()));
+
+        Path folder = Files.createTempDirectory("duke-export");
+        try {
+            for (ExportFormat format : ExportFormat.values()) {
+                Path file = folder.resolve("tasks." + format);
+                assertEquals(tasks.size(), TaskExporter.write(file, tasks, format));
+                assertEquals(toLines(tasks), toLines(readAll(file, format)), format.toString());
+            }
+            for (String line : Files.readAllLines(folder.resolve("tasks.ICAL"))) {
+                assertTrue(line.getBytes("UTF-8").length <= TaskExporter.ICAL_LINE_LENGTH, line);
+            }
+        } finally {
+            for (ExportFormat format : ExportFormat.values()) {
+                Files.deleteIfExists(folder.resolve("tasks." + format));
+            }
+            Files.delete(folder);
+        }
+    }
+
+    @Test
+    void testReadsOtherTools() throws IOException {
+        Path folder = Files.createTempDirectory("duke-import");
+        Path file = folder.resolve("tasks");
+        try {
+            Files.writeString(file, "todo,1,\"two\nlines\"\r\n\r\ndeadline,false,no date,,,\n"
+                    + "event,0,party,,2023-08-06T20:00,2023-08-06T23:30\n");
+            assertEquals(List.of("T | 1 | two lines", "E | 0 | party | 2023-08-06T20:00 | 2023-08-06T23:30"),
+                    toLines(readAll(file, ExportFormat.CSV)));
+
+            Files.writeString(file, "{\"done\": true, \"type\": \"todo\", \"description\": \"caf\\u00e9 \\\"x\\\"\","
+                    + " \"tags\": null}\n{\"type\":\"todo\"\n{}\n");
+            assertEquals(List.of("T | 1 | caf\u00e9 \"x\""), toLines(readAll(file, ExportFormat.JSONL)));
+
+            Files.writeString(file, "BEGIN:VCALENDAR\r\nBEGIN:VTODO\r\nSUMMARY:pay\r\n  bills\r\nCOMPLETED:2023"
+                    + "0601T100000Z\r\nDUE:20230606T235900Z\r\nBEGIN:VALARM\r\nSUMMARY:ignored\r\nEND:VALARM\r\n"
+                    + "END:VTODO\r\nBEGIN:VEVENT\r\nSUMMARY:holiday\r\nDTSTART;VALUE=DATE:20230801\r\n"
+                    + "DTEND;VALUE=DATE:20230804\r\nEND:VEVENT\r\nBEGIN:VEVENT\r\nSUMMARY:no start\r\n"
+                    + "END:VEVENT\r\nEND:VCALENDAR\r\n");
+            TaskImporter importer = TaskImporter.open(file, ExportFormat.ICAL);
+            List<Task> tasks = new ArrayList<>();
+            importer.forEachRemaining(tasks::add);
+            importer.close();
+            assertEquals(2, tasks.size());
+            assertEquals("pay bills", tasks.get(0).getDescription());
+            assertTrue(tasks.get(0).getIsDone());
+            assertEquals("E | 0 | holiday | 2023-08-01T00:00 | 2023-08-03T00:00", tasks.get(1).toFileString());
+            assertEquals(1, importer.getSkippedCount());
+        } finally {
+            Files.deleteIfExists(file);
+            Files.delete(folder);
+        }
+    }
+
+    @Test
+    void testParseFormat() {
+        assertEquals(ExportFormat.JSONL, ExportFormat.parse("JSON"));
+        assertEquals(ExportFormat.ICAL, ExportFormat.parse("ics"));
+        assertThrows(IllegalArgumentException.class, () -> ExportFormat.parse("xml"));
+    }
+
+    private static List<Task> readAll(Path file, ExportFormat format) throws IOException {
+        List<Task> tasks = new ArrayList<>();
+        try (TaskImporter importer = TaskImporter.open(file, format)) {
+            importer.forEachRemaining(tasks::add);
+        }
+        return tasks;
+    }
+
+    private static List<String> toLines(List<Task> tasks) {
+        List<String> lines = new ArrayList<>();
+        for (Task task : tasks) {
+            lines.add(task.toFileString());
+        }
+        return lines;
+    }
+}
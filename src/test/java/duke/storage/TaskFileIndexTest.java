@@ -0,0 +1,114 @@
+package duke.storage;
+
+import duke.command.TaskType;
+import duke.parser.Parser;
+import duke.task.Task;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+public class TaskFileIndexTest {
+
+    @Test
+    void testReadsLinesLikeTheParser() throws IOException {
+        Path folder = Files.createTempDirectory("duke-index");
+        Path file = folder.resolve("duke.txt");
+        Path indexFile = folder.resolve("duke.idx");
+        try {
+            Files.writeString(file, "T | 0 | read book\r\n\nD | 1 | return book | 2023-06-06\n"
+                    + "E | 0 | meeting | 2023-08-06T14:00 | 2023-08-06T16:00\nnot a task");
+            List<Task> expected = TaskFileReader.readSequential(file);
+
+            TaskFileIndex index = TaskFileIndex.open(file, indexFile);
+            assertEquals(3, index.size());
+            assertEquals(expected.size(), index.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i).toFileString(), index.read(i).toFileString());
+            }
+            int[] counts = index.getTypeCounts();
+            assertEquals(1, counts[TaskType.TODO.ordinal()]);
+            assertEquals(1, counts[TaskType.DEADLINE.ordinal()]);
+            assertEquals(1, counts[TaskType.EVENT.ordinal()]);
+            assertTrue(Files.exists(indexFile));
+
+            // The saved index is used while the snapshot is unchanged
+            assertEquals(3, TaskFileIndex.open(file, indexFile).size());
+
+            Files.writeString(file, "T | 0 | read book\n");
+            Files.setLastModifiedTime(file, FileTime.fromMillis(0));
+            index = TaskFileIndex.open(file, indexFile);
+            assertEquals(1, index.size());
+            assertEquals("T | 0 | read book", index.read(0).toFileString());
+        } finally {
+            Files.deleteIfExists(indexFile);
+            Files.deleteIfExists(file);
+            Files.delete(folder);
+        }
+    }
+
+    @Test
+    void testSplitsLinesLikeTheReader() throws IOException {
+        Path folder = Files.createTempDirectory("duke-index");
+        Path file = folder.resolve("duke.txt");
+        Path indexFile = folder.resolve("duke.idx");
+        try {
+            Files.writeString(file, "T | 0 | read book\rD | 1 | return book | 2023-06-06\r\r"
+                    + "T | 1 | write essay\r\nnot a task\rT | 0 | last\r");
+            List<Task> expected = TaskFileReader.readSequential(file);
+            assertEquals(4, expected.size());
+            assertEquals(expected.size(), TaskFileReader.readParallel(file, 1).size());
+
+            TaskFileIndex index = TaskFileIndex.open(file, indexFile);
+            assertEquals(expected.size(), index.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i).toFileString(), index.read(i).toFileString());
+            }
+            assertEquals(3, index.getTypeCounts()[TaskType.TODO.ordinal()]);
+        } finally {
+            Files.deleteIfExists(indexFile);
+            Files.deleteIfExists(file);
+            Files.delete(folder);
+        }
+    }
+
+    @Test
+    void testLazyStorageLoadsTheSameTasks() throws IOException {
+        Path folder = Files.createTempDirectory("duke-index");
+        try {
+            Storage storage = new Storage(folder);
+            storage.setFormat(SnapshotFormat.TEXT);
+            List<Task> list = storage.loadTasks();
+            for (int i = 0; i < 100; i++) {
+                list.add(Parser.createTaskFromLine("T | " + (i % 2) + " | task " + i));
+            }
+            storage.saveTasks(list);
+            // An unreadable line must not shift the positions the journal refers to
+            Path file = folder.resolve("duke.txt");
+            Files.writeString(file, Files.readString(file).replaceFirst("\n", "\nnot a task\n"));
+            list.remove(5);
+            storage.logDelete(list, 5);
+
+            Storage lazy = new Storage(folder);
+            lazy.setLazy(true);
+            List<Task> loaded = lazy.loadTasks();
+            List<Task> eager = new Storage(folder).loadTasks();
+            assertEquals(99, loaded.size());
+            assertEquals(99, eager.size());
+            for (int i = 0; i < list.size(); i++) {
+                assertEquals(list.get(i).toFileString(), loaded.get(i).toFileString());
+                assertEquals(list.get(i).toFileString(), eager.get(i).toFileString());
+            }
+        } finally {
+            for (String name : List.of("duke.txt", "duke.idx", "duke.journal")) {
+                Files.deleteIfExists(folder.resolve(name));
+            }
+            Files.delete(folder);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package duke.storage;
+
+import duke.task.Task;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+public class TaskFileReaderTest {
+
+    @Test
+    void testParallelMatchesSequential() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            switch (i % 3) {
+                case 0:
+                    sb.append("T | ").append(i % 2).append(" | read book ").append(i);
+                    break;
+                case 1:
+                    sb.append("D | 0 | return book ").append(i).append(" | 2023-06-06");
+                    break;
+                default:
+                    sb.append("E | 1 | meeting ").append(i).append(" | 2023-08-06T14:00 | 2023-08-06T16:00");
+                    break;
+            }
+            sb.append(i % 7 == 0 ? "\r\n" : i % 5 == 0 ? "\r" : "\n");
+        }
+        sb.append("T | 0 | no trailing newline");
+
+        Path file = Files.createTempFile("duke", ".txt");
+        try {
+            Files.write(file, sb.toString().getBytes(StandardCharsets.UTF_8));
+            List<Task> expected = TaskFileReader.readSequential(file);
+            assertEquals(501, expected.size());
+            for (long chunkSize : new long[] { 1, 64, 1000, 1 << 20 }) {
+                List<Task> actual = TaskFileReader.readParallel(file, chunkSize);
+                assertEquals(expected.size(), actual.size());
+                for (int i = 0; i < expected.size(); i++) {
+                    assertEquals(expected.get(i).toFileString(), actual.get(i).toFileString());
+                }
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void testMalformedLinesAreSkipped() throws IOException {
+        Path file = Files.createTempFile("duke", ".txt");
+        try {
+            Files.write(file, "T | 0 | read book\nD | 0 | return book\nT | 1 | write essay\n"
+                    .getBytes(StandardCharsets.UTF_8));
+            for (List<Task> list : List.of(TaskFileReader.readSequential(file), TaskFileReader.readParallel(file, 1))) {
+                assertEquals(2, list.size());
+                assertEquals("T | 1 | write essay", list.get(1).toFileString());
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
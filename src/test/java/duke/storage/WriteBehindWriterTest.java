@@ -0,0 +1,79 @@
+package duke.storage;
+
+import duke.task.Task;
+import duke.task.ToDos;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class WriteBehindWriterTest {
+
+    @Test
+    void testWritesInSubmissionOrder() throws IOException {
+        for (Durability durability : new Durability[] { Durability.ASYNC, Durability.BATCHED, Durability.FSYNC }) {
+            Path path = Files.createTempFile("duke", ".journal");
+            Journal journal = new Journal(path);
+            List<String> events = new ArrayList<>();
+            WriteBehindWriter writer = new WriteBehindWriter(journal, list -> {
+                events.add("snapshot of " + list.size());
+                journal.reset();
+            }, durability, 20);
+
+            try {
+                writer.append(List.of(Journal.addRecord(new ToDos("read book"))));
+                writer.append(List.of(Journal.markRecord(0, true)));
+                List<Task> snapshot = List.of(new ToDos("read book"));
+                writer.snapshot(snapshot);
+                writer.append(List.of(Journal.deleteRecord(0)));
+                writer.flush();
+
+                assertEquals(List.of("snapshot of 1"), events);
+                assertEquals(List.of("x 0"), journal.readPending());
+            } finally {
+                writer.close();
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    @Test
+    void testRecoversFromFailedWrites() throws IOException {
+        Path path = Files.createTempFile("duke", ".journal");
+        Journal journal = new Journal(path);
+        boolean[] isBroken = { true };
+        WriteBehindWriter writer = new WriteBehindWriter(journal, list -> {
+            if (isBroken[0]) {
+                throw new IllegalStateException("disk on fire");
+            }
+            journal.reset();
+        }, Durability.FSYNC, 0);
+        try {
+            writer.snapshot(List.of(new ToDos("read book")));
+            assertTrue(writer.takeFailure());
+            assertFalse(writer.takeFailure());
+
+            // Records would replay onto the wrong snapshot, so they wait for a good one
+            writer.append(List.of(Journal.deleteRecord(0)));
+            assertTrue(writer.takeFailure());
+            assertEquals(List.of(), journal.readPending());
+
+            isBroken[0] = false;
+            writer.snapshot(List.of());
+            writer.append(List.of(Journal.addRecord(new ToDos("return book"))));
+            assertFalse(writer.takeFailure());
+            assertEquals(1, journal.readPending().size());
+        } finally {
+            writer.close();
+            Files.deleteIfExists(path);
+        }
+        // A stopped writer fails writes instead of leaving them waiting
+        writer.append(List.of(Journal.deleteRecord(0)));
+        assertTrue(writer.takeFailure());
+    }
+}
@@ -0,0 +1,142 @@
+package duke.tasklist;
+
+import duke.command.TaskType;
+import duke.parser.Parser;
+import duke.task.Task;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ColumnarTaskStoreTest {
+    private static final String[] LINES = {
+        "T | 0 | read book",
+        "D | 1 | return book | 2023-06-06",
+        "E | 0 | project meeting | 2023-08-06T14:00 | 2023-08-06T16:00",
+        "T | 1 | x",
+        "E | 1 | with seconds | 2023-08-06T14:00:30 | 2023-08-06T16:00",
+    };
+
+    @Test
+    void testRoundTrip() {
+        ColumnarTaskStore store = new ColumnarTaskStore(parse(LINES));
+        assertEquals(LINES.length, store.size());
+        for (int i = 0; i < LINES.length; i++) {
+            assertEquals(LINES[i], store.get(i).toFileString());
+        }
+    }
+
+    @Test
+    void testSetAndRemove() {
+        ColumnarTaskStore store = new ColumnarTaskStore(parse(LINES));
+        Task task = store.get(0);
+        task.setIsDone(true);
+        store.set(0, task);
+        assertEquals("T | 1 | read book", store.get(0).toFileString());
+
+        int id = store.idAt(2);
+        assertEquals("D | 1 | return book | 2023-06-06", store.remove(1).toFileString());
+        assertEquals(1, store.indexOfId(id));
+        assertEquals(-1, store.indexOfId(store.idAt(0) + 1));
+        assertEquals(LINES[2], store.get(1).toFileString());
+
+        store.add(Parser.createTaskFromLine("T | 0 | a new task"));
+        assertEquals(LINES.length, store.size());
+        assertEquals(store.nextId() - 1, store.idAt(store.size() - 1));
+        assertEquals("T | 0 | a new task", store.get(store.size() - 1).toFileString());
+    }
+
+    @Test
+    void testArenaIsReclaimed() {
+        ColumnarTaskStore store = new ColumnarTaskStore();
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            String line = "T | 0 | task number " + i;
+            store.add(Parser.createTaskFromLine(line));
+            expected.add(line);
+            if (i % 3 != 0) {
+                store.remove(0);
+                expected.remove(0);
+            }
+        }
+        assertEquals(expected.size(), store.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i), store.get(i).toFileString());
+        }
+    }
+
+    @Test
+    void testReplacedDescriptionIsNotKept() {
+        ColumnarTaskStore store = new ColumnarTaskStore();
+        store.add(Parser.createTaskFromLine("T | 0 | " + "a".repeat(200)));
+        // Compacting to make room must not copy the description being replaced
+        String line = "T | 0 | " + "b".repeat(100);
+        store.set(0, Parser.createTaskFromLine(line));
+        assertEquals(line, store.get(0).toFileString());
+        for (int i = 0; i < 50; i++) {
+            line = "T | 0 | " + "c".repeat(i * 7 % 300 + 1);
+            store.set(0, Parser.createTaskFromLine(line));
+            assertEquals(line, store.get(0).toFileString());
+        }
+    }
+
+    @Test
+    void testTaskListOverColumnarStore() {
+        TaskList taskList = new TaskList(new ColumnarTaskStore(parse(LINES)));
+        taskList.addTask(Parser.createTaskFromLine("T | 0 | borrow book"));
+        taskList.markTask(3, false);
+        taskList.deleteTask(0);
+
+        assertEquals(2, taskList.searchList("book", false, true).size());
+        assertEquals(1, taskList.findDuplicates("Return Book /by 2024-01-01", TaskType.DEADLINE).size());
+        assertEquals(0, taskList.findDuplicates("read book", TaskType.TODO).size());
+        assertEquals("T | 0 | x", taskList.getList().get(2).toFileString());
+    }
+
+    @Test
+    void testFootprint() {
+        int count = 200_000;
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            lines.add(i % 2 == 0
+                    ? "D | 0 | return book " + i + " | 2023-06-06"
+                    : "E | 1 | meeting " + i + " | 2023-08-06T14:00 | 2023-08-06T16:00");
+        }
+
+        long before = usedMemory();
+        List<Task> objects = new ArrayList<>();
+        for (String line : lines) {
+            objects.add(Parser.createTaskFromLine(line));
+        }
+        long objectBytes = usedMemory() - before;
+
+        before = usedMemory();
+        ColumnarTaskStore columns = new ColumnarTaskStore();
+        for (String line : lines) {
+            columns.add(Parser.createTaskFromLine(line));
+        }
+        long columnarBytes = usedMemory() - before;
+
+        assertEquals(objects.size(), columns.size());
+        assertTrue(columnarBytes < objectBytes * 3 / 4,
+                "columnar " + columnarBytes + " bytes, objects " + objectBytes + " bytes");
+    }
+
+    private static List<Task> parse(String... lines) {
+        List<Task> tasks = new ArrayList<>();
+        for (String line : lines) {
+            tasks.add(Parser.createTaskFromLine(line));
+        }
+        return tasks;
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
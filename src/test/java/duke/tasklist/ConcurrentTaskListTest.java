@@ -0,0 +1,211 @@
+package duke.tasklist;
+
+import duke.task.Task;
+import duke.task.ToDos;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ConcurrentTaskListTest {
+    private static final int ADDERS = 3;
+    private static final int ADDS = 3000;
+    private static final int READERS = 2;
+
+    @Test
+    void testMatchesArrayList() {
+        Random random = new Random(5);
+        ConcurrentTaskList taskList = new ConcurrentTaskList(List.of(new ToDos("first")));
+        List<Task> expected = new ArrayList<>(taskList.getList());
+        TaskSnapshot old = null;
+        List<Task> oldCopy = null;
+        List<Boolean> oldIsDone = new ArrayList<>();
+
+        for (int i = 0; i < 20000; i++) {
+            int operation = random.nextInt(10);
+            if (expected.isEmpty() || operation < 5) {
+                Task task = new ToDos("task " + i);
+                taskList.addTask(task);
+                expected.add(task);
+            } else if (operation < 8) {
+                int index = random.nextInt(expected.size());
+                assertSame(expected.remove(index), taskList.deleteTask(index));
+            } else {
+                int index = random.nextInt(expected.size());
+                Task marked = taskList.markTask(index, true);
+                assertEquals(expected.get(index).getDescription(), marked.getDescription());
+                expected.set(index, marked);
+            }
+            if (i == 10000) {
+                old = taskList.getList();
+                oldCopy = new ArrayList<>(old);
+                for (Task task : old) {
+                    oldIsDone.add(task.getIsDone());
+                }
+            }
+        }
+
+        TaskSnapshot snapshot = taskList.getList();
+        assertEquals(20000, snapshot.getVersion());
+        assertEquals(expected, snapshot);
+        for (int i = 0; i < expected.size(); i++) {
+            assertSame(expected.get(i), snapshot.get(i));
+        }
+        assertEquals(oldCopy, old);
+        for (int i = 0; i < oldCopy.size(); i++) {
+            assertEquals(oldIsDone.get(i), oldCopy.get(i).getIsDone(), "A mark changed an old snapshot");
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> snapshot.get(expected.size()));
+    }
+
+    @Test
+    void testSearch() {
+        ConcurrentTaskList taskList = new ConcurrentTaskList();
+        taskList.addTask(new ToDos("read book"));
+        taskList.addTask(new ToDos("return Book"));
+        List<IndexedTask> found = taskList.searchList("BOOK", false, false);
+        assertEquals(2, found.size());
+        assertEquals(1, found.get(1).getIndex());
+        assertEquals(1, taskList.searchList("read book", true, true).size());
+
+        // Searched often enough, a version is searched through its index
+        for (int i = 0; i < 300; i++) {
+            taskList.addTask(new ToDos("task " + i));
+        }
+        taskList.deleteTask(5);
+        taskList.markTask(100, true);
+        List<IndexedTask> scanned = taskList.searchList("task 1", false, false);
+        for (int i = 1; i < TaskSnapshot.SEARCHES_BEFORE_INDEX; i++) {
+            taskList.searchList("task 1", false, false);
+        }
+        List<IndexedTask> indexed = taskList.searchList("task 1", false, false);
+        assertNotNull(taskList.getList().searchIndex());
+        assertEquals(scanned.size(), indexed.size());
+        for (int i = 0; i < scanned.size(); i++) {
+            assertEquals(scanned.get(i).getIndex(), indexed.get(i).getIndex());
+            assertSame(scanned.get(i).getTask(), indexed.get(i).getTask());
+        }
+        assertEquals(2, taskList.searchList("BOOK", false, false).size());
+    }
+
+    /**
+     * Adders append their own numbered tasks while an editor marks and deletes
+     * tasks by the positions it last read, and readers check that every snapshot
+     * they take is a state the list really was in.
+     */
+    @Test
+    void testConcurrentWritersAndReaders() throws Exception {
+        ConcurrentTaskList taskList = new ConcurrentTaskList();
+        ExecutorService executor = Executors.newFixedThreadPool(ADDERS + 1 + READERS);
+        AtomicInteger addersLeft = new AtomicInteger(ADDERS);
+        Set<String> marked = ConcurrentHashMap.newKeySet();
+        Set<String> deleted = ConcurrentHashMap.newKeySet();
+        AtomicInteger edits = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int w = 0; w < ADDERS; w++) {
+                int adder = w;
+                futures.add(executor.submit(() -> {
+                    for (int k = 0; k < ADDS; k++) {
+                        taskList.addTask(new ToDos(adder + " " + k));
+                    }
+                    addersLeft.decrementAndGet();
+                }));
+            }
+
+            futures.add(executor.submit(() -> {
+                Random random = new Random(7);
+                while (addersLeft.get() > 0) {
+                    TaskSnapshot snapshot = taskList.getList();
+                    if (snapshot.isEmpty()) {
+                        Thread.yield();
+                        continue;
+                    }
+                    // Only this thread deletes, so positions it read still hold
+                    int index = random.nextInt(snapshot.size());
+                    String description = snapshot.get(index).getDescription();
+                    if (random.nextBoolean()) {
+                        assertEquals(description, taskList.markTask(index, true).getDescription());
+                        marked.add(description);
+                    } else {
+                        assertEquals(description, taskList.deleteTask(index).getDescription());
+                        deleted.add(description);
+                    }
+                    edits.incrementAndGet();
+                }
+            }));
+
+            for (int r = 0; r < READERS; r++) {
+                futures.add(executor.submit(() -> {
+                    long lastVersion = -1;
+                    Set<String> seenDone = new HashSet<>();
+                    List<TaskSnapshot> kept = new ArrayList<>();
+                    List<List<Task>> keptCopies = new ArrayList<>();
+                    while (addersLeft.get() > 0) {
+                        TaskSnapshot snapshot = taskList.getList();
+                        assertTrue(snapshot.getVersion() >= lastVersion);
+                        lastVersion = snapshot.getVersion();
+
+                        int[] lastSeen = new int[ADDERS];
+                        Arrays.fill(lastSeen, -1);
+                        Map<String, Task> byDescription = new HashMap<>();
+                        for (Task task : snapshot) {
+                            String[] parts = task.getDescription().split(" ");
+                            int adder = Integer.parseInt(parts[0]);
+                            int k = Integer.parseInt(parts[1]);
+                            assertTrue(k > lastSeen[adder], "Tasks of one adder out of order");
+                            lastSeen[adder] = k;
+                            byDescription.put(task.getDescription(), task);
+                        }
+                        for (String description : seenDone) {
+                            Task task = byDescription.get(description);
+                            assertTrue(task == null || task.getIsDone(), "Mark undone: " + description);
+                        }
+                        for (Task task : snapshot) {
+                            if (task.getIsDone()) {
+                                seenDone.add(task.getDescription());
+                            }
+                        }
+                        if (kept.size() < 5) {
+                            kept.add(snapshot);
+                            keptCopies.add(new ArrayList<>(snapshot));
+                        }
+                    }
+                    for (int i = 0; i < kept.size(); i++) {
+                        assertEquals(keptCopies.get(i), kept.get(i));
+                    }
+                }));
+            }
+
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        TaskSnapshot result = taskList.getList();
+        assertEquals(ADDERS * ADDS - deleted.size(), result.size());
+        assertEquals(ADDERS * ADDS + edits.get(), result.getVersion());
+        Set<String> present = new HashSet<>();
+        for (Task task : result) {
+            present.add(task.getDescription());
+            assertFalse(deleted.contains(task.getDescription()));
+            assertEquals(marked.contains(task.getDescription()), task.getIsDone(), task.getDescription());
+        }
+        assertEquals(result.size(), present.size());
+    }
+}
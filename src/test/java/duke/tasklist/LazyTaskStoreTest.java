@@ -0,0 +1,94 @@
+package duke.tasklist;
+
+import duke.command.TaskType;
+import duke.task.Task;
+import duke.task.ToDos;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class LazyTaskStoreTest {
+
+    @Test
+    void testMatchesArrayList() {
+        Random random = new Random(11);
+        int count = 5000;
+        List<Task> expected = new ArrayList<>();
+        List<Integer> expectedIds = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            expected.add(new ToDos("loaded " + i));
+            expectedIds.add(i);
+        }
+        LazyTaskStore store = new LazyTaskStore(count, id -> new ToDos("loaded " + id), todoCounts(count), 64);
+
+        for (int i = 0; i < 20000; i++) {
+            int operation = random.nextInt(10);
+            if (expected.isEmpty() || operation < 3) {
+                Task task = new ToDos("task " + i);
+                expectedIds.add(store.nextId());
+                store.add(task);
+                expected.add(task);
+            } else if (operation < 6) {
+                int index = random.nextInt(expected.size());
+                assertEquals(expected.remove(index).getDescription(), store.remove(index).getDescription());
+                assertEquals(-1, store.indexOfId(expectedIds.remove(index)));
+            } else if (operation < 8) {
+                int index = random.nextInt(expected.size());
+                Task task = store.get(index);
+                task.setIsDone(true);
+                store.set(index, task);
+                expected.get(index).setIsDone(true);
+            } else {
+                int index = random.nextInt(expected.size());
+                assertEquals(expected.get(index).toFileString(), store.get(index).toFileString());
+            }
+        }
+
+        assertEquals(expected.size(), store.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).toFileString(), store.get(i).toFileString());
+            assertEquals((long) expectedIds.get(i), store.idAt(i));
+            assertEquals(i, store.indexOfId(expectedIds.get(i)));
+        }
+        int[] counts = new int[TaskType.values().length];
+        store.countTypes(counts);
+        assertEquals(expected.size(), counts[TaskType.TODO.ordinal()]);
+    }
+
+    @Test
+    void testReadsOnlyTasksInUse() {
+        AtomicInteger reads = new AtomicInteger();
+        LazyTaskStore store = new LazyTaskStore(1_000_000, id -> {
+            reads.incrementAndGet();
+            return new ToDos("task " + id);
+        }, todoCounts(1_000_000), 16);
+
+        TaskList taskList = new TaskList(store);
+        assertEquals(1_000_000, taskList.getListSize());
+        assertEquals(1_000_000, taskList.getCount(TaskType.TODO));
+        taskList.markTask(999_999, true);
+        taskList.deleteTask(0);
+        assertEquals("task 1", store.get(0).getDescription());
+        assertEquals(3, reads.get());
+
+        // The cache is bounded, but changed tasks are kept
+        for (int i = 0; i < 100; i++) {
+            store.get(i);
+        }
+        assertTrue(store.get(999_998).getIsDone());
+        assertEquals(3 + 99, reads.get());
+        store.get(0);
+        assertEquals(3 + 99 + 1, reads.get());
+    }
+
+    private static int[] todoCounts(int count) {
+        int[] counts = new int[TaskType.values().length];
+        counts[TaskType.TODO.ordinal()] = count;
+        return counts;
+    }
+}
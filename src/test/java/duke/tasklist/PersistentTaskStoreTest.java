@@ -0,0 +1,76 @@
+package duke.tasklist;
+
+import duke.task.Task;
+import duke.task.ToDos;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class PersistentTaskStoreTest {
+
+    @Test
+    void testMatchesArrayList() {
+        Random random = new Random(5);
+        List<Task> initial = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            initial.add(new ToDos("loaded " + i));
+        }
+        PersistentTaskStore store = new PersistentTaskStore(initial);
+        List<Task> expected = new ArrayList<>(initial);
+        List<Integer> expectedIds = new ArrayList<>();
+        for (int i = 0; i < initial.size(); i++) {
+            expectedIds.add(i);
+        }
+        List<PersistentTaskStore.Version> versions = new ArrayList<>();
+        List<List<Task>> versionContents = new ArrayList<>();
+
+        for (int i = 0; i < 20000; i++) {
+            int operation = random.nextInt(10);
+            if (expected.isEmpty() || operation < 5) {
+                Task task = new ToDos("task " + i);
+                expectedIds.add(store.nextId());
+                store.add(task);
+                expected.add(task);
+            } else if (operation < 9) {
+                int index = random.nextInt(expected.size());
+                assertSame(expected.remove(index), store.remove(index));
+                assertEquals(-1, store.indexOfId(expectedIds.remove(index)));
+            } else {
+                int index = random.nextInt(expected.size());
+                Task task = new ToDos("replaced " + i);
+                assertSame(expected.set(index, task), store.set(index, task));
+            }
+            if (i % 1000 == 0) {
+                versions.add(store.getVersion());
+                versionContents.add(new ArrayList<>(expected));
+            }
+        }
+
+        assertEquals(expected.size(), store.size());
+        assertEquals(expected, new ArrayList<>(store));
+        for (int i = 0; i < expected.size(); i++) {
+            assertSame(expected.get(i), store.get(i));
+            assertEquals((long) expectedIds.get(i), store.idAt(i));
+            assertEquals(i, store.indexOfId(expectedIds.get(i)));
+        }
+
+        // Earlier versions are not changed by the edits made after them
+        for (int v = 0; v < versions.size(); v++) {
+            store.restore(versions.get(v));
+            assertEquals(versionContents.get(v), new ArrayList<>(store));
+        }
+    }
+
+    @Test
+    void testOutOfBounds() {
+        PersistentTaskStore store = new PersistentTaskStore();
+        store.add(new ToDos("read book"));
+        store.remove(0);
+        assertThrows(IndexOutOfBoundsException.class, () -> store.get(0));
+        assertThrows(IndexOutOfBoundsException.class, () -> store.remove(-1));
+    }
+}
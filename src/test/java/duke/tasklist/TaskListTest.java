@@ -0,0 +1,316 @@
+package duke.tasklist;
+
+import duke.command.TaskType;
+import duke.task.Deadlines;
+import duke.task.Events;
+import duke.task.Task;
+import duke.task.ToDos;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+public class TaskListTest {
+    private static final String[] WORDS = { "read", "book", "Return", "meeting", "bookshelf", "a", "ok" };
+
+    @Test
+    void testSearchMatchesLinearScan() {
+        Random random = new Random(42);
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            tasks.add(new ToDos(randomDescription(random)));
+        }
+        TaskList taskList = new TaskList(new ArrayList<>(tasks));
+
+        for (int i = 0; i < 50; i++) {
+            taskList.deleteTask(random.nextInt(taskList.getListSize()));
+            taskList.addTask(new ToDos(randomDescription(random)));
+        }
+
+        for (String keyword : new String[] { "book", "BOOK", "ook", "return book", "ok", "a", "", "xyz" }) {
+            List<IndexedTask> matches = taskList.searchList(keyword, false, true);
+            List<Task> found = new ArrayList<>();
+            for (IndexedTask match : matches) {
+                assertSame(taskList.getList().get(match.getIndex()), match.getTask());
+                found.add(match.getTask());
+            }
+            assertEquals(linearSearch(taskList.getList(), keyword), found, keyword);
+        }
+    }
+
+    @Test
+    void testFindDuplicates() {
+        List<Task> tasks = new ArrayList<>();
+        tasks.add(new ToDos("read book"));
+        tasks.add(new Deadlines("Return Book /by 2023-06-06"));
+        TaskList taskList = new TaskList(tasks);
+
+        assertEquals(1, taskList.findDuplicates("READ book", TaskType.TODO).size());
+        assertEquals(1, taskList.findDuplicates("return book /by 2024-01-01", TaskType.DEADLINE).size());
+        assertEquals(0, taskList.findDuplicates("return book /from 2023-01-01 /to 2023-01-02",
+                TaskType.EVENT).size());
+
+        assertEquals(1, taskList.findDuplicates("return book /by 2024-01-01", TaskType.DEADLINE).get(0).getIndex());
+
+        taskList.deleteTask(0);
+        assertEquals(0, taskList.findDuplicates("read book", TaskType.TODO).size());
+        assertEquals(0, taskList.findDuplicates("return book /by 2024-01-01", TaskType.DEADLINE).get(0).getIndex());
+    }
+
+    @Test
+    void testAddNewTasksSkipsDuplicates() {
+        List<Task> tasks = new ArrayList<>();
+        tasks.add(new ToDos("read book"));
+        TaskList taskList = new TaskList(tasks);
+
+        List<Task> imported = List.of(new ToDos("READ book"), new ToDos("write essay"),
+                new Deadlines("read book /by 2023-06-06"), new ToDos("write Essay"));
+        assertEquals(2, taskList.addNewTasks(imported.iterator()));
+        assertEquals(3, taskList.getListSize());
+        assertEquals("write essay", taskList.getList().get(1).getDescription());
+        assertEquals(TaskType.DEADLINE, taskList.getList().get(2).getTaskType());
+
+        assertEquals(4, taskList.addNewTasks(imported.iterator()));
+        assertEquals(3, taskList.getListSize());
+    }
+
+    @Test
+    void testDeleteTasksMatchesOneByOne() {
+        Random random = new Random(7);
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            tasks.add(new ToDos(randomDescription(random)));
+        }
+        for (List<Task> store : List.of(new ArrayList<>(tasks), new ColumnarTaskStore(tasks))) {
+            TaskList bulk = new TaskList(store);
+            TaskList single = new TaskList(new ArrayList<>(tasks));
+            bulk.markTasks(new int[] { 1, 2, 250 }, true);
+            single.markTasks(new int[] { 1, 2, 250 }, true);
+            bulk.searchList("book", false, true); // Built before the delete, so it must be kept up to date
+            int[] indices = Arrays.copyOf(bulk.findByStatus(false), 200);
+
+            List<Task> removed = bulk.deleteTasks(indices);
+            for (int i = indices.length - 1; i >= 0; i--) {
+                single.deleteTask(indices[i]);
+            }
+            assertEquals(200, removed.size());
+            assertEquals(toLines(single.getList()), toLines(bulk.getList()));
+            assertEquals(single.getCount(TaskType.TODO), bulk.getCount(TaskType.TODO));
+            assertEquals(indexes(single.searchList("book", false, true)),
+                    indexes(bulk.searchList("book", false, true)));
+            String description = bulk.getList().get(0).getDescription();
+            assertEquals(indexes(single.findDuplicates(description, TaskType.TODO)),
+                    indexes(bulk.findDuplicates(description, TaskType.TODO)));
+        }
+    }
+
+    @Test
+    void testUndoRestoresListAndIndexes() {
+        Random random = new Random(9);
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            tasks.add(new ToDos(randomDescription(random)));
+        }
+        TaskList taskList = new TaskList(new PersistentTaskStore(tasks));
+        assertTrue(taskList.canUndo());
+        assertNull(taskList.undo());
+        taskList.searchList("book", false, true);
+
+        List<List<String>> history = new ArrayList<>();
+        List<List<Integer>> matches = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            history.add(toLines(taskList.getList()));
+            matches.add(indexes(taskList.searchList("book", false, true)));
+            int size = taskList.getListSize();
+            switch (i % 4) {
+                case 0:
+                    taskList.addTask(new ToDos(randomDescription(random)));
+                    break;
+                case 1:
+                    taskList.deleteTask(random.nextInt(size));
+                    break;
+                case 2:
+                    taskList.deleteTasks(new int[] { 0, size / 2, size - 1 });
+                    break;
+                default:
+                    taskList.markTasks(new int[] { 1, 2, 3 }, random.nextBoolean());
+                    break;
+            }
+        }
+        List<String> last = toLines(taskList.getList());
+
+        for (int i = history.size() - 1; i >= 0; i--) {
+            assertNotNull(taskList.undo());
+            assertEquals(history.get(i), toLines(taskList.getList()));
+            assertEquals(matches.get(i), indexes(taskList.searchList("book", false, true)));
+        }
+        assertNull(taskList.undo());
+        for (int i = 1; i < history.size(); i++) {
+            taskList.redo();
+            assertEquals(history.get(i), toLines(taskList.getList()));
+        }
+        taskList.redo();
+        assertEquals(last, toLines(taskList.getList()));
+        assertNull(taskList.redo());
+
+        // A new change drops what was left to redo
+        taskList.undo();
+        taskList.addTask(new ToDos("write report"));
+        assertNull(taskList.redo());
+        assertEquals(1, taskList.findDuplicates("write report", TaskType.TODO).size());
+    }
+
+    @Test
+    void testSearchSimilarMatchesBruteForce() {
+        Random random = new Random(3);
+        TaskList taskList = new TaskList();
+        for (int i = 0; i < 2000; i++) {
+            taskList.addTask(new ToDos(randomDescription(random) + " " + random.nextInt(100)));
+        }
+        taskList.searchList("book", false, true);
+        for (int i = 0; i < 300; i++) {
+            taskList.deleteTask(random.nextInt(taskList.getListSize()));
+        }
+
+        for (String keyword : new String[] { "meetnig", "bookshelf 42", "Retrun bok", "a ok 7", "xyz", "ok" }) {
+            for (int limit : new int[] { 1, 10, 5000 }) {
+                assertEquals(linearSimilar(taskList.getList(), keyword.toLowerCase(), limit),
+                        indexes(taskList.searchSimilar(keyword, limit)), keyword + " " + limit);
+            }
+        }
+    }
+
+    @Test
+    void testDateQueriesMatchLinearScan() {
+        Random random = new Random(7);
+        LocalDate base = LocalDate.of(2023, 1, 1);
+        TaskList taskList = new TaskList();
+        for (int i = 0; i < 500; i++) {
+            LocalDate day = base.plusDays(random.nextInt(60));
+            if (random.nextInt(3) == 0) {
+                taskList.addTask(new ToDos("todo " + i));
+            } else if (random.nextBoolean()) {
+                taskList.addTask(new Deadlines("deadline " + i, false, day));
+            } else {
+                LocalDateTime from = day.atTime(random.nextInt(24), 0);
+                taskList.addTask(new Events("event " + i, false, from, from.plusHours(random.nextInt(24 * 5))));
+            }
+            if (i % 4 == 0) {
+                taskList.deleteTask(random.nextInt(taskList.getListSize()));
+            }
+        }
+
+        for (int i = 0; i < 100; i++) {
+            LocalDate from = base.plusDays(random.nextInt(70) - 5);
+            LocalDate to = from.plusDays(random.nextInt(10));
+            assertEquals(linearDateSearch(taskList.getList(), LocalDate.MIN, from, true),
+                    indexes(taskList.findDueBy(from)));
+            assertEquals(linearDateSearch(taskList.getList(), from, to, false),
+                    indexes(taskList.findBetween(from, to)));
+        }
+    }
+
+    private static List<String> toLines(List<Task> list) {
+        List<String> lines = new ArrayList<>();
+        for (Task task : list) {
+            lines.add(task.toFileString());
+        }
+        return lines;
+    }
+
+    private static List<Integer> indexes(List<IndexedTask> matches) {
+        List<Integer> result = new ArrayList<>();
+        for (IndexedTask match : matches) {
+            result.add(match.getIndex());
+        }
+        return result;
+    }
+
+    private static List<Integer> linearDateSearch(List<Task> list, LocalDate from, LocalDate to,
+            boolean isDeadlinesOnly) {
+        List<Integer> result = new ArrayList<>();
+        for (int i = 0; i < list.size(); i++) {
+            Task task = list.get(i);
+            LocalDate start;
+            LocalDate end;
+            if (task instanceof Deadlines) {
+                start = end = ((Deadlines) task).getDeadline();
+            } else if (task instanceof Events && !isDeadlinesOnly) {
+                start = ((Events) task).getFrom().toLocalDate();
+                end = ((Events) task).getTo().toLocalDate();
+            } else {
+                continue;
+            }
+            if (!start.isAfter(to) && !end.isBefore(from)) {
+                result.add(i);
+            }
+        }
+        return result;
+    }
+
+    private static String randomDescription(Random random) {
+        StringBuilder sb = new StringBuilder(WORDS[random.nextInt(WORDS.length)]);
+        for (int i = random.nextInt(3); i > 0; i--) {
+            sb.append(' ').append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Scores every task against the keyword the way the trigram index does, for
+     * keywords of at least three characters.
+     */
+    private static List<Integer> linearSimilar(List<Task> list, String keyword, int limit) {
+        if (keyword.length() < 3) {
+            List<Integer> result = indexes(TaskList.scan(list, keyword, false));
+            return result.subList(0, Math.min(limit, result.size()));
+        }
+        Set<String> grams = trigrams(keyword);
+        List<Integer> indexes = new ArrayList<>();
+        Map<Integer, Double> scores = new HashMap<>();
+        for (int i = 0; i < list.size(); i++) {
+            Set<String> taskGrams = trigrams(list.get(i).getDescription().toLowerCase());
+            int shared = 0;
+            for (String gram : taskGrams) {
+                if (grams.contains(gram)) {
+                    shared++;
+                }
+            }
+            if (shared > 0 && shared >= (grams.size() + 2) / 3) {
+                indexes.add(i);
+                scores.put(i, 2.0 * shared / (grams.size() + taskGrams.size()));
+            }
+        }
+        indexes.sort(Comparator.comparingDouble((Integer i) -> -scores.get(i)).thenComparingInt(i -> i));
+        return indexes.subList(0, Math.min(limit, indexes.size()));
+    }
+
+    private static Set<String> trigrams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            grams.add(text.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    private static List<Task> linearSearch(List<Task> list, String keyword) {
+        List<Task> result = new ArrayList<>();
+        for (Task task : list) {
+            if (task.getDescription().toLowerCase().contains(keyword.toLowerCase().trim())) {
+                result.add(task);
+            }
+        }
+        return result;
+    }
+}
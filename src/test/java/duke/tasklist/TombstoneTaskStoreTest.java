@@ -0,0 +1,75 @@
+package duke.tasklist;
+
+import duke.task.Task;
+import duke.task.ToDos;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class TombstoneTaskStoreTest {
+
+    @Test
+    void testMatchesArrayList() {
+        Random random = new Random(3);
+        TombstoneTaskStore store = new TombstoneTaskStore();
+        List<Task> expected = new ArrayList<>();
+        List<Integer> expectedIds = new ArrayList<>();
+
+        for (int i = 0; i < 20000; i++) {
+            int operation = random.nextInt(10);
+            if (expected.isEmpty() || operation < 5) {
+                Task task = new ToDos("task " + i);
+                expectedIds.add(store.nextId());
+                store.add(task);
+                expected.add(task);
+            } else if (operation < 9) {
+                int index = random.nextInt(expected.size());
+                assertSame(expected.remove(index), store.remove(index));
+                int id = expectedIds.remove(index);
+                assertEquals(-1, store.indexOfId(id));
+            } else {
+                int index = random.nextInt(expected.size());
+                Task task = new ToDos("replaced " + i);
+                assertSame(expected.set(index, task), store.set(index, task));
+            }
+        }
+
+        assertEquals(expected.size(), store.size());
+        assertEquals(expected, new ArrayList<>(store));
+        for (int i = 0; i < expected.size(); i++) {
+            assertSame(expected.get(i), store.get(i));
+            assertEquals((long) expectedIds.get(i), store.idAt(i));
+            assertEquals(i, store.indexOfId(expectedIds.get(i)));
+        }
+    }
+
+    @Test
+    void testDeleteFromFront() {
+        int count = 200_000;
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            tasks.add(new ToDos("task " + i));
+        }
+        TombstoneTaskStore store = new TombstoneTaskStore(tasks);
+
+        for (int i = 0; i < count - 1; i++) {
+            assertSame(tasks.get(i), store.remove(0));
+        }
+        assertEquals(1, store.size());
+        assertSame(tasks.get(count - 1), store.get(0));
+        assertEquals(count - 1, store.idAt(0));
+    }
+
+    @Test
+    void testOutOfBounds() {
+        TombstoneTaskStore store = new TombstoneTaskStore();
+        store.add(new ToDos("read book"));
+        store.remove(0);
+        assertThrows(IndexOutOfBoundsException.class, () -> store.get(0));
+        assertThrows(IndexOutOfBoundsException.class, () -> store.remove(-1));
+    }
+}